@@ -9,6 +9,13 @@ repositories {
     mavenCentral()
 }
 
+// Java 21 is needed for the virtual threads bulk CSV export runs on.
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -17,4 +24,88 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Runs the JMH benchmarks. Narrow the run with -Pjmh.include=<regex> and pass
+// further JMH options with -Pjmh.args="...". Results are written as CSV, one row
+// per benchmark and parameter combination in a stable order, so two runs can be
+// compared with the jmhCompare task.
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks of the calendar model."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    maxHeapSize = "2g"
+    val results = layout.buildDirectory.file("reports/jmh/results.csv").get().asFile
+    doFirst { results.parentFile.mkdirs() }
+    args("-rf", "csv", "-rff", results.absolutePath)
+    (findProperty("jmh.args") as String?)?.let { args(it.trim().split(Regex("\\s+"))) }
+    (findProperty("jmh.include") as String?)?.let { args(it) }
+}
+
+// Compares a saved results file against the latest run, for example
+// gradle jmhCompare -Pjmh.baseline=benchmarks/1.0.csv
+tasks.register<JavaExec>("jmhCompare") {
+    description = "Compares two JMH result files and flags regressions."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.CompareBenchmarkResults")
+    args(
+        findProperty("jmh.baseline") ?: "",
+        findProperty("jmh.results")
+            ?: layout.buildDirectory.file("reports/jmh/results.csv").get().asFile.path,
+        findProperty("jmh.threshold") ?: "10"
+    )
+}
+
+tasks.register<JavaExec>("indexBenchmark") {
+    description = "Compares the calendar's interval tree index against a linear scan."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.EventIndexBenchmark")
+    maxHeapSize = "2g"
+}
+
+tasks.register<JavaExec>("concurrencyBenchmark") {
+    description = "Measures concurrent read and write throughput of a shared calendar."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.ConcurrentCalendarBenchmark")
+    maxHeapSize = "2g"
+}
+
+tasks.register<JavaExec>("footprint") {
+    description = "Measures the heap a calendar retains per stored event."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.EventFootprint")
+    maxHeapSize = "2g"
+}
+
+tasks.register<JavaExec>("journalBenchmark") {
+    description = "Measures journal write throughput by sync batch and recovery time."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.JournalBenchmark")
+    maxHeapSize = "2g"
+}
+
+tasks.register<JavaExec>("fileBenchmark") {
+    description = "Measures saving, mapping, querying and loading a calendar file."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("edu.northeastern.cs5010.model.CalendarFileBenchmark")
+    maxHeapSize = "2g"
+}
@@ -0,0 +1,61 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+/**
+ * Builds the calendars the JMH benchmarks run against.
+ *
+ * <p>A calendar of n events holds n standalone 30-minute events, twenty a day
+ * spaced 70 minutes apart from midnight, so none of them conflict and a strict
+ * calendar accepts them all. It also holds one weekday series of 10-minute
+ * occurrences per 1000 events, each running for a year in its own slot from 22:45,
+ * after the last standalone event of the day has ended.
+ */
+final class BenchmarkCalendars {
+
+  static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+  static final int EVENTS_PER_DAY = 20;
+  static final int SLOT_MINUTES = 70;
+  static final int LENGTH_MINUTES = 30;
+  static final LocalTime SERIES_START = LocalTime.of(22, 45);
+  static final int SERIES_SLOTS = 6;
+
+  private BenchmarkCalendars() {
+  }
+
+  /**
+   * Returns the number of days a calendar of the given size spans.
+   */
+  static int days(int size) {
+    return (size + EVENTS_PER_DAY - 1) / EVENTS_PER_DAY;
+  }
+
+  static Calendar create(int size, boolean conflictChecking) {
+    return fill(new Calendar("Benchmark", "Public", !conflictChecking), size);
+  }
+
+  /**
+   * Adds the events of a calendar of the given size to an empty calendar.
+   */
+  static Calendar fill(Calendar calendar, int size) {
+    for (int i = 0; i < size; i++) {
+      LocalDate date = FIRST_DAY.plusDays(i / EVENTS_PER_DAY);
+      LocalTime start = LocalTime.MIDNIGHT.plusMinutes(
+          (long) (i % EVENTS_PER_DAY) * SLOT_MINUTES);
+      calendar.createEvent("Event " + i, date, date, start, start.plusMinutes(LENGTH_MINUTES),
+          null, "Benchmark event", "Room " + i % 50);
+    }
+    int series = Math.max(1, size / 1000);
+    for (int i = 0; i < series; i++) {
+      LocalDate first = FIRST_DAY.plusYears(i / SERIES_SLOTS);
+      LocalTime start = SERIES_START.plusMinutes((long) (i % SERIES_SLOTS) * 10);
+      calendar.createRecurringEvent("Series " + i, first, start, start.plusMinutes(10),
+          EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), null,
+          first.plusYears(1).minusDays(1), null, null, null);
+    }
+    return calendar;
+  }
+}
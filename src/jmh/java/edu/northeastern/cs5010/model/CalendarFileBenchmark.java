@@ -0,0 +1,82 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Compares ways of bringing back a calendar of a million events: creating every
+ * event again, mapping a {@link CalendarFile} and querying it, and loading the
+ * file into a calendar. Run it with {@code gradle fileBenchmark}.
+ */
+public final class CalendarFileBenchmark {
+
+  private static final int SIZE = 1_000_000;
+  private static final int QUERIES = 10_000;
+
+  private CalendarFileBenchmark() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path path = Files.createTempFile("calendar", ".cal");
+    try {
+      for (int run = 0; run < 3; run++) {
+        boolean report = run == 2;
+        long started = System.nanoTime();
+        Calendar calendar = create();
+        report(report, "createEvent x " + SIZE, started);
+
+        started = System.nanoTime();
+        CalendarFile.write(calendar, path);
+        report(report, "write (" + Files.size(path) / 1024 / 1024 + " MiB)", started);
+
+        started = System.nanoTime();
+        CalendarFile file = CalendarFile.open(path);
+        report(report, "open", started);
+
+        started = System.nanoTime();
+        int found = file.getEventsOnDate(BenchmarkCalendars.FIRST_DAY.plusDays(500)).size();
+        report(report, "first day query (" + found + " events)", started);
+
+        int days = SIZE / BenchmarkCalendars.EVENTS_PER_DAY;
+        started = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+          found += file.getEventsOnDate(
+              BenchmarkCalendars.FIRST_DAY.plusDays((i * 7919L) % days)).size();
+        }
+        if (report) {
+          System.out.printf("%-32s %10.1f us%n", "day query, mean",
+              (System.nanoTime() - started) / 1e3 / QUERIES);
+        }
+
+        started = System.nanoTime();
+        Calendar loaded = file.load();
+        report(report, "load (" + loaded.getEventCount() + " events)", started);
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private static void report(boolean report, String label, long started) {
+    if (report) {
+      System.out.printf("%-32s %10.1f ms%n", label, (System.nanoTime() - started) / 1e6);
+    }
+  }
+
+  private static Calendar create() {
+    Calendar calendar = new Calendar("File", "Public", true);
+    for (int i = 0; i < SIZE; i++) {
+      LocalDate date = BenchmarkCalendars.FIRST_DAY.plusDays(
+          i / BenchmarkCalendars.EVENTS_PER_DAY);
+      LocalTime start = LocalTime.MIDNIGHT.plusMinutes(
+          (long) (i % BenchmarkCalendars.EVENTS_PER_DAY) * BenchmarkCalendars.SLOT_MINUTES);
+      calendar.createEvent("Meeting " + i % 500, date, date, start,
+          start.plusMinutes(BenchmarkCalendars.LENGTH_MINUTES), null, "Agenda " + i % 100,
+          "Room " + i % 50);
+    }
+    return calendar;
+  }
+}
@@ -0,0 +1,105 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read-only calendar operations, at several calendar sizes and with and without
+ * conflict checking. Each call looks up the next of a fixed set of random dates and
+ * times, so every run asks the same questions. The cached variants ask the same
+ * questions of a copy of the calendar whose query cache holds every answer after
+ * the warmup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class CalendarQueryBenchmark {
+
+  private static final int QUERIES = 1 << 12;
+
+  @Param({"1000", "10000", "100000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean conflictChecking;
+
+  private Calendar calendar;
+  private Calendar cached;
+  private LocalDate[] dates;
+  private LocalTime[] times;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    calendar = BenchmarkCalendars.create(size, conflictChecking);
+    cached = BenchmarkCalendars.create(size, conflictChecking);
+    cached.setQueryCacheCapacity(2 * QUERIES);
+    Random random = new Random(size);
+    int days = BenchmarkCalendars.days(size);
+    dates = new LocalDate[QUERIES];
+    times = new LocalTime[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      dates[i] = BenchmarkCalendars.FIRST_DAY.plusDays(random.nextInt(days));
+      times[i] = LocalTime.of(random.nextInt(24), random.nextInt(60));
+    }
+  }
+
+  private int advance() {
+    next = (next + 1) & (QUERIES - 1);
+    return next;
+  }
+
+  @Benchmark
+  public List<Event> getEventsOnDate() {
+    return calendar.getEventsOnDate(dates[advance()]);
+  }
+
+  @Benchmark
+  public List<Event> getEventsInRange() {
+    LocalDate from = dates[advance()];
+    return calendar.getEventsInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  public List<Event> getEventsOnDateCached() {
+    return cached.getEventsOnDate(dates[advance()]);
+  }
+
+  @Benchmark
+  public List<Event> getEventsInRangeCached() {
+    LocalDate from = dates[advance()];
+    return cached.getEventsInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  public boolean isBusyAt() {
+    int i = advance();
+    return calendar.isBusyAt(dates[i], times[i]);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void exportToCSV() throws IOException {
+    calendar.exportToCSV(OutputStream.nullOutputStream());
+  }
+}
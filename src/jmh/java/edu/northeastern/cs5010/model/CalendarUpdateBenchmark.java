@@ -0,0 +1,123 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calendar operations that add or change events, at several calendar sizes and
+ * with and without conflict checking. The calendar is rebuilt before every
+ * iteration. New events are placed after everything the calendar already holds,
+ * so none of them is rejected and conflict checking costs the same each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class CalendarUpdateBenchmark {
+
+  private static final LocalDate FREE_FROM = BenchmarkCalendars.FIRST_DAY.plusYears(100);
+  private static final int SERIES_LENGTH = 10;
+  private static final int LONG_SERIES_LENGTH = 20_000;
+  private static final LocalDate LONG_SERIES_FROM = FREE_FROM.minusYears(60);
+
+  @Param({"1000", "10000", "100000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean conflictChecking;
+
+  private Calendar calendar;
+  private long created;
+  private boolean moved;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    calendar = BenchmarkCalendars.create(size, conflictChecking);
+    LocalDate last = LONG_SERIES_FROM.plusDays(LONG_SERIES_LENGTH - 1);
+    calendar.createEvent("Long series", last, last, BenchmarkCalendars.SERIES_START,
+        BenchmarkCalendars.SERIES_START.plusMinutes(10), null, null, null);
+    created = 0;
+    moved = false;
+  }
+
+  @Benchmark
+  public Event createEvent() {
+    long n = created++;
+    LocalDate date = FREE_FROM.plusDays(n / BenchmarkCalendars.EVENTS_PER_DAY);
+    LocalTime start = LocalTime.MIDNIGHT.plusMinutes(
+        n % BenchmarkCalendars.EVENTS_PER_DAY * BenchmarkCalendars.SLOT_MINUTES);
+    return calendar.createEvent("New " + n, date, date, start,
+        start.plusMinutes(BenchmarkCalendars.LENGTH_MINUTES), null, null, null);
+  }
+
+  /**
+   * Creates a weekly series of ten occurrences. Each series gets its own series
+   * slot and a ten-week block of its own.
+   */
+  @Benchmark
+  public List<Event> createRecurringEvent() {
+    long n = created++;
+    LocalDate first = FREE_FROM.plusWeeks(n / BenchmarkCalendars.SERIES_SLOTS * SERIES_LENGTH);
+    LocalTime start = BenchmarkCalendars.SERIES_START.plusMinutes(
+        n % BenchmarkCalendars.SERIES_SLOTS * 10);
+    return calendar.createRecurringEvent("New series " + n, first, start,
+        start.plusMinutes(10), Set.of(DayOfWeek.MONDAY), SERIES_LENGTH, null, null, null,
+        null);
+  }
+
+  /**
+   * Tries to create a daily series of 20,000 occurrences whose last occurrence
+   * duplicates an existing event, so every call checks the whole series and
+   * leaves the calendar unchanged.
+   */
+  @Benchmark
+  public IllegalArgumentException rejectLongRecurringEvent() {
+    try {
+      calendar.createRecurringEvent("Long series", LONG_SERIES_FROM,
+          BenchmarkCalendars.SERIES_START, BenchmarkCalendars.SERIES_START.plusMinutes(10),
+          Set.of(DayOfWeek.values()), LONG_SERIES_LENGTH, null, null, null, null);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+    throw new IllegalStateException("The long series was not rejected");
+  }
+
+  /**
+   * Moves every occurrence of the first series, about 260 of them, back and forth
+   * between its own slot and a free one, so every call re-checks the whole series.
+   */
+  @Benchmark
+  public void modifyAllRecurringEvents() {
+    LocalTime from = moved ? LocalTime.of(23, 45) : BenchmarkCalendars.SERIES_START;
+    LocalTime to = moved ? BenchmarkCalendars.SERIES_START : LocalTime.of(23, 45);
+    calendar.modifyAllRecurringEvents("Series 0", firstWeekday(), from,
+        occurrence -> occurrence.setStartTime(to));
+    moved = !moved;
+  }
+
+  private static LocalDate firstWeekday() {
+    LocalDate date = BenchmarkCalendars.FIRST_DAY;
+    while (date.getDayOfWeek().getValue() > DayOfWeek.FRIDAY.getValue()) {
+      date = date.plusDays(1);
+    }
+    return date;
+  }
+}
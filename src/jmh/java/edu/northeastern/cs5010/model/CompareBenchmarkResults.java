@@ -0,0 +1,135 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written by {@code gradle jmh} and lists, for every
+ * benchmark and parameter combination, the change in score. A change is a
+ * regression if the score got worse by more than the threshold and by more than the
+ * two error margins together, so noise alone does not fail a comparison. Run it
+ * with {@code gradle jmhCompare -Pjmh.baseline=<file>}; it exits with status 1 if
+ * anything regressed.
+ */
+public final class CompareBenchmarkResults {
+
+  private CompareBenchmarkResults() {
+  }
+
+  /**
+   * One row of a JMH CSV result file.
+   */
+  private static final class Result {
+
+    private final boolean higherIsBetter;
+    private final double score;
+    private final double error;
+    private final String unit;
+
+    private Result(boolean higherIsBetter, double score, double error, String unit) {
+      this.higherIsBetter = higherIsBetter;
+      this.score = score;
+      this.error = error;
+      this.unit = unit;
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args[0].isEmpty()) {
+      System.err.println("Usage: CompareBenchmarkResults <baseline.csv> <results.csv> "
+          + "[threshold percent]");
+      System.exit(2);
+    }
+    Map<String, Result> baseline = read(Path.of(args[0]));
+    Map<String, Result> current = read(Path.of(args[1]));
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+    int regressions = 0;
+    System.out.printf("%-60s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+    for (Map.Entry<String, Result> entry : current.entrySet()) {
+      Result now = entry.getValue();
+      Result before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf("%-60s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+        continue;
+      }
+      double change = (now.score - before.score) / before.score * 100;
+      double worse = now.higherIsBetter ? before.score - now.score : now.score - before.score;
+      boolean regressed = worse > 0 && Math.abs(change) > threshold
+          && worse > before.error + now.error;
+      if (regressed) {
+        regressions++;
+      }
+      System.out.printf("%-60s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score,
+          now.score, change, now.unit, regressed ? "  REGRESSION" : "");
+    }
+    for (String key : baseline.keySet()) {
+      if (!current.containsKey(key)) {
+        System.out.printf("%-60s %14.3f %14s %9s%n", key, baseline.get(key).score, "-",
+            "removed");
+      }
+    }
+    System.out.println(regressions + " regression(s) beyond " + threshold + "%");
+    if (regressions > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Reads a JMH CSV file into results keyed by benchmark name and parameters.
+   */
+  private static Map<String, Result> read(Path path) throws IOException {
+    List<String> lines = Files.readAllLines(path);
+    List<String> header = fields(lines.get(0));
+    int benchmark = header.indexOf("Benchmark");
+    int mode = header.indexOf("Mode");
+    int score = header.indexOf("Score");
+    int error = score + 1;
+    int unit = header.indexOf("Unit");
+    Map<String, Result> results = new LinkedHashMap<>();
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.isBlank()) {
+        continue;
+      }
+      List<String> row = fields(line);
+      String name = row.get(benchmark);
+      int method = name.lastIndexOf('.');
+      String simpleName = name.substring(name.lastIndexOf('.', method - 1) + 1);
+      StringBuilder key = new StringBuilder(simpleName);
+      for (int i = unit + 1; i < row.size(); i++) {
+        key.append(i == unit + 1 ? " " : ",")
+            .append(header.get(i).replace("Param: ", "")).append('=').append(row.get(i));
+      }
+      String errorValue = row.get(error);
+      results.put(key.toString(), new Result("thrpt".equals(row.get(mode)),
+          Double.parseDouble(row.get(score)),
+          errorValue.isEmpty() || "NaN".equals(errorValue) ? 0 : Double.parseDouble(errorValue),
+          row.get(unit)));
+    }
+    return results;
+  }
+
+  private static List<String> fields(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -0,0 +1,139 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures read and write throughput of a {@link ConcurrentCalendar} holding 100k
+ * events, with 1 to 8 reader threads running against one writer, and compares it
+ * with a plain {@link Calendar} behind a single {@code synchronized} block. Readers
+ * mix {@link Calendar#isBusyAt} with {@link Calendar#getEventsOnDate}; the writer
+ * creates events. Run it with {@code gradle concurrencyBenchmark}.
+ */
+public final class ConcurrentCalendarBenchmark {
+
+  private static final int EVENTS = 100_000;
+  private static final int DAYS = 2_000;
+  private static final int[] READERS = {1, 2, 4, 8};
+  private static final long RUN_MILLIS = 2_000;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+  private ConcurrentCalendarBenchmark() {
+  }
+
+  /**
+   * The operations a run makes, so both calendars are driven the same way.
+   */
+  private interface Target {
+
+    boolean read(LocalDate date, LocalTime time, boolean list);
+
+    void write(String subject, LocalDate date, LocalTime start);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    System.out.printf("%-14s %8s %16s %16s%n", "calendar", "readers", "reads/s", "writes/s");
+    for (int readers : READERS) {
+      Calendar concurrent = fill(new ConcurrentCalendar("Benchmark"));
+      run("concurrent", readers, new Target() {
+        @Override
+        public boolean read(LocalDate date, LocalTime time, boolean list) {
+          return list ? !concurrent.getEventsOnDate(date).isEmpty()
+              : concurrent.isBusyAt(date, time);
+        }
+
+        @Override
+        public void write(String subject, LocalDate date, LocalTime start) {
+          concurrent.createEvent(subject, date, date, start, start.plusMinutes(30),
+              null, null, null);
+        }
+      });
+      Calendar plain = fill(new Calendar("Benchmark"));
+      run("synchronized", readers, new Target() {
+        @Override
+        public boolean read(LocalDate date, LocalTime time, boolean list) {
+          synchronized (plain) {
+            return list ? !plain.getEventsOnDate(date).isEmpty() : plain.isBusyAt(date, time);
+          }
+        }
+
+        @Override
+        public void write(String subject, LocalDate date, LocalTime start) {
+          synchronized (plain) {
+            plain.createEvent(subject, date, date, start, start.plusMinutes(30),
+                null, null, null);
+          }
+        }
+      });
+    }
+  }
+
+  private static Calendar fill(Calendar calendar) {
+    Random random = new Random(1);
+    for (int i = 0; i < EVENTS; i++) {
+      LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+      LocalTime start = LocalTime.of(random.nextInt(23), random.nextInt(60));
+      calendar.createEvent("Event " + i, date, date, start, start.plusMinutes(30),
+          null, null, null);
+    }
+    return calendar;
+  }
+
+  private static void run(String name, int readers, Target target)
+      throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder reads = new LongAdder();
+    LongAdder writes = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int r = 0; r < readers; r++) {
+      Random random = new Random(r);
+      threads.add(new Thread(() -> {
+        await(start);
+        long sink = 0;
+        for (long i = 0; running.get(); i++) {
+          LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+          LocalTime time = LocalTime.of(random.nextInt(24), random.nextInt(60));
+          sink += target.read(date, time, (i & 7) == 0) ? 1 : 0;
+          reads.increment();
+        }
+        if (sink == 42) {
+          System.out.print("");
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      await(start);
+      Random random = new Random(-1);
+      for (int i = 0; running.get(); i++) {
+        LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        target.write("Write " + i, date, LocalTime.of(random.nextInt(23), random.nextInt(60)));
+        writes.increment();
+      }
+    }));
+    threads.forEach(Thread::start);
+    start.countDown();
+    Thread.sleep(RUN_MILLIS);
+    running.set(false);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    double seconds = RUN_MILLIS / 1000.0;
+    System.out.printf("%-14s %8d %16.0f %16.0f%n", name, readers, reads.sum() / seconds,
+        writes.sum() / seconds);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
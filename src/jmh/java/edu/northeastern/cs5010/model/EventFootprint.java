@@ -0,0 +1,51 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Measures how much heap a calendar retains per stored event, with and without
+ * conflict checking. The events repeat a few hundred subjects, descriptions and
+ * locations, each built as a new string the way a CSV import builds them. Run it
+ * with {@code gradle footprint}.
+ */
+public final class EventFootprint {
+
+  private static final int SIZE = 1_000_000;
+
+  private EventFootprint() {
+  }
+
+  public static void main(String[] args) {
+    System.out.printf("%10s %18s %14s%n", "events", "conflict checking", "bytes/event");
+    for (boolean conflictChecking : new boolean[] {false, true}) {
+      long before = usedHeap();
+      Calendar calendar = create(conflictChecking);
+      long after = usedHeap();
+      System.out.printf("%10d %18s %14.1f%n", calendar.getEventCount(), conflictChecking,
+          (double) (after - before) / SIZE);
+    }
+  }
+
+  private static Calendar create(boolean conflictChecking) {
+    Calendar calendar = new Calendar("Footprint", "Public", !conflictChecking);
+    for (int i = 0; i < SIZE; i++) {
+      LocalDate date = BenchmarkCalendars.FIRST_DAY.plusDays(
+          i / BenchmarkCalendars.EVENTS_PER_DAY);
+      LocalTime start = LocalTime.MIDNIGHT.plusMinutes(
+          (long) (i % BenchmarkCalendars.EVENTS_PER_DAY) * BenchmarkCalendars.SLOT_MINUTES);
+      calendar.createEvent("Meeting " + i % 500, date, date, start,
+          start.plusMinutes(BenchmarkCalendars.LENGTH_MINUTES), null, "Agenda " + i % 100,
+          "Room " + i % 50);
+    }
+    return calendar;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
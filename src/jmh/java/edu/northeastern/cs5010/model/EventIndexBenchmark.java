@@ -0,0 +1,98 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the interval tree behind {@link Calendar#getEventsInRange} and
+ * {@link Calendar#getEventsOnDate} against a linear scan over every event, at
+ * 10k, 100k and 1M events. Run it with {@code gradle indexBenchmark}.
+ */
+public final class EventIndexBenchmark {
+
+  private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+  private static final int QUERIES = 2_000;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+  private EventIndexBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    System.out.printf("%10s %8s %14s %14s %10s%n",
+        "events", "query", "tree us/op", "scan us/op", "speedup");
+    for (int size : SIZES) {
+      run(size);
+    }
+  }
+
+  private static void run(int size) {
+    Random random = new Random(size);
+    int days = Math.max(1, size / 20);
+    Calendar calendar = new Calendar("Benchmark");
+    for (int i = 0; i < size; i++) {
+      LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+      LocalTime start = LocalTime.of(random.nextInt(23), random.nextInt(60));
+      calendar.createEvent("Event " + i, date, date, start, start.plusMinutes(30),
+          null, null, null);
+    }
+    List<Event> all = calendar.getAllEvents();
+
+    LocalDate[] froms = new LocalDate[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      froms[i] = FIRST_DAY.plusDays(random.nextInt(days));
+    }
+
+    report(size, "day", measure(froms, 0, calendar), scanAll(froms, 0, all));
+    report(size, "week", measure(froms, 6, calendar), scanAll(froms, 6, all));
+  }
+
+  private static double measure(LocalDate[] froms, int length, Calendar calendar) {
+    long sink = 0;
+    for (LocalDate from : froms) {
+      sink += calendar.getEventsInRange(from, from.plusDays(length)).size();
+    }
+    long start = System.nanoTime();
+    for (LocalDate from : froms) {
+      sink += calendar.getEventsInRange(from, from.plusDays(length)).size();
+    }
+    return finish(start, sink);
+  }
+
+  private static double scanAll(LocalDate[] froms, int length, List<Event> all) {
+    long sink = 0;
+    for (LocalDate from : froms) {
+      sink += scan(all, from, from.plusDays(length)).size();
+    }
+    long start = System.nanoTime();
+    for (LocalDate from : froms) {
+      sink += scan(all, from, from.plusDays(length)).size();
+    }
+    return finish(start, sink);
+  }
+
+  private static List<Event> scan(List<Event> all, LocalDate from, LocalDate to) {
+    List<Event> found = new ArrayList<>();
+    for (Event event : all) {
+      if (!event.getStartDate().isAfter(to) && !event.getEndDate().isBefore(from)) {
+        found.add(event);
+      }
+    }
+    return found;
+  }
+
+  private static double finish(long start, long sink) {
+    double micros = (System.nanoTime() - start) / 1_000.0 / QUERIES;
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return micros;
+  }
+
+  private static void report(int size, String query, double tree, double scan) {
+    System.out.printf("%10d %8s %14.2f %14.2f %9.1fx%n", size, query, tree, scan,
+        scan / tree);
+  }
+}
@@ -0,0 +1,119 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The checks that run on every {@code isBusyAt} and on every new or moved event in
+ * a calendar that does not allow conflicts, which should allocate nothing once
+ * their data is cached. Run with the GC profiler to see it:
+ *
+ * <pre>
+ * gradle jmh -Pjmh.include=HotPathBenchmark -Pjmh.args="-prof gc"
+ * </pre>
+ *
+ * <p>and check that {@code gc.alloc.rate.norm} is 0 B/op for every benchmark. The
+ * dates asked about fit in the busy bitmap cache and are all asked once during
+ * setup, so the measured calls only read cached bitmaps. Instants are asked of a
+ * calendar in New York, leaving out any within a day of a daylight saving change,
+ * which are answered from the events' instants instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class HotPathBenchmark {
+
+  private static final int QUERIES = 1 << 12;
+  private static final int CACHED_DAYS = 4096;
+
+  @Param({"1000", "100000"})
+  private int size;
+
+  private Calendar calendar;
+  private Calendar concurrent;
+  private Calendar zoned;
+  private LocalDate[] dates;
+  private LocalTime[] times;
+  private Instant[] instants;
+  private long[] starts;
+  private long[] ends;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    calendar = BenchmarkCalendars.create(size, true);
+    concurrent = BenchmarkCalendars.fill(
+        new ConcurrentCalendar("Benchmark", "Public", false), size);
+    ZoneId zone = ZoneId.of("America/New_York");
+    OffsetWindows offsets = new OffsetWindows(zone);
+    zoned = BenchmarkCalendars.fill(new Calendar("Benchmark", "Public", false, zone), size);
+    Random random = new Random(size);
+    int days = Math.min(BenchmarkCalendars.days(size), CACHED_DAYS);
+    dates = new LocalDate[QUERIES];
+    times = new LocalTime[QUERIES];
+    starts = new long[QUERIES];
+    ends = new long[QUERIES];
+    instants = new Instant[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      dates[i] = BenchmarkCalendars.FIRST_DAY.plusDays(random.nextInt(days));
+      times[i] = LocalTime.of(random.nextInt(24), random.nextInt(60));
+      starts[i] = Event.startMinute(dates[i], times[i]);
+      ends[i] = starts[i] + 1 + random.nextInt(BenchmarkCalendars.SLOT_MINUTES);
+      calendar.isBusyAt(dates[i], times[i]);
+      concurrent.isBusyAt(dates[i], times[i]);
+      Instant instant = dates[i].atTime(times[i]).atZone(zone).toInstant();
+      while (offsets.localMinute(instant.getEpochSecond()) == OffsetWindows.NEAR_CHANGE) {
+        instant = instant.plusSeconds(24 * 60 * 60);
+      }
+      instants[i] = instant;
+      zoned.isBusyAt(instant);
+    }
+  }
+
+  private int advance() {
+    next = (next + 1) & (QUERIES - 1);
+    return next;
+  }
+
+  @Benchmark
+  public boolean isBusyAt() {
+    int i = advance();
+    return calendar.isBusyAt(dates[i], times[i]);
+  }
+
+  @Benchmark
+  public boolean isBusyAtConcurrent() {
+    int i = advance();
+    return concurrent.isBusyAt(dates[i], times[i]);
+  }
+
+  @Benchmark
+  public boolean isBusyAtInstant() {
+    return zoned.isBusyAt(instants[advance()]);
+  }
+
+  @Benchmark
+  public boolean conflictCheck() {
+    int i = advance();
+    return calendar.conflicts(starts[i], ends[i], OccupancyMap.NONE, null);
+  }
+}
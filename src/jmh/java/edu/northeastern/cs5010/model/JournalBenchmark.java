@@ -0,0 +1,106 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures a journaled calendar: how fast changes are written at several sync
+ * batch sizes, and how long a million events take to recover from a snapshot
+ * alone and from a snapshot followed by a log. Run it with
+ * {@code gradle journalBenchmark}.
+ */
+public final class JournalBenchmark {
+
+  private static final int WRITES = 20_000;
+  private static final int RECOVERED = 1_000_000;
+
+  private JournalBenchmark() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    System.out.printf("%12s %10s %10s %14s%n", "sync batch", "changes", "syncs", "changes/s");
+    for (int batch : new int[] {1, 32, 1024}) {
+      Path dir = Files.createTempDirectory("journal");
+      try {
+        Calendar calendar = new Calendar("Writes", "Public", true);
+        CalendarJournal journal = CalendarJournal.create(dir, calendar,
+            JournalOptions.defaults().withSyncBatch(batch));
+        int changes = batch == 1 ? WRITES / 10 : WRITES;
+        long started = System.nanoTime();
+        addEvents(calendar, changes);
+        journal.sync();
+        long elapsed = System.nanoTime() - started;
+        System.out.printf("%12d %10d %10d %14.0f%n", batch, journal.getCommitCount(),
+            journal.getSyncCount(), changes * 1e9 / elapsed);
+        journal.close();
+      } finally {
+        delete(dir);
+      }
+    }
+
+    System.out.printf("%n%12s %10s %12s %14s %12s%n", "recovery", "events", "log frames",
+        "log bytes", "time ms");
+    Path dir = Files.createTempDirectory("journal");
+    try {
+      Calendar calendar = new Calendar("Recovery", "Public", true);
+      addEvents(calendar, RECOVERED);
+      CalendarJournal.create(dir, calendar, JournalOptions.defaults()).close();
+      recover(dir, "snapshot");
+    } finally {
+      delete(dir);
+    }
+    dir = Files.createTempDirectory("journal");
+    try {
+      Calendar calendar = new Calendar("Recovery", "Public", true);
+      CalendarJournal journal = CalendarJournal.create(dir, calendar, JournalOptions.defaults()
+          .withSyncBatch(4096).withSnapshotThreshold(Long.MAX_VALUE));
+      addEvents(calendar, RECOVERED);
+      journal.close();
+      recover(dir, "log");
+    } finally {
+      delete(dir);
+    }
+  }
+
+  private static void recover(Path dir, String label) throws IOException {
+    for (int run = 0; run < 3; run++) {
+      CalendarJournal journal = CalendarJournal.open(dir, JournalOptions.defaults());
+      if (run == 2) {
+        System.out.printf("%12s %10d %12d %14d %12d%n", label,
+            journal.getCalendar().getEventCount(), journal.getRecoveredChanges(),
+            journal.getLogSize(), journal.getRecoveryTime().toMillis());
+      }
+      journal.close();
+    }
+  }
+
+  private static void addEvents(Calendar calendar, int count) {
+    for (int i = 0; i < count; i++) {
+      LocalDate date = BenchmarkCalendars.FIRST_DAY.plusDays(
+          i / BenchmarkCalendars.EVENTS_PER_DAY);
+      LocalTime start = LocalTime.MIDNIGHT.plusMinutes(
+          (long) (i % BenchmarkCalendars.EVENTS_PER_DAY) * BenchmarkCalendars.SLOT_MINUTES);
+      calendar.createEvent("Meeting " + i % 500, date, date, start,
+          start.plusMinutes(BenchmarkCalendars.LENGTH_MINUTES), null, "Agenda " + i % 100,
+          "Room " + i % 50);
+    }
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> {
+        try {
+          Files.delete(file);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.concurrent.Executor;
+
+/**
+ * How {@link Calendar#exportAllToCSV} spreads the export of many calendars across
+ * threads.
+ *
+ * <p>The number of files open at once is what bounds an export: each export runs
+ * on a thread of its own from the executor, but a new one starts only once fewer
+ * than the maximum are writing, and the caller waits until then. Throughput is
+ * then bounded by the disk rather than by the number of threads, and the
+ * executor may start as many threads as it likes. By default each export is a
+ * virtual thread that parks while its file is written.
+ */
+public final class BulkExportOptions {
+
+  private static final int DEFAULT_MAX_OPEN_FILES = 16;
+
+  private final int maxOpenFiles;
+  private final Executor executor;
+
+  private BulkExportOptions(int maxOpenFiles, Executor executor) {
+    this.maxOpenFiles = maxOpenFiles;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns options with at most 16 files open at once, each written on a virtual
+   * thread of its own.
+   *
+   * @return the default options
+   */
+  public static BulkExportOptions defaults() {
+    return new BulkExportOptions(DEFAULT_MAX_OPEN_FILES, null);
+  }
+
+  /**
+   * Returns these options with at most the given number of files open at once.
+   *
+   * @param files the number of files
+   * @return the new options
+   * @throws IllegalArgumentException if the number is not positive
+   */
+  public BulkExportOptions withMaxOpenFiles(int files) {
+    if (files <= 0) {
+      throw new IllegalArgumentException("Open files must be positive");
+    }
+    return new BulkExportOptions(files, executor);
+  }
+
+  /**
+   * Returns these options with each export run by the given executor. The
+   * executor is not shut down.
+   *
+   * @param executor the executor, or null to run each export on a virtual thread
+   * @return the new options
+   */
+  public BulkExportOptions withExecutor(Executor executor) {
+    return new BulkExportOptions(maxOpenFiles, executor);
+  }
+
+  public int getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  /**
+   * Returns the executor that runs each export.
+   *
+   * @return the executor, or null if each export runs on a virtual thread
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+}
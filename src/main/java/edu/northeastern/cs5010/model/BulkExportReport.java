@@ -0,0 +1,161 @@
+package edu.northeastern.cs5010.model;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link Calendar#exportAllToCSV}: how long each calendar took to
+ * export and how much it wrote, which exports failed and why, and the throughput
+ * of the whole run.
+ */
+public final class BulkExportReport {
+
+  private final List<CalendarExport> exports;
+  private final Duration elapsed;
+
+  BulkExportReport(List<CalendarExport> exports, Duration elapsed) {
+    this.exports = Collections.unmodifiableList(exports);
+    this.elapsed = elapsed;
+  }
+
+  /**
+   * Returns the export of each calendar, in the order the calendars were given.
+   *
+   * @return the exports
+   */
+  public List<CalendarExport> getExports() {
+    return exports;
+  }
+
+  /**
+   * Returns the exports that failed, in the order the calendars were given.
+   *
+   * @return the failed exports
+   */
+  public List<CalendarExport> getFailures() {
+    List<CalendarExport> failures = new ArrayList<>();
+    for (CalendarExport export : exports) {
+      if (!export.isSuccessful()) {
+        failures.add(export);
+      }
+    }
+    return failures;
+  }
+
+  public boolean hasFailures() {
+    return !getFailures().isEmpty();
+  }
+
+  /**
+   * Returns the time from the first export starting to the last one finishing.
+   *
+   * @return the elapsed time
+   */
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * Returns the bytes written by every successful export.
+   *
+   * @return the bytes written
+   */
+  public long getBytesWritten() {
+    long bytes = 0;
+    for (CalendarExport export : exports) {
+      bytes += export.getBytesWritten();
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the bytes written per second over the whole run.
+   *
+   * @return the throughput, or 0 if no time was measured
+   */
+  public double getThroughput() {
+    long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : getBytesWritten() * 1e9 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return "Exported " + (exports.size() - getFailures().size()) + " of " + exports.size()
+        + " calendars, " + getBytesWritten() + " bytes in " + elapsed.toMillis() + " ms";
+  }
+
+  /**
+   * The export of one calendar.
+   */
+  public static final class CalendarExport {
+
+    private final String title;
+    private final Path path;
+    private final Duration elapsed;
+    private final long bytesWritten;
+    private final Exception failure;
+
+    CalendarExport(String title, Path path, Duration elapsed, long bytesWritten,
+        Exception failure) {
+      this.title = title;
+      this.path = path;
+      this.elapsed = elapsed;
+      this.bytesWritten = bytesWritten;
+      this.failure = failure;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    /**
+     * Returns the file the calendar was exported to.
+     *
+     * @return the file, or null if none was chosen
+     */
+    public Path getPath() {
+      return path;
+    }
+
+    /**
+     * Returns how long the export ran, from opening its file to closing it. Time
+     * spent waiting for a file to be free is not included.
+     *
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+      return elapsed;
+    }
+
+    /**
+     * Returns the size of the file written.
+     *
+     * @return the bytes written, or 0 if the export failed
+     */
+    public long getBytesWritten() {
+      return bytesWritten;
+    }
+
+    /**
+     * Returns why the export failed.
+     *
+     * @return the failure, or null if the export succeeded
+     */
+    public Exception getFailure() {
+      return failure;
+    }
+
+    public boolean isSuccessful() {
+      return failure == null;
+    }
+
+    @Override
+    public String toString() {
+      return title + ": " + (failure == null ? bytesWritten + " bytes in "
+          + elapsed.toMillis() + " ms" : "failed, " + failure.getMessage());
+    }
+  }
+}
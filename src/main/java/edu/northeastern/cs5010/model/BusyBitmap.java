@@ -0,0 +1,191 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-day free/busy bitmaps of a calendar, one bit per minute of the day.
+ *
+ * <p>A day's bitmap is 1440 bits in 23 longs, built from the calendar's events the
+ * first time the day is asked about and kept in a direct-mapped table of
+ * {@value #CAPACITY} days indexed by epoch day, so any run of that many consecutive
+ * days is cached without collisions and a lookup is a single array access. Adding
+ * an event sets its bits in every cached day it covers. Removing one drops the
+ * cached days it covers, since their bits may also belong to other events, and
+ * they are rebuilt on their next use.
+ *
+ * <p>Each bitmap carries its day in one extra trailing long, and the table slots
+ * are atomic references, so a reader on another thread sees either a whole
+ * bitmap for the right day or nothing.
+ */
+final class BusyBitmap {
+
+  /**
+   * The number of longs in the bitmap of one day.
+   */
+  static final int WORDS = (Event.MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  private static final int CAPACITY = 4096;
+  private static final int MASK = CAPACITY - 1;
+
+  private final AtomicReferenceArray<long[]> table = new AtomicReferenceArray<>(CAPACITY);
+
+  /**
+   * Called with each cached day and its bitmap.
+   */
+  interface DayAction {
+
+    void accept(long day, long[] bits);
+  }
+
+  /**
+   * Returns an empty bitmap for a day.
+   *
+   * @param day the epoch day
+   * @return a bitmap with every minute free
+   */
+  static long[] newDay(long day) {
+    long[] dayBits = new long[WORDS + 1];
+    dayBits[WORDS] = day;
+    return dayBits;
+  }
+
+  /**
+   * Returns the cached bitmap of a day.
+   *
+   * @param day the epoch day
+   * @return the bitmap, or null if the day is not cached
+   */
+  long[] get(long day) {
+    long[] cached = table.get((int) (day & MASK));
+    return cached != null && cached[WORDS] == day ? cached : null;
+  }
+
+  /**
+   * Caches a bitmap made by {@link #newDay}, replacing whichever day used its slot.
+   */
+  void put(long[] dayBits) {
+    table.set((int) (dayBits[WORDS] & MASK), dayBits);
+  }
+
+  /**
+   * Marks {@code [start, end)} as busy in every cached day it covers.
+   *
+   * @param start inclusive start, in epoch minutes
+   * @param end exclusive end, in epoch minutes
+   */
+  void mark(long start, long end) {
+    forEachCached(firstDay(start), lastDay(end), (day, dayBits) ->
+        set(dayBits, day * Event.MINUTES_PER_DAY, start, end));
+  }
+
+  /**
+   * Drops every cached day that {@code [start, end)} covers.
+   *
+   * @param start inclusive start, in epoch minutes
+   * @param end exclusive end, in epoch minutes
+   */
+  void invalidate(long start, long end) {
+    forEachCached(firstDay(start), lastDay(end),
+        (day, dayBits) -> table.set((int) (day & MASK), null));
+  }
+
+  /**
+   * Visits every cached day from {@code firstDay} to {@code lastDay} inclusive,
+   * probing each day of a short range and scanning the table for a long one.
+   */
+  void forEachCached(long firstDay, long lastDay, DayAction action) {
+    if (lastDay - firstDay < CAPACITY) {
+      for (long day = firstDay; day <= lastDay; day++) {
+        long[] cached = get(day);
+        if (cached != null) {
+          action.accept(day, cached);
+        }
+      }
+    } else {
+      for (int slot = 0; slot < CAPACITY; slot++) {
+        long[] cached = table.get(slot);
+        if (cached != null && cached[WORDS] >= firstDay && cached[WORDS] <= lastDay) {
+          action.accept(cached[WORDS], cached);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the bits of the minutes of {@code [start, end)} that fall on the day
+   * starting at {@code dayStart}.
+   */
+  static void set(long[] dayBits, long dayStart, long start, long end) {
+    int from = (int) Math.max(start - dayStart, 0);
+    int to = (int) Math.min(end - dayStart, Event.MINUTES_PER_DAY);
+    if (from >= to) {
+      return;
+    }
+    int firstWord = from >>> 6;
+    int lastWord = (to - 1) >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> -to;
+    if (firstWord == lastWord) {
+      dayBits[firstWord] |= firstMask & lastMask;
+      return;
+    }
+    dayBits[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      dayBits[i] = -1L;
+    }
+    dayBits[lastWord] |= lastMask;
+  }
+
+  /**
+   * Marks every minute busy in {@code from} as busy in {@code into} as well.
+   */
+  static void merge(long[] into, long[] from) {
+    for (int i = 0; i < WORDS; i++) {
+      into[i] |= from[i];
+    }
+  }
+
+  static boolean isSet(long[] dayBits, int minute) {
+    return (dayBits[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Returns the first busy minute at or after {@code from}, or the number of
+   * minutes in a day if there is none.
+   */
+  static int nextBusy(long[] dayBits, int from) {
+    return next(dayBits, from, 0L);
+  }
+
+  /**
+   * Returns the first free minute at or after {@code from}, or the number of
+   * minutes in a day if there is none.
+   */
+  static int nextFree(long[] dayBits, int from) {
+    return next(dayBits, from, -1L);
+  }
+
+  private static int next(long[] dayBits, int from, long flip) {
+    if (from >= Event.MINUTES_PER_DAY) {
+      return Event.MINUTES_PER_DAY;
+    }
+    int word = from >>> 6;
+    long candidates = (dayBits[word] ^ flip) & (-1L << from);
+    while (candidates == 0) {
+      if (++word == WORDS) {
+        return Event.MINUTES_PER_DAY;
+      }
+      candidates = dayBits[word] ^ flip;
+    }
+    return Math.min(word * Long.SIZE + Long.numberOfTrailingZeros(candidates),
+        Event.MINUTES_PER_DAY);
+  }
+
+  private static long firstDay(long start) {
+    return Math.floorDiv(start, Event.MINUTES_PER_DAY);
+  }
+
+  private static long lastDay(long end) {
+    return Math.floorDiv(end - 1, Event.MINUTES_PER_DAY);
+  }
+}
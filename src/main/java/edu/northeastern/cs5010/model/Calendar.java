@@ -1,13 +1,2155 @@
 package edu.northeastern.cs5010.model;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A named calendar of single and recurring events.
+ *
+ * <p>Events are indexed in an {@link IntervalTree} keyed on the minutes they
+ * cover, so range queries, busy checks and conflict checks only look at the
+ * events that actually overlap the time in question instead of scanning the
+ * whole calendar. A calendar that does not allow conflicts also keeps an
+ * {@link OccupancyMap} of its busy time, so checking a new or moved event for
+ * conflicts is a single logarithmic lookup.
+ *
+ * <p>Recurring events are kept as {@link Series} rules in a second interval tree
+ * keyed on the span from their first to their last occurrence. Queries expand only
+ * the occurrences that fall inside the time they ask about, so a series costs the
+ * same memory whether it repeats ten times or ten thousand. Checking every
+ * occurrence of a long new or changed series for duplicates and conflicts is split
+ * into windows of occurrences checked in parallel.
+ *
+ * <p>Free/busy questions are answered from a bitmap of each day, one bit per
+ * minute, built the first time a day is asked about and kept up to date as events
+ * are added, moved and removed.
+ *
+ * <p>The fields of stored events are kept by column in an {@link EventStore}, with
+ * dates and times as small integers and strings pooled, and each {@link Event} is
+ * a handle onto its row. That more than halves the memory a stored event costs
+ * compared with an object per event holding its own dates, times and strings.
+ * Stored events are also hashed on subject and start in an {@link EventKeyIndex},
+ * which answers {@link #getEvent} and the duplicate check without a tree walk.
+ *
+ * <p>Results of queries over a day or a week can be kept in an optional
+ * {@linkplain #setQueryCacheCapacity(int) cache}, from which a change drops only
+ * the results for the days it touches.
+ *
+ * <p>Latencies of the hot operations, rejected conflicts and the events queries
+ * scan can be {@linkplain #setMetricsEnabled(boolean) recorded} and read back as
+ * {@link CalendarMetrics}.
+ *
+ * <p>Dates and times are wall-clock times in the calendar's {@linkplain #getZone()
+ * zone}, which is UTC unless one is given. Each stored event also keeps the UTC
+ * instants it starts and ends at, so {@link #getEventsBetween}, {@link
+ * #isBusyAt(Instant)} and the search for free time common to calendars in
+ * different zones compare plain epoch seconds.
+ *
+ * <p>Every change is numbered with a new {@linkplain #getVersion() version} and
+ * reported to the calendar's {@link CalendarListener}s once it is complete, so a
+ * downstream copy can follow the calendar change by change.
+ */
 public class Calendar {
 
-  private String title;
+  private static final String DEFAULT_VISIBILITY = "Public";
+
+  private final String title;
+  private final String defaultVisibility;
+  private final boolean allowsConflicts;
+  private final ZoneId zone;
+  private final OffsetWindows offsets;
+  private static final Comparator<Event> BY_START =
+      Comparator.comparingLong(Event::getStartMinute);
+  private static final Comparator<Event> BY_START_INSTANT =
+      Comparator.comparingLong(Event::getStartSecond);
+  private static final IntervalTree.OverlapFilter<Series> HAS_VIRTUAL_OVERLAPPING =
+      Series::hasVirtualOverlapping;
+
+  /**
+   * Series with more occurrences than this are checked in parallel windows of
+   * {@link #WINDOW_OCCURRENCES} occurrences each.
+   */
+  private static final int PARALLEL_OCCURRENCES = 2048;
+  private static final int WINDOW_OCCURRENCES = 512;
+
+  private final IntervalTree<Event> index = new IntervalTree<>();
+  private final IntervalTree<Series> seriesIndex = new IntervalTree<>();
+  private final OccupancyMap occupancy;
+  private final BusyBitmap busy = new BusyBitmap();
+  private final EventStore store = new EventStore(this, false);
+  private final EventKeyIndex keys = new EventKeyIndex(store);
+  private final ChangeFeed changes = new ChangeFeed();
+  private final QueryCache queries = new QueryCache();
+  private final MetricsRecorder metrics = new MetricsRecorder();
+  private Journal journal = Journal.NONE;
+  private long nextSeriesId;
+  private int virtualOccurrences;
+  private int modifications;
 
+  /**
+   * Creates a public calendar that allows conflicting events.
+   *
+   * @param title the title of the calendar
+   * @throws IllegalArgumentException if the title is null or empty
+   */
   public Calendar(String title) {
+    this(title, DEFAULT_VISIBILITY, true);
+  }
+
+  /**
+   * Creates a calendar with the given configuration, in UTC.
+   *
+   * @param title the title of the calendar
+   * @param defaultVisibility the visibility of events that do not specify one
+   * @param allowsConflicts whether events may overlap in time
+   * @throws IllegalArgumentException if the title or visibility is null or empty
+   */
+  public Calendar(String title, String defaultVisibility, boolean allowsConflicts) {
+    this(title, defaultVisibility, allowsConflicts, ZoneOffset.UTC);
+  }
+
+  /**
+   * Creates a calendar whose dates and times are wall-clock times in the given
+   * zone.
+   *
+   * @param title the title of the calendar
+   * @param defaultVisibility the visibility of events that do not specify one
+   * @param allowsConflicts whether events may overlap in time
+   * @param zone the zone of the calendar
+   * @throws IllegalArgumentException if the title or visibility is null or empty,
+   *     or the zone is null
+   */
+  public Calendar(String title, String defaultVisibility, boolean allowsConflicts,
+      ZoneId zone) {
+    if (title == null || title.isBlank()) {
+      throw new IllegalArgumentException("Title cannot be null or empty");
+    }
+    if (defaultVisibility == null || defaultVisibility.isBlank()) {
+      throw new IllegalArgumentException("Default visibility cannot be null or empty");
+    }
+    if (zone == null) {
+      throw new IllegalArgumentException("Zone cannot be null");
+    }
     this.title = title;
+    this.defaultVisibility = defaultVisibility;
+    this.allowsConflicts = allowsConflicts;
+    this.zone = zone;
+    this.offsets = new OffsetWindows(zone);
+    this.occupancy = allowsConflicts ? null : new OccupancyMap();
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getDefaultVisibility() {
+    return defaultVisibility;
+  }
+
+  public boolean allowsConflicts() {
+    return allowsConflicts;
+  }
+
+  /**
+   * Returns the zone the calendar's dates and times are wall-clock times in.
+   *
+   * @return the zone, UTC if the calendar was created without one
+   */
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  public int getEventCount() {
+    return index.size() + virtualOccurrences;
+  }
+
+  /**
+   * Returns the version of the calendar, which starts at zero and goes up by one
+   * with every change.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return changes.getVersion();
+  }
+
+  /**
+   * Adds a listener that is told about every later change to the calendar.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addListener(CalendarListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    changes.addListener(listener);
+  }
+
+  /**
+   * Removes a listener, if it was added.
+   *
+   * @param listener the listener
+   */
+  public void removeListener(CalendarListener listener) {
+    changes.removeListener(listener);
+  }
+
+  /**
+   * Creates an all-day event covering every day from the start date to the end
+   * date.
+   *
+   * @param subject the subject of the event
+   * @param startDate the first day of the event
+   * @param endDate the last day of the event
+   * @return the created event
+   * @throws IllegalArgumentException if the event is invalid, a duplicate, or
+   *     conflicts with another event in a calendar that does not allow conflicts
+   */
+  public Event createEvent(String subject, LocalDate startDate, LocalDate endDate) {
+    return createEvent(subject, startDate, endDate, null, null, null, null, null);
+  }
+
+  /**
+   * Creates an event. Leaving both times null creates an all-day event.
+   *
+   * @param subject the subject of the event
+   * @param startDate the start date
+   * @param endDate the end date
+   * @param startTime the start time, or null for an all-day event
+   * @param endTime the end time, or null for an all-day event
+   * @param visibility the visibility, or null for the calendar default
+   * @param description the description, may be null
+   * @param location the location, may be null
+   * @return the created event
+   * @throws IllegalArgumentException if the event is invalid, a duplicate, or
+   *     conflicts with another event in a calendar that does not allow conflicts
+   */
+  public Event createEvent(String subject, LocalDate startDate, LocalDate endDate,
+      LocalTime startTime, LocalTime endTime, String visibility, String description,
+      String location) {
+    return createEvent(new EventSpec(subject, startDate, endDate, startTime, endTime,
+        visibility, description, location), null);
+  }
+
+  /**
+   * Creates an event from the instants it starts and ends at, remembering the zone
+   * of its start as the event's own zone. The event is stored at the wall-clock
+   * times those instants fall on in the calendar's zone, to the minute.
+   *
+   * @param subject the subject of the event
+   * @param start the start of the event
+   * @param end the end of the event, after its start
+   * @param visibility the visibility, or null for the calendar default
+   * @param description the description, may be null
+   * @param location the location, may be null
+   * @return the created event
+   * @throws IllegalArgumentException if the event is invalid, a duplicate, or
+   *     conflicts with another event in a calendar that does not allow conflicts
+   */
+  public Event createEvent(String subject, ZonedDateTime start, ZonedDateTime end,
+      String visibility, String description, String location) {
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("Start and end cannot be null");
+    }
+    LocalDateTime localStart = LocalDateTime.ofInstant(start.toInstant(), zone);
+    LocalDateTime localEnd = LocalDateTime.ofInstant(end.toInstant(), zone);
+    return createEvent(new EventSpec(subject, localStart.toLocalDate(),
+        localEnd.toLocalDate(), localStart.toLocalTime(), localEnd.toLocalTime(), visibility,
+        description, location), start.getZone());
+  }
+
+  private Event createEvent(EventSpec spec, ZoneId eventZone) {
+    long started = metrics.start();
+    try {
+      Event event = newEvent(spec);
+      event.applyZone(eventZone);
+      try {
+        checkNoDuplicate(event, spec.getSubject(), event.getStartMinute(), null);
+        checkNoConflict(event.getStartMinute(), event.getEndMinute(), OccupancyMap.NONE,
+            null);
+      } catch (IllegalArgumentException e) {
+        event.discard();
+        throw e;
+      }
+      add(event);
+      return event;
+    } finally {
+      metrics.finish(CalendarMetrics.Operation.CREATE_EVENT, started);
+    }
+  }
+
+  /**
+   * Creates many events at once. Either every event is created or none is.
+   *
+   * <p>The batch is sorted once and checked in a single sweep: for duplicates and
+   * conflicts among its own events, and for duplicates and conflicts with the events
+   * already in the calendar. Creating n events in a calendar of m events therefore
+   * takes O((n + m) log(n + m)) rather than O(n * m).
+   *
+   * @param specs the events to create
+   * @return the created events, in the order of the specs
+   * @throws IllegalArgumentException if any event is invalid, a duplicate, or
+   *     conflicts with another event in a calendar that does not allow conflicts
+   */
+  public List<Event> createEvents(Collection<EventSpec> specs) {
+    if (specs == null) {
+      throw new IllegalArgumentException("Events cannot be null");
+    }
+    List<Event> created = new ArrayList<>(specs.size());
+    try {
+      for (EventSpec spec : specs) {
+        if (spec == null) {
+          throw new IllegalArgumentException("Events cannot be null");
+        }
+        created.add(newEvent(spec));
+      }
+      List<Event> sorted = new ArrayList<>(created);
+      sorted.sort(BY_START);
+      sweep(sorted, (event, e) -> {
+        throw new IllegalArgumentException(event + ": " + e.getMessage(), e);
+      });
+    } catch (IllegalArgumentException e) {
+      created.forEach(Event::discard);
+      throw e;
+    }
+    return transaction(() -> {
+      created.forEach(this::add);
+      return created;
+    });
+  }
+
+  /**
+   * Creates a recurring series of single-day events on the given days of the week,
+   * starting from the start date. Exactly one of the occurrence count and the end
+   * date must be given. Either every occurrence is created or none is.
+   *
+   * @param subject the subject of every occurrence
+   * @param startDate the first date an occurrence may fall on
+   * @param startTime the start time, or null for all-day occurrences
+   * @param endTime the end time, or null for all-day occurrences
+   * @param days the days of the week the event repeats on
+   * @param occurrences the number of occurrences, or null to repeat until a date
+   * @param untilDate the last date an occurrence may fall on, or null to use a count
+   * @param visibility the visibility, or null for the calendar default
+   * @param description the description, may be null
+   * @param location the location, may be null
+   * @return the created occurrences in chronological order, as views that always
+   *     show the current state of each occurrence
+   * @throws IllegalArgumentException if the series is invalid, or if any occurrence
+   *     is a duplicate or conflicts with another event in a calendar that does not
+   *     allow conflicts
+   */
+  public List<Event> createRecurringEvent(String subject, LocalDate startDate,
+      LocalTime startTime, LocalTime endTime, Set<DayOfWeek> days, Integer occurrences,
+      LocalDate untilDate, String visibility, String description, String location) {
+    Event.requireSubject(subject);
+    if (startDate == null) {
+      throw new IllegalArgumentException("Start date cannot be null");
+    }
+    if (days == null || days.isEmpty()) {
+      throw new IllegalArgumentException("Recurring events need at least one day of the week");
+    }
+    if ((occurrences == null) == (untilDate == null)) {
+      throw new IllegalArgumentException(
+          "Recurring events need either an occurrence count or an end date");
+    }
+    if (occurrences != null && occurrences <= 0) {
+      throw new IllegalArgumentException("Occurrence count must be positive");
+    }
+    if (untilDate != null) {
+      Event.requireSupportedDate(untilDate);
+    }
+    Event.requireValidTimes(startDate, startDate, startTime, endTime);
+
+    Series series = new Series(nextSeriesId, subject, days, startDate, startTime, endTime,
+        visibilityOrDefault(visibility), description, location);
+    if (occurrences != null) {
+      series.endAfter(occurrences);
+    } else if (!series.endOnOrBefore(untilDate)) {
+      throw new IllegalArgumentException("Recurring event has no occurrences");
+    }
+    Event.requireSupportedDate(series.getLastDate());
+    checkOccurrences(series, subject, startTime, endTime);
+
+    nextSeriesId++;
+    index(series);
+    virtualOccurrences += series.occurrenceCount();
+    return series.views(this);
+  }
+
+  /**
+   * Finds the event with the given subject that starts at the given date and time.
+   * Stored events are found through a hash index on subject and start, so the
+   * lookup takes constant time however many events the calendar holds; unedited
+   * occurrences of a series are found through the series index.
+   *
+   * @param subject the subject of the event
+   * @param date the start date of the event
+   * @param time the start time of the event, or null for an all-day event
+   * @return the event, or null if there is none
+   */
+  public Event getEvent(String subject, LocalDate date, LocalTime time) {
+    if (subject == null || date == null) {
+      return null;
+    }
+    long start = Event.startMinute(date, time);
+    Event stored = keys.find(subject, start, null);
+    if (stored != null) {
+      return stored;
+    }
+    Event[] found = new Event[1];
+    seriesIndex.anyOverlapping(start, start + 1, series -> {
+      if (series.getSubject().equals(subject) && series.hasVirtualStartingAt(start)) {
+        found[0] = new Event(this, series, date);
+        return true;
+      }
+      return false;
+    });
+    return found[0];
+  }
+
+  /**
+   * Returns every event that covers any part of the given date, ordered by start.
+   *
+   * @param date the date to look up
+   * @return the events on that date
+   */
+  public List<Event> getEventsOnDate(LocalDate date) {
+    return getEventsInRange(date, date);
+  }
+
+  /**
+   * Returns every event that covers any part of the days from the start date to the
+   * end date inclusive, ordered by start. Multi-day events are included if they
+   * overlap the range at all.
+   *
+   * @param startDate the first day of the range
+   * @param endDate the last day of the range
+   * @return the events in the range
+   * @throws IllegalArgumentException if a date is null or the range is reversed
+   */
+  public List<Event> getEventsInRange(LocalDate startDate, LocalDate endDate) {
+    if (startDate == null || endDate == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    long started = metrics.start();
+    try {
+      long firstDay = startDate.toEpochDay();
+      long lastDay = endDate.toEpochDay();
+      if (!queries.caches(firstDay, lastDay)) {
+        return findEventsInRange(firstDay, lastDay);
+      }
+      List<Event> cached = queries.get(firstDay, lastDay);
+      if (cached != null) {
+        return new ArrayList<>(cached);
+      }
+      long generation = queries.generation();
+      List<Event> events = findEventsInRange(firstDay, lastDay);
+      queries.put(firstDay, lastDay, events, generation);
+      return events;
+    } finally {
+      metrics.finish(CalendarMetrics.Operation.GET_EVENTS_IN_RANGE, started);
+    }
+  }
+
+  /**
+   * Turns on a cache of the results of {@link #getEventsInRange} and
+   * {@link #getEventsOnDate} for ranges of up to a week, or resizes or turns off
+   * the cache. Cached results are dropped only when a change touches one of their
+   * days, so repeated queries for the same days and weeks skip the index walk.
+   *
+   * @param capacity the most results to keep, evicting the least recently used, or
+   *     zero to turn the cache off
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  public void setQueryCacheCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative");
+    }
+    queries.setCapacity(capacity);
+  }
+
+  /**
+   * Returns the counters of the query cache.
+   *
+   * @return the hits, misses, evictions and invalidations so far
+   */
+  public QueryCacheStats getQueryCacheStats() {
+    return queries.stats();
+  }
+
+  /**
+   * Turns the recording of metrics on or off. While metrics are off, the
+   * operations they cover cost only a check of this setting.
+   *
+   * @param enabled whether to record metrics
+   */
+  public void setMetricsEnabled(boolean enabled) {
+    metrics.setEnabled(enabled);
+  }
+
+  public boolean isMetricsEnabled() {
+    return metrics.isEnabled();
+  }
+
+  /**
+   * Returns the metrics recorded so far, with the current event and series counts.
+   *
+   * @return a snapshot of the metrics
+   */
+  public CalendarMetrics getMetrics() {
+    return metrics.snapshot(index.size() + virtualOccurrences, seriesIndex.size());
+  }
+
+  /**
+   * Returns every event in the calendar, ordered by start.
+   *
+   * @return all events
+   */
+  public List<Event> getAllEvents() {
+    List<Event> events = new ArrayList<>(index.size() + virtualOccurrences);
+    forEachInOrder(events::add);
+    return events;
+  }
+
+  /**
+   * Returns a lazy stream of every event in the calendar, ordered by start. See
+   * {@link #streamEventsInRange} for how the stream walks the calendar.
+   *
+   * @return a stream of all events
+   */
+  public Stream<Event> streamAllEvents() {
+    long stamp = modificationStamp();
+    long first = Math.min(index.firstStart(), seriesIndex.firstStart());
+    long end = Math.max(index.maxEnd(), seriesIndex.maxEnd());
+    long firstDay = first > end ? 0 : Math.floorDiv(first, Event.MINUTES_PER_DAY);
+    long lastDay = first > end ? -1 : Math.floorDiv(end - 1, Event.MINUTES_PER_DAY);
+    return StreamSupport.stream(new EventSpliterator(stamp, firstDay, lastDay,
+        Long.MIN_VALUE, index.size() + virtualOccurrences), false);
+  }
+
+  /**
+   * Returns a lazy stream of the events that cover any part of the given date,
+   * ordered by start. See {@link #streamEventsInRange} for how the stream walks the
+   * calendar.
+   *
+   * @param date the date to look up
+   * @return a stream of the events on that date
+   * @throws IllegalArgumentException if the date is null
+   */
+  public Stream<Event> streamEventsOnDate(LocalDate date) {
+    return streamEventsInRange(date, date);
+  }
+
+  /**
+   * Returns a lazy stream of the events that {@link #getEventsInRange} would return.
+   *
+   * <p>Unlike the list, the stream builds no copy of its results: it walks the
+   * indexes in start order as it is consumed, holding a path of each index and one
+   * cursor per recurring series it has reached, so {@code findFirst} or
+   * {@code limit} stop the walk early. A parallel stream splits the range into
+   * halves of whole days, each walking only its own part of the indexes.
+   *
+   * <p>The stream is fail-fast: if the calendar's events are added, removed or
+   * moved while it is consumed, it throws {@link ConcurrentModificationException}
+   * rather than return events from a calendar that changed under it. It does not
+   * use the query cache.
+   *
+   * @param startDate the first day of the range
+   * @param endDate the last day of the range
+   * @return a stream of the events in the range
+   * @throws IllegalArgumentException if a date is null or the range is reversed
+   */
+  public Stream<Event> streamEventsInRange(LocalDate startDate, LocalDate endDate) {
+    if (startDate == null || endDate == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    return StreamSupport.stream(new EventSpliterator(modificationStamp(),
+        startDate.toEpochDay(), endDate.toEpochDay(), Long.MIN_VALUE,
+        index.size() + virtualOccurrences), false);
+  }
+
+  /**
+   * Returns whether any event covers the given date and time.
+   *
+   * @param date the date to check
+   * @param time the time to check
+   * @return true if an event is in progress at that moment
+   */
+  public boolean isBusyAt(LocalDate date, LocalTime time) {
+    if (date == null || time == null) {
+      throw new IllegalArgumentException("Date and time cannot be null");
+    }
+    long started = metrics.start();
+    boolean busyAt = busyAt(date.toEpochDay(), Event.minuteOfDay(time));
+    metrics.finish(CalendarMetrics.Operation.IS_BUSY_AT, started);
+    return busyAt;
+  }
+
+  /**
+   * Returns whether any event is in progress at the given instant.
+   *
+   * <p>Away from a change of the calendar zone's offset, the wall-clock minute the
+   * instant falls on is answered from the free/busy bitmaps, using the
+   * {@link OffsetWindows} kept from earlier calls, so a check of a cached day
+   * allocates nothing. Within a day of such a change, where wall-clock minutes
+   * repeat or are skipped, the UTC instants of the events around it are compared
+   * instead.
+   *
+   * @param instant the instant to check
+   * @return true if an event is in progress at that instant
+   * @throws IllegalArgumentException if the instant is null
+   */
+  public boolean isBusyAt(Instant instant) {
+    if (instant == null) {
+      throw new IllegalArgumentException("Instant cannot be null");
+    }
+    long started = metrics.start();
+    long second = instant.getEpochSecond();
+    long minute = offsets.localMinute(second);
+    boolean busyAt;
+    if (minute == OffsetWindows.NEAR_CHANGE) {
+      busyAt = anyEventBetween(second, second + 1);
+    } else {
+      busyAt = busyAt(Math.floorDiv(minute, Event.MINUTES_PER_DAY),
+          Math.floorMod(minute, Event.MINUTES_PER_DAY));
+    }
+    metrics.finish(CalendarMetrics.Operation.IS_BUSY_AT, started);
+    return busyAt;
+  }
+
+  /**
+   * Returns every event in progress at any time from {@code from} up to but not
+   * including {@code to}, ordered by the instant they start. The events are found
+   * by the wall-clock days the instants fall on in the calendar's zone, with a day
+   * to spare on each side, and then kept only if their UTC instants overlap.
+   *
+   * @param from the start of the time to look up
+   * @param to the end of the time to look up, after its start
+   * @return the events in that time
+   * @throws IllegalArgumentException if an instant is null or the end is not after
+   *     the start
+   */
+  public List<Event> getEventsBetween(Instant from, Instant to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Instants cannot be null");
+    }
+    if (!to.isAfter(from)) {
+      throw new IllegalArgumentException("End must be after start");
+    }
+    long started = metrics.start();
+    try {
+      return findEventsBetween(from.getEpochSecond(),
+          to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0));
+    } finally {
+      metrics.finish(CalendarMetrics.Operation.GET_EVENTS_IN_RANGE, started);
+    }
+  }
+
+  /**
+   * Returns the stretches of free time on a date that are at least as long as the
+   * given duration, in order. A slot that reaches the end of the day ends at
+   * midnight, even if the next day starts free.
+   *
+   * @param date the date to search
+   * @param duration the shortest slot wanted, rounded up to whole minutes
+   * @return the free slots
+   * @throws IllegalArgumentException if the date or duration is null, or the
+   *     duration is not positive
+   */
+  public List<TimeSlot> findFreeSlots(LocalDate date, Duration duration) {
+    if (date == null || duration == null) {
+      throw new IllegalArgumentException("Date and duration cannot be null");
+    }
+    long needed = minutesNeeded(duration);
+    long[] bits = busyBits(date.toEpochDay());
+    LocalDateTime midnight = date.atStartOfDay();
+    List<TimeSlot> slots = new ArrayList<>();
+    for (int from = BusyBitmap.nextFree(bits, 0); from < Event.MINUTES_PER_DAY; ) {
+      int to = BusyBitmap.nextBusy(bits, from);
+      if (to - from >= needed) {
+        slots.add(new TimeSlot(midnight.plusMinutes(from), midnight.plusMinutes(to)));
+      }
+      from = BusyBitmap.nextFree(bits, to);
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the stretches of time within the working hours of each day from
+   * {@code from} to {@code to} in which every one of the given calendars is free,
+   * and which are at least as long as the given duration. Slots are ranked by start,
+   * earliest first, and never cross midnight or the edges of the working hours. An
+   * all-day event makes its calendar busy for the whole day.
+   *
+   * <p>The busy minutes of every calendar on a day are merged by OR-ing their
+   * free/busy bitmaps, which are built once per calendar and day and then cached,
+   * so the search takes time linear in the number of calendars and days rather
+   * than checking every calendar at every candidate time.
+   *
+   * <p>Days and working hours are read as wall-clock times in each calendar's own
+   * zone. Calendars in different zones are searched with the overload that takes
+   * a zone.
+   *
+   * @param calendars the calendars that must all be free
+   * @param from the first day to search
+   * @param to the last day to search
+   * @param duration the shortest slot wanted, rounded up to whole minutes
+   * @param workStart the start of the working hours of each day
+   * @param workEnd the end of the working hours of each day, after their start
+   * @return the common free slots
+   * @throws IllegalArgumentException if an argument or calendar is null, the days
+   *     or working hours are reversed, or the duration is not positive
+   */
+  public static List<TimeSlot> findCommonFreeSlots(Collection<? extends Calendar> calendars,
+      LocalDate from, LocalDate to, Duration duration, LocalTime workStart,
+      LocalTime workEnd) {
+    checkSearch(calendars, from, to, duration, workStart, workEnd);
+    long needed = minutesNeeded(duration);
+    int open = Event.minuteOfDay(workStart);
+    int close = Event.minuteOfDay(workEnd);
+    List<TimeSlot> slots = new ArrayList<>();
+    for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+      long[] bits = BusyBitmap.newDay(day);
+      for (Calendar calendar : calendars) {
+        BusyBitmap.merge(bits, calendar.busyBits(day));
+      }
+      LocalDateTime midnight = LocalDate.ofEpochDay(day).atStartOfDay();
+      for (int start = BusyBitmap.nextFree(bits, open); start < close; ) {
+        int end = Math.min(BusyBitmap.nextBusy(bits, start), close);
+        if (end - start >= needed) {
+          slots.add(new TimeSlot(midnight.plusMinutes(start), midnight.plusMinutes(end)));
+        }
+        start = BusyBitmap.nextFree(bits, end);
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the stretches of time within the working hours of each day from
+   * {@code from} to {@code to} in which every one of the given calendars is free,
+   * and which are at least as long as the given duration. Days and working hours
+   * are read in the given zone, whatever zones the calendars are in, and slots are
+   * returned as wall-clock times in that zone, ranked by start.
+   *
+   * <p>The events of every calendar in the days searched are gathered by their UTC
+   * instants, sorted once and merged into disjoint busy intervals, which are then
+   * swept against each day's working hours. On the day a daylight saving change
+   * happens, the working hours are as long as the zone's clock makes them.
+   *
+   * @param calendars the calendars that must all be free
+   * @param from the first day to search
+   * @param to the last day to search
+   * @param duration the shortest slot wanted, rounded up to whole minutes
+   * @param workStart the start of the working hours of each day
+   * @param workEnd the end of the working hours of each day, after their start
+   * @param zone the zone the days and working hours are in
+   * @return the common free slots
+   * @throws IllegalArgumentException if an argument or calendar is null, the days
+   *     or working hours are reversed, or the duration is not positive
+   */
+  public static List<TimeSlot> findCommonFreeSlots(Collection<? extends Calendar> calendars,
+      LocalDate from, LocalDate to, Duration duration, LocalTime workStart,
+      LocalTime workEnd, ZoneId zone) {
+    if (zone == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    checkSearch(calendars, from, to, duration, workStart, workEnd);
+    long needed = minutesNeeded(duration) * 60;
+    Instant first = from.atStartOfDay(zone).toInstant();
+    Instant last = to.plusDays(1).atStartOfDay(zone).toInstant();
+    List<long[]> busy = new ArrayList<>();
+    for (Calendar calendar : calendars) {
+      for (Event event : calendar.getEventsBetween(first, last)) {
+        busy.add(new long[] {event.getStartSecond(), event.getEndSecond()});
+      }
+    }
+    busy.sort(Comparator.comparingLong(interval -> interval[0]));
+    List<long[]> merged = new ArrayList<>();
+    for (long[] interval : busy) {
+      long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (previous != null && interval[0] <= previous[1]) {
+        previous[1] = Math.max(previous[1], interval[1]);
+      } else {
+        merged.add(interval);
+      }
+    }
+    List<TimeSlot> slots = new ArrayList<>();
+    int next = 0;
+    for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+      long open = day.atTime(workStart).atZone(zone).toEpochSecond();
+      long close = day.atTime(workEnd).atZone(zone).toEpochSecond();
+      while (next < merged.size() && merged.get(next)[1] <= open) {
+        next++;
+      }
+      long start = open;
+      for (int i = next; i < merged.size() && merged.get(i)[0] < close && start < close;
+          i++) {
+        long[] interval = merged.get(i);
+        if (interval[0] - start >= needed) {
+          slots.add(slot(start, interval[0], zone));
+        }
+        start = Math.max(start, interval[1]);
+      }
+      if (close - start >= needed) {
+        slots.add(slot(start, close, zone));
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Applies a change to every occurrence of the recurring series that contains the
+   * identified event. Standalone events with the same subject are not touched. If
+   * the change fails for any occurrence, every occurrence is restored.
+   *
+   * <p>The change is applied once to a stand-in occurrence to work out the new
+   * series rule, and then to each occurrence that was edited on its own. The dates
+   * of a series cannot be changed this way.
+   *
+   * @param subject the subject of an occurrence in the series
+   * @param date the start date of that occurrence
+   * @param time the start time of that occurrence, or null if it is all-day
+   * @param change the change to apply to each occurrence
+   * @throws IllegalArgumentException if no such occurrence exists or the change
+   *     breaks a calendar rule
+   */
+  public void modifyAllRecurringEvents(String subject, LocalDate date, LocalTime time,
+      Consumer<Event> change) {
+    transaction(() -> {
+      modifySeries(getSeriesOccurrence(subject, date, time).getSeries(), change);
+      return null;
+    });
+  }
+
+  /**
+   * Applies a change to the identified occurrence and every later occurrence of its
+   * recurring series. Earlier occurrences and standalone events with the same
+   * subject are not touched. If the change fails for any occurrence, every
+   * occurrence is restored.
+   *
+   * <p>Unless the identified occurrence is the first, the series is split in two
+   * there and the change is applied to the later part as in
+   * {@link #modifyAllRecurringEvents}.
+   *
+   * @param subject the subject of an occurrence in the series
+   * @param date the start date of that occurrence
+   * @param time the start time of that occurrence, or null if it is all-day
+   * @param change the change to apply to each occurrence
+   * @throws IllegalArgumentException if no such occurrence exists or the change
+   *     breaks a calendar rule
+   */
+  public void modifyRecurringEventsFrom(String subject, LocalDate date, LocalTime time,
+      Consumer<Event> change) {
+    transaction(() -> {
+      modifySeriesFrom(getSeriesOccurrence(subject, date, time), change);
+      return null;
+    });
+  }
+
+  /**
+   * Writes every event to a CSV file in the format Google Calendar imports.
+   * Recurring events are written as one row per occurrence.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void exportToCSV(File file) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null");
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      exportToCSV(channel);
+    }
+  }
+
+  /**
+   * Writes every event to a stream as CSV, as {@link #exportToCSV(File)} does. The
+   * stream is not closed.
+   *
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written
+   */
+  public void exportToCSV(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    exportToCSV(Channels.newChannel(out));
+    out.flush();
+  }
+
+  /**
+   * Writes every event to a channel as CSV, as {@link #exportToCSV(File)} does. The
+   * channel is not closed.
+   *
+   * <p>Events are streamed in start order through one fixed-size buffer as they are
+   * reached, and recurring occurrences are produced one at a time from their series,
+   * so the memory an export needs does not grow with the number of events.
+   *
+   * @param channel the channel to write to
+   * @throws IOException if the channel cannot be written
+   */
+  public void exportToCSV(WritableByteChannel channel) throws IOException {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel cannot be null");
+    }
+    long started = metrics.start();
+    try {
+      CsvEventWriter writer = new CsvEventWriter(channel);
+      writer.writeHeader();
+      Iterator<Event> events = eventsInOrder(series -> true);
+      while (events.hasNext()) {
+        writer.writeRow(events.next());
+      }
+      writer.flush();
+    } finally {
+      metrics.finish(CalendarMetrics.Operation.EXPORT_TO_CSV, started);
+    }
+  }
+
+  /**
+   * Exports many calendars at once, each to its own CSV file as
+   * {@link #exportToCSV(File)} does.
+   *
+   * <p>Each export runs on a thread from the options' executor, or by default on a
+   * virtual thread of its own, but at most the options' number of files are open at
+   * once: the caller waits for a file to close before starting the next export, so
+   * slow disks hold back the caller rather than piling up threads or open files. A failed export is reported rather than thrown,
+   * and does not stop the others.
+   *
+   * @param calendars the calendars to export
+   * @param target gives the file to write each calendar to
+   * @param options how many files to open at once and which executor to use
+   * @return the time taken, size and any failure of each export
+   * @throws IllegalArgumentException if an argument or calendar is null
+   * @throws InterruptedException if the caller is interrupted while waiting; exports
+   *     already started still run to the end
+   */
+  public static BulkExportReport exportAllToCSV(Collection<? extends Calendar> calendars,
+      Function<? super Calendar, Path> target, BulkExportOptions options)
+      throws InterruptedException {
+    if (calendars == null || target == null || options == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    List<Calendar> pending = new ArrayList<>(calendars);
+    if (pending.contains(null)) {
+      throw new IllegalArgumentException("Calendars cannot be null");
+    }
+    ExecutorService pool = options.getExecutor() != null ? null
+        : Executors.newVirtualThreadPerTaskExecutor();
+    Executor executor = pool != null ? pool : options.getExecutor();
+    try {
+      return exportAll(pending, target, options.getMaxOpenFiles(), executor);
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Runs the exports on the given executor, with at most the given number of files
+   * open at once.
+   */
+  private static BulkExportReport exportAll(List<Calendar> pending,
+      Function<? super Calendar, Path> target, int maxOpenFiles, Executor executor)
+      throws InterruptedException {
+    Semaphore openFiles = new Semaphore(maxOpenFiles);
+    CountDownLatch done = new CountDownLatch(pending.size());
+    BulkExportReport.CalendarExport[] exports =
+        new BulkExportReport.CalendarExport[pending.size()];
+    long started = System.nanoTime();
+    for (int i = 0; i < exports.length; i++) {
+      int position = i;
+      Calendar calendar = pending.get(i);
+      openFiles.acquire();
+      Runnable export = () -> {
+        try {
+          exports[position] = calendar.exportTo(target);
+        } finally {
+          openFiles.release();
+          done.countDown();
+        }
+      };
+      try {
+        executor.execute(export);
+      } catch (RuntimeException e) {
+        exports[i] = new BulkExportReport.CalendarExport(calendar.getTitle(), null,
+            Duration.ZERO, 0, e);
+        openFiles.release();
+        done.countDown();
+      }
+    }
+    done.await();
+    return new BulkExportReport(List.of(exports),
+        Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  /**
+   * Exports this calendar to the file chosen for it, reporting how it went.
+   */
+  private BulkExportReport.CalendarExport exportTo(Function<? super Calendar, Path> target) {
+    long started = System.nanoTime();
+    Path path = null;
+    try {
+      path = target.apply(this);
+      if (path == null) {
+        throw new IllegalArgumentException("No file was chosen for " + title);
+      }
+      long bytes;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        exportToCSV(channel);
+        bytes = channel.size();
+      }
+      return new BulkExportReport.CalendarExport(title, path,
+          Duration.ofNanos(System.nanoTime() - started), bytes, null);
+    } catch (IOException | RuntimeException e) {
+      return new BulkExportReport.CalendarExport(title, path,
+          Duration.ofNanos(System.nanoTime() - started), 0, e);
+    }
+  }
+
+  /**
+   * Writes the events created or changed since the given version of the calendar to
+   * a CSV file, in the format {@link #exportToCSV(File)} uses. An occurrence of a
+   * series counts as changed when it was edited on its own or when a change to the
+   * series, such as {@link #modifyRecurringEventsFrom}, reached it. Each event is
+   * written as it is now; events that only moved are written at their new time.
+   *
+   * @param version the version the reader already has, as given by
+   *     {@link #getVersion()} or a {@link CalendarChange}
+   * @param file the file to write
+   * @throws IllegalArgumentException if the version is negative or the file is null
+   * @throws IOException if the file cannot be written
+   */
+  public void exportChangesSince(long version, File file) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null");
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      exportChangesSince(version, channel);
+    }
+  }
+
+  /**
+   * Writes the events created or changed since the given version of the calendar to
+   * a channel, as {@link #exportChangesSince(long, File)} does. The channel is not
+   * closed.
+   *
+   * <p>Every stored event records the version that last stored it and every series
+   * the version that last changed its rule, so only series changed since the
+   * version contribute occurrences, and the export writes nothing it does not need.
+   *
+   * @param version the version the reader already has
+   * @param channel the channel to write to
+   * @throws IllegalArgumentException if the version is negative or the channel is
+   *     null
+   * @throws IOException if the channel cannot be written
+   */
+  public void exportChangesSince(long version, WritableByteChannel channel)
+      throws IOException {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel cannot be null");
+    }
+    if (version < 0) {
+      throw new IllegalArgumentException("Version cannot be negative");
+    }
+    long started = metrics.start();
+    try {
+      CsvEventWriter writer = new CsvEventWriter(channel);
+      writer.writeHeader();
+      Iterator<Event> events = eventsInOrder(series -> series.getVersion() > version);
+      while (events.hasNext()) {
+        Event event = events.next();
+        if (!event.isConcrete() || event.getVersion() > version) {
+          writer.writeRow(event);
+        }
+      }
+      writer.flush();
+    } finally {
+      metrics.finish(CalendarMetrics.Operation.EXPORT_TO_CSV, started);
+    }
+  }
+
+  /**
+   * Adds every event in a CSV file written in the Google Calendar format, such as
+   * one written by {@link #exportToCSV(File)}. Every record becomes a standalone
+   * event; records with an empty Private column get the default visibility.
+   *
+   * <p>The file is memory-mapped, cut into chunks at record boundaries and parsed in
+   * parallel. The parsed events are then sorted once and checked for duplicates and
+   * conflicts in a single sweep, against each other and against the calendar.
+   * Records that cannot be parsed or break a calendar rule are skipped and reported
+   * in the result; every other record is imported.
+   *
+   * @param path the file to read
+   * @return the number of imported events and the rejected records
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file has no usable header
+   */
+  public CsvImportResult importFromCSV(Path path) throws IOException {
+    return importFromCSV(path, CsvEventReader.DEFAULT_CHUNK_SIZE);
+  }
+
+  CsvImportResult importFromCSV(Path path, int chunkSize) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+    return importRows(CsvEventReader.read(path, chunkSize));
+  }
+
+  /**
+   * Adds the parsed records of a CSV file that keep the calendar valid.
+   */
+  CsvImportResult importRows(CsvEventReader.Result read) {
+    List<CsvImportResult.RowError> errors = new ArrayList<>(read.getErrors());
+    List<Event> batch = new ArrayList<>(read.getRows().size());
+    Map<Event, Long> records = new HashMap<>();
+    for (CsvEventReader.Row row : read.getRows()) {
+      try {
+        Event event = newEvent(row.getSpec());
+        batch.add(event);
+        records.put(event, row.getRecord());
+      } catch (IllegalArgumentException e) {
+        errors.add(new CsvImportResult.RowError(row.getRecord(), e.getMessage()));
+      }
+    }
+
+    batch.sort(BY_START);
+    List<Event> accepted = sweep(batch, (event, e) -> {
+      errors.add(new CsvImportResult.RowError(records.get(event), e.getMessage()));
+      event.discard();
+    });
+    transaction(() -> {
+      accepted.forEach(this::add);
+      return null;
+    });
+    errors.sort(Comparator.comparingLong(CsvImportResult.RowError::getRecord));
+    return new CsvImportResult(accepted.size(), errors);
+  }
+
+  /**
+   * Changes the subject of an event after checking that no other event would be a
+   * duplicate of it.
+   */
+  void rename(Event event, String subject) {
+    if (subject.equals(event.getSubject())) {
+      return;
+    }
+    checkNoDuplicate(event, subject, event.getStartMinute(), null);
+    checkNoneStartingSameDay(event, subject);
+    keys.remove(event);
+    event.applySubject(subject);
+    keys.add(event);
+    journal.eventStored(event);
+    changes.eventStored(event);
+  }
+
+  /**
+   * Turns a view of an unedited occurrence into a concrete event stored with the
+   * standalone events, so it can be edited on its own. If another view of the same
+   * occurrence was materialized first, that event is returned instead.
+   */
+  Event materialize(Event view) {
+    Series owner = view.getSeries();
+    Event existing = owner.getOverride(view.getOccurrenceDate());
+    if (existing != null) {
+      return existing;
+    }
+    view.materialize(owner);
+    owner.putOverride(view.getOccurrenceDate(), view);
+    virtualOccurrences--;
+    add(view);
+    return view;
+  }
+
+  /**
+   * Materializes a view of an unedited occurrence and applies an edit to it as one
+   * transaction. If the edit is rejected, the occurrence is left to the series rule
+   * again and nothing is reported.
+   */
+  void editOccurrence(Event view, Consumer<Event> edit) {
+    transaction(() -> {
+      Event event = materialize(view);
+      try {
+        edit.accept(event);
+      } catch (RuntimeException e) {
+        if (event == view) {
+          Series owner = view.getSeries();
+          remove(view);
+          owner.removeOverride(view.getOccurrenceDate());
+          virtualOccurrences++;
+          view.discard();
+        }
+        throw e;
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Moves an event to new times after checking that the move keeps the calendar
+   * valid, then re-indexes it.
+   */
+  void reschedule(Event event, LocalDate startDate, LocalTime startTime,
+      LocalDate endDate, LocalTime endTime) {
+    Event.requireValidSchedule(event.isPartOfRecurringSeries(), startDate, endDate,
+        startTime, endTime);
+    long start = Event.startMinute(startDate, startTime);
+    long end = Event.endMinute(endDate, endTime);
+    checkNoDuplicate(event, event.getSubject(), start, null);
+    checkNoConflict(start, end, event.getStartMinute(), null);
+    remove(event);
+    event.applyTimes(startDate, startTime, endDate, endTime);
+    add(event);
+  }
+
+  /**
+   * Replaces the visibility, description and location of a stored event.
+   */
+  void describe(Event event, String visibility, String description, String location) {
+    event.applyDetails(visibility, description, location);
+    journal.eventStored(event);
+    changes.eventStored(event);
   }
 
+  EventStore getStore() {
+    return store;
+  }
+
+  /**
+   * Sets the journal every later change is reported to.
+   *
+   * @throws IllegalArgumentException if a journal is already set
+   */
+  void setJournal(Journal journal) {
+    if (journal != Journal.NONE && this.journal != Journal.NONE) {
+      throw new IllegalArgumentException("The calendar is already journaled");
+    }
+    this.journal = journal;
+  }
+
+  /**
+   * Runs an action that must not overlap any change to the calendar.
+   */
+  void runExclusively(Runnable action) {
+    action.run();
+  }
+
+  /**
+   * Returns the number of stored events and series rules, which is what the memory
+   * the calendar holds grows with.
+   */
+  int storedSize() {
+    return index.size() + seriesIndex.size();
+  }
+
+  /**
+   * Visits every stored event, in start order.
+   */
+  void forEachStored(Consumer<Event> action) {
+    index.forEach(action);
+  }
+
+  void forEachSeries(Consumer<Series> action) {
+    seriesIndex.forEach(action);
+  }
+
+  /**
+   * Puts back a stored event as a journal recorded it, without any checks. A new
+   * event takes the slot it had when it was recorded.
+   *
+   * @param existing the event if it was already restored, or null
+   * @return the event
+   */
+  Event restoreEvent(Event existing, int slot, Series series, LocalDate occurrenceDate,
+      String subject, LocalDate startDate, LocalDate endDate, LocalTime startTime,
+      LocalTime endTime, String visibility, String description, String location,
+      ZoneId eventZone) {
+    if (existing != null) {
+      remove(existing);
+      existing.applySubject(subject);
+      existing.applyTimes(startDate, startTime, endDate, endTime);
+      existing.applyDetails(visibility, description, location);
+      existing.applyZone(eventZone);
+      add(existing);
+      return existing;
+    }
+    store.restore(slot, subject, startDate, endDate, startTime, endTime, visibility,
+        description, location);
+    store.setZone(slot, eventZone);
+    Event event = new Event(store, slot, series, occurrenceDate);
+    if (series != null) {
+      series.putOverride(occurrenceDate, event);
+    }
+    add(event);
+    return event;
+  }
+
+  /**
+   * Puts back a series as a journal recorded it, without any checks.
+   *
+   * @param existing the series if it was already restored, or null
+   * @return the series
+   */
+  Series restoreSeries(Series existing, long id, String subject, Set<DayOfWeek> days,
+      LocalDate firstDate, LocalDate lastDate, LocalTime startTime, LocalTime endTime,
+      String visibility, String description, String location) {
+    Series series = existing;
+    if (series == null) {
+      series = new Series(id, subject, days, firstDate, startTime, endTime, visibility,
+          description, location);
+      series.endOnOrBefore(lastDate);
+    } else {
+      unindex(series);
+      series.setRule(subject, startTime, endTime, visibility, description, location);
+    }
+    index(series);
+    return series;
+  }
+
+  /**
+   * Splits a restored series as {@link #modifyRecurringEventsFrom} did.
+   *
+   * @return the new later part
+   */
+  Series restoreSplit(Series head, LocalDate date, long tailId) {
+    unindex(head);
+    Series tail = head.splitAt(date, tailId);
+    index(head);
+    index(tail);
+    return tail;
+  }
+
+  /**
+   * Rebuilds the counts a restore leaves out of date, once everything is restored.
+   */
+  void finishRestore() {
+    store.finishRestore();
+    virtualOccurrences = 0;
+    seriesIndex.forEach(series -> {
+      virtualOccurrences += series.virtualCount();
+      nextSeriesId = Math.max(nextSeriesId, series.getId() + 1);
+    });
+  }
+
+  /**
+   * Visits every event in start order, as {@link #eventsInOrder} returns them.
+   */
+  private void forEachInOrder(Consumer<Event> action) {
+    for (Iterator<Event> events = eventsInOrder(series -> true); events.hasNext(); ) {
+      action.accept(events.next());
+    }
+  }
+
+  /**
+   * Returns an iterator over every event in start order. Stored events come from an
+   * in-order walk of the index, and each series contributes a cursor that produces
+   * its unedited occurrences one at a time. The two are merged on start, so the
+   * iterator holds only the index path and one cursor per series. The calendar must
+   * not be modified while the iterator is in use.
+   *
+   * @param included the series whose unedited occurrences are included
+   */
+  private Iterator<Event> eventsInOrder(Predicate<Series> included) {
+    PriorityQueue<SeriesCursor> cursors = new PriorityQueue<>();
+    seriesIndex.forEach(series -> {
+      SeriesCursor cursor = new SeriesCursor(series);
+      if (included.test(series) && cursor.advanceTo(Long.MIN_VALUE)) {
+        cursors.add(cursor);
+      }
+    });
+    Iterator<Event> stored = index.iterator();
+    return new Iterator<>() {
+      private Event nextStored = stored.hasNext() ? stored.next() : null;
+
+      @Override
+      public boolean hasNext() {
+        return nextStored != null || !cursors.isEmpty();
+      }
+
+      @Override
+      public Event next() {
+        SeriesCursor cursor = cursors.peek();
+        if (cursor == null || (nextStored != null
+            && nextStored.getStartMinute() <= cursor.start)) {
+          Event event = nextStored;
+          if (event == null) {
+            throw new NoSuchElementException();
+          }
+          nextStored = stored.hasNext() ? stored.next() : null;
+          return event;
+        }
+        cursors.poll();
+        Event occurrence = new Event(Calendar.this, cursor.series,
+            LocalDate.ofEpochDay(cursor.day));
+        if (cursor.advanceTo(cursor.day + 1)) {
+          cursors.add(cursor);
+        }
+        return occurrence;
+      }
+    };
+  }
+
+  /**
+   * Returns a stamp that {@link #unmodifiedSince} checks to find whether events
+   * were added, removed or moved after it was taken.
+   */
+  long modificationStamp() {
+    return modifications;
+  }
+
+  boolean unmodifiedSince(long stamp) {
+    return modifications == stamp;
+  }
+
+  private void add(Event event) {
+    modifications++;
+    index.insert(event.getStartMinute(), event.getEndMinute(), event.getId(), event);
+    keys.add(event);
+    if (occupancy != null) {
+      occupancy.occupy(event.getStartMinute(), event.getEndMinute());
+    }
+    busy.mark(event.getStartMinute(), event.getEndMinute());
+    queries.invalidate(event.getStartMinute(), event.getEndMinute());
+    journal.eventStored(event);
+    changes.eventStored(event);
+  }
+
+  private void remove(Event event) {
+    modifications++;
+    index.remove(event.getStartMinute(), event.getId());
+    keys.remove(event);
+    if (occupancy != null) {
+      occupancy.release(event.getStartMinute());
+    }
+    busy.invalidate(event.getStartMinute(), event.getEndMinute());
+    queries.invalidate(event.getStartMinute(), event.getEndMinute());
+    changes.touched(event.getStartMinute(), event.getEndMinute());
+  }
+
+  /**
+   * Returns the free/busy bitmap of a day, building and caching it if it is not
+   * cached yet.
+   */
+  long[] busyBits(long day) {
+    long[] bits = cachedBusyBits(day);
+    if (bits == null) {
+      bits = buildBusyBits(day);
+      cacheBusyBits(bits);
+    }
+    return bits;
+  }
+
+  /**
+   * Returns whether a minute of a day is busy, from the day's bitmap. Once the
+   * bitmap is cached this is an array lookup and allocates nothing.
+   */
+  boolean busyAt(long day, int minute) {
+    return BusyBitmap.isSet(busyBits(day), minute);
+  }
+
+  long[] cachedBusyBits(long day) {
+    return busy.get(day);
+  }
+
+  void cacheBusyBits(long[] bits) {
+    busy.put(bits);
+  }
+
+  /**
+   * Builds the free/busy bitmap of a day from the events and unedited occurrences
+   * overlapping it.
+   */
+  long[] buildBusyBits(long day) {
+    long[] bits = BusyBitmap.newDay(day);
+    long dayStart = day * Event.MINUTES_PER_DAY;
+    long dayEnd = dayStart + Event.MINUTES_PER_DAY;
+    index.forEachOverlapping(dayStart, dayEnd, event ->
+        BusyBitmap.set(bits, dayStart, event.getStartMinute(), event.getEndMinute()));
+    seriesIndex.forEachOverlapping(dayStart, dayEnd, series -> {
+      if (series.isVirtual(day)) {
+        BusyBitmap.set(bits, dayStart, series.occurrenceStart(day),
+            series.occurrenceEnd(day));
+      }
+    });
+    return bits;
+  }
+
+  /**
+   * Returns every event that covers any part of the given days, ordered by start,
+   * from the indexes.
+   */
+  private List<Event> findEventsInRange(long firstDay, long lastDay) {
+    long start = firstDay * Event.MINUTES_PER_DAY;
+    long end = (lastDay + 1) * Event.MINUTES_PER_DAY;
+    List<Event> events = new ArrayList<>();
+    index.forEachOverlapping(start, end, events::add);
+    int concrete = events.size();
+    seriesIndex.forEachOverlapping(start, end, series -> series.forEachVirtualDay(
+        firstDay, lastDay,
+        day -> events.add(new Event(this, series, LocalDate.ofEpochDay(day)))));
+    if (events.size() > concrete) {
+      events.sort(BY_START);
+    }
+    metrics.scanned(events.size());
+    return events;
+  }
+
+  /**
+   * Returns every event whose UTC instants overlap the given epoch seconds, ordered
+   * by the instant they start.
+   */
+  private List<Event> findEventsBetween(long fromSecond, long toSecond) {
+    long firstDay = Math.floorDiv(Event.localMinute(fromSecond, zone),
+        Event.MINUTES_PER_DAY) - 1;
+    long lastDay = Math.floorDiv(Event.localMinute(toSecond, zone),
+        Event.MINUTES_PER_DAY) + 1;
+    List<Event> events = findEventsInRange(firstDay, lastDay);
+    events.removeIf(event -> event.getStartSecond() >= toSecond
+        || event.getEndSecond() <= fromSecond);
+    events.sort(BY_START_INSTANT);
+    return events;
+  }
+
+  /**
+   * Returns whether any event's UTC instants overlap the given epoch seconds.
+   */
+  boolean anyEventBetween(long fromSecond, long toSecond) {
+    return !findEventsBetween(fromSecond, toSecond).isEmpty();
+  }
 
+  /**
+   * Creates a standalone event for this calendar without adding it.
+   */
+  private Event newEvent(EventSpec spec) {
+    return new Event(store, null, null, spec.getSubject(), spec.getStartDate(),
+        spec.getEndDate(), spec.getStartTime(), spec.getEndTime(),
+        visibilityOrDefault(spec.getVisibility()), spec.getDescription(),
+        spec.getLocation());
+  }
+
+  /**
+   * Checks the arguments of a search for common free time.
+   */
+  private static void checkSearch(Collection<? extends Calendar> calendars,
+      LocalDate from, LocalDate to, Duration duration, LocalTime workStart,
+      LocalTime workEnd) {
+    if (calendars == null || from == null || to == null || duration == null
+        || workStart == null || workEnd == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    if (!workStart.isBefore(workEnd)) {
+      throw new IllegalArgumentException("Working hours must end after they start");
+    }
+    for (Calendar calendar : calendars) {
+      if (calendar == null) {
+        throw new IllegalArgumentException("Calendars cannot be null");
+      }
+    }
+  }
+
+  private static TimeSlot slot(long start, long end, ZoneId zone) {
+    return new TimeSlot(LocalDateTime.ofInstant(Instant.ofEpochSecond(start), zone),
+        LocalDateTime.ofInstant(Instant.ofEpochSecond(end), zone));
+  }
+
+  /**
+   * Returns a positive duration in whole minutes, rounding up.
+   */
+  private static long minutesNeeded(Duration duration) {
+    if (duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException("Duration must be positive");
+    }
+    long needed = duration.toMinutes();
+    if (duration.compareTo(Duration.ofMinutes(needed)) > 0) {
+      needed++;
+    }
+    return needed;
+  }
 
+  private String visibilityOrDefault(String visibility) {
+    return visibility == null ? defaultVisibility : visibility;
+  }
+
+  /**
+   * Checks a batch of new events, sorted by start, in a single pass. Each event is
+   * checked against the calendar as it was before the batch, and against the events
+   * of the batch accepted before it: duplicates through a set of subject and start
+   * keys, and conflicts through the latest end seen so far, since a sorted batch of
+   * non-overlapping events never starts before that end.
+   *
+   * @param batch the new events, sorted by start
+   * @param onReject called with each event that breaks a rule, and why
+   * @return the events that passed, still sorted by start
+   */
+  private List<Event> sweep(List<Event> batch,
+      BiConsumer<Event, IllegalArgumentException> onReject) {
+    Set<String> keys = new HashSet<>();
+    long batchEnd = Long.MIN_VALUE;
+    List<Event> accepted = new ArrayList<>(batch.size());
+    for (Event event : batch) {
+      long start = event.getStartMinute();
+      long end = event.getEndMinute();
+      try {
+        if (!keys.add(start + ":" + event.getSubject())) {
+          throw new IllegalArgumentException(
+              "An event with the same subject and start already exists");
+        }
+        checkNoDuplicate(event, event.getSubject(), start, null);
+        if (occupancy != null && start < batchEnd) {
+          metrics.conflictRejected();
+          throw new IllegalArgumentException("Event conflicts with an existing event");
+        }
+        checkNoConflict(start, end, OccupancyMap.NONE, null);
+      } catch (IllegalArgumentException e) {
+        onReject.accept(event, e);
+        continue;
+      }
+      batchEnd = Math.max(batchEnd, end);
+      accepted.add(event);
+    }
+    return accepted;
+  }
+
+  private void index(Series series) {
+    modifications++;
+    seriesIndex.insert(series.spanStart(), series.spanEnd(), series.getId(), series);
+    journal.seriesStored(series);
+    changes.seriesStored(series);
+    busy.forEachCached(series.getFirstDate().toEpochDay(), series.getLastDate().toEpochDay(),
+        (day, bits) -> {
+          if (series.isVirtual(day)) {
+            BusyBitmap.set(bits, day * Event.MINUTES_PER_DAY, series.occurrenceStart(day),
+                series.occurrenceEnd(day));
+          }
+        });
+    queries.invalidate(series);
+  }
+
+  private void unindex(Series series) {
+    modifications++;
+    seriesIndex.remove(series.spanStart(), series.getId());
+    busy.invalidate(series.spanStart(), series.spanEnd());
+    queries.invalidate(series);
+    changes.touched(series.spanStart(), series.spanEnd());
+  }
+
+  /**
+   * Checks that {@code [start, end)} overlaps no event other than the one starting
+   * at {@code ignoredStart} and no unedited occurrence of a series other than
+   * {@code ignoredSeries}, if the calendar does not allow conflicts.
+   */
+  private void checkNoConflict(long start, long end, long ignoredStart,
+      Series ignoredSeries) {
+    if (occupancy == null) {
+      return;
+    }
+    long started = metrics.start();
+    boolean conflicts = conflicts(start, end, ignoredStart, ignoredSeries);
+    metrics.finish(CalendarMetrics.Operation.CONFLICT_CHECK, started);
+    if (conflicts) {
+      metrics.conflictRejected();
+      throw new IllegalArgumentException("Event conflicts with an existing event");
+    }
+  }
+
+  /**
+   * Returns whether {@code [start, end)} overlaps an event other than the one
+   * starting at {@code ignoredStart}, or an unedited occurrence of a series other
+   * than {@code ignoredSeries}, in a calendar that does not allow conflicts. The
+   * check compares epoch minutes only and allocates nothing: the occupancy map is
+   * primitive, and the series filter is a constant given the window.
+   */
+  boolean conflicts(long start, long end, long ignoredStart, Series ignoredSeries) {
+    return !occupancy.isFreeIgnoring(start, end, ignoredStart)
+        || seriesIndex.anyOverlapping(start, end, ignoredSeries, HAS_VIRTUAL_OVERLAPPING);
+  }
+
+  /**
+   * Checks that no event other than {@code event}, and no unedited occurrence of a
+   * series other than {@code ignoredSeries}, has this subject and start.
+   */
+  private void checkNoDuplicate(Event event, String subject, long start,
+      Series ignoredSeries) {
+    if (keys.find(subject, start, event) != null
+        || seriesIndex.anyOverlapping(start, start + 1, series -> series != ignoredSeries
+            && series.getSubject().equals(subject) && series.hasVirtualStartingAt(start))) {
+      throw new IllegalArgumentException(
+          "An event with the same subject and start already exists");
+    }
+  }
+
+  /**
+   * Checks that no other event with the given subject starts on the day the event
+   * starts, stored events and unedited occurrences alike. Creating such an event is
+   * allowed, but renaming an event into one is not.
+   */
+  private void checkNoneStartingSameDay(Event event, String subject) {
+    long day = Math.floorDiv(event.getStartMinute(), Event.MINUTES_PER_DAY);
+    long dayStart = day * Event.MINUTES_PER_DAY;
+    long dayEnd = dayStart + Event.MINUTES_PER_DAY;
+    if (index.anyOverlapping(dayStart, dayEnd, event,
+            (other, from, to) -> other.getStartMinute() >= from
+                && other.getSubject().equals(subject))
+        || seriesIndex.anyOverlapping(dayStart, dayEnd,
+            series -> series.getSubject().equals(subject)
+                && series.hasVirtualOverlapping(dayStart, dayEnd))) {
+      throw new IllegalArgumentException(
+          "An event with the same subject already starts on that day");
+    }
+  }
+
+  /**
+   * Checks every unedited occurrence of a series as it would be with the given
+   * subject and times.
+   */
+  private void checkOccurrences(Series series, String subject, LocalTime startTime,
+      LocalTime endTime) {
+    checkEachOccurrence(series, day -> {
+      LocalDate date = LocalDate.ofEpochDay(day);
+      long start = Event.startMinute(date, startTime);
+      checkNoDuplicate(null, subject, start, series);
+      checkNoConflict(start, Event.endMinute(date, endTime), OccupancyMap.NONE, series);
+    });
+  }
+
+  /**
+   * Checks every unedited occurrence of a series against a change of the rule to
+   * the given subject and times, looking only at what the change affects. A start
+   * that stays the same under the same subject cannot become a duplicate, and in a
+   * calendar that does not allow conflicts each occurrence already holds its old
+   * time without conflict, so only the minutes the new time adds are checked.
+   */
+  private void checkChangedOccurrences(Series series, String subject, LocalTime startTime,
+      LocalTime endTime) {
+    boolean rekeyed = !subject.equals(series.getSubject())
+        || !Objects.equals(startTime, series.getStartTime());
+    long oldStart = series.occurrenceStart(0);
+    long oldEnd = series.occurrenceEnd(0);
+    long newStart = Event.startMinute(LocalDate.EPOCH, startTime);
+    long newEnd = Event.endMinute(LocalDate.EPOCH, endTime);
+    boolean widened = occupancy != null && (newStart < oldStart || newEnd > oldEnd);
+    if (!rekeyed && !widened) {
+      return;
+    }
+    checkEachOccurrence(series, day -> {
+      long midnight = day * Event.MINUTES_PER_DAY;
+      if (rekeyed) {
+        checkNoDuplicate(null, subject, midnight + newStart, series);
+      }
+      if (newStart < oldStart) {
+        checkNoConflict(midnight + newStart, midnight + Math.min(newEnd, oldStart),
+            OccupancyMap.NONE, series);
+      }
+      if (newEnd > oldEnd) {
+        checkNoConflict(midnight + Math.max(newStart, oldEnd), midnight + newEnd,
+            OccupancyMap.NONE, series);
+      }
+    });
+  }
+
+  /**
+   * Runs a check on the day of every unedited occurrence of a series and throws
+   * the failure of the earliest occurrence that fails, exactly as checking them in
+   * date order would.
+   *
+   * <p>A long series is split into windows of occurrences that are checked in
+   * parallel on the common fork-join pool. Once an occurrence fails, every window
+   * after it stops checking, while the windows before it carry on, since one of
+   * them may still hold an earlier failure. The checks only read the calendar,
+   * which does not change until they are done.
+   */
+  private void checkEachOccurrence(Series series, LongConsumer check) {
+    int count = series.occurrenceCount();
+    if (count <= PARALLEL_OCCURRENCES) {
+      series.forEachVirtualDay(series.getFirstDate().toEpochDay(),
+          series.getLastDate().toEpochDay(), check);
+      return;
+    }
+    int windowCount = (count + WINDOW_OCCURRENCES - 1) / WINDOW_OCCURRENCES;
+    RuntimeException[] failures = new RuntimeException[windowCount];
+    AtomicLong failedDay = new AtomicLong(Long.MAX_VALUE);
+    List<ForkJoinTask<?>> windows = new ArrayList<>(windowCount);
+    for (int window = 0; window < windowCount; window++) {
+      int index = window;
+      long from = series.occurrenceDate(window * WINDOW_OCCURRENCES).toEpochDay();
+      long to = series.occurrenceDate(
+          Math.min(count, (window + 1) * WINDOW_OCCURRENCES) - 1).toEpochDay();
+      windows.add(ForkJoinTask.adapt(() -> {
+        long[] current = {from};
+        try {
+          series.forEachVirtualDay(from, to, day -> {
+            if (day < failedDay.get()) {
+              current[0] = day;
+              check.accept(day);
+            }
+          });
+        } catch (RuntimeException e) {
+          failures[index] = e;
+          failedDay.accumulateAndGet(current[0], Math::min);
+        }
+      }));
+    }
+    ForkJoinTask.invokeAll(windows);
+    for (RuntimeException failure : failures) {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private Event getSeriesOccurrence(String subject, LocalDate date, LocalTime time) {
+    Event event = getEvent(subject, date, time);
+    if (event == null || !event.isPartOfRecurringSeries()) {
+      throw new IllegalArgumentException("No recurring event matches " + subject
+          + " at " + date + (time == null ? "" : " " + time));
+    }
+    return event;
+  }
+
+  /**
+   * Runs a change that may report several states to the journal as one
+   * transaction, so the journal records it whole or not at all.
+   */
+  private <T> T transaction(Supplier<T> change) {
+    journal.begin();
+    changes.begin();
+    T result;
+    try {
+      result = change.get();
+    } catch (RuntimeException e) {
+      journal.abort();
+      changes.abort();
+      throw e;
+    }
+    try {
+      journal.commit();
+    } finally {
+      changes.commit();
+    }
+    return result;
+  }
+
+  private void modifySeriesFrom(Event anchor, Consumer<Event> change) {
+    Series series = anchor.getSeries();
+    LocalDate from = anchor.getOccurrenceDate();
+    if (!from.isAfter(series.getFirstDate())) {
+      modifySeries(series, change);
+      return;
+    }
+    long headVersion = series.getVersion();
+    unindex(series);
+    Series tail = series.splitAt(from, nextSeriesId++);
+    journal.seriesSplit(series, from, tail);
+    index(series);
+    series.setVersion(headVersion);
+    index(tail);
+    try {
+      modifySeries(tail, change);
+    } catch (RuntimeException e) {
+      unindex(tail);
+      unindex(series);
+      series.rejoin(tail);
+      index(series);
+      series.setVersion(headVersion);
+      throw e;
+    }
+  }
+
+  private void modifySeries(Series series, Consumer<Event> change) {
+    if (change == null) {
+      throw new IllegalArgumentException("Change cannot be null");
+    }
+    LocalDate first = series.getFirstDate();
+    Event probe = copyOfRule(series);
+    change.accept(probe);
+    if (!probe.getStartDate().equals(first) || !probe.getEndDate().equals(first)) {
+      throw new IllegalArgumentException("The dates of a recurring series cannot be changed");
+    }
+    if (!probe.getSubject().equals(series.getSubject())
+        || !Objects.equals(probe.getStartTime(), series.getStartTime())
+        || !Objects.equals(probe.getEndTime(), series.getEndTime())) {
+      checkChangedOccurrences(series, probe.getSubject(), probe.getStartTime(),
+          probe.getEndTime());
+    }
+
+    Event rule = copyOfRule(series);
+    List<Event> overrides = new ArrayList<>(series.getOverrides().values());
+    List<EventState> before = new ArrayList<>(overrides.size());
+    for (Event occurrence : overrides) {
+      before.add(new EventState(occurrence));
+    }
+    applyRule(series, probe);
+    try {
+      for (Event occurrence : overrides) {
+        change.accept(occurrence);
+      }
+    } catch (RuntimeException e) {
+      for (EventState state : before) {
+        restore(state);
+      }
+      applyRule(series, rule);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a detached event holding the fields of the first occurrence of a series
+   * as the rule describes it.
+   */
+  private Event copyOfRule(Series series) {
+    LocalDate first = series.getFirstDate();
+    return new Event(new EventStore(this, true), series, first, series.getSubject(), first,
+        first, series.getStartTime(), series.getEndTime(), series.getVisibility(),
+        series.getDescription(), series.getLocation());
+  }
+
+  private void applyRule(Series series, Event rule) {
+    unindex(series);
+    series.setRule(rule.getSubject(), rule.getStartTime(), rule.getEndTime(),
+        rule.getVisibility(), rule.getDescription(), rule.getLocation());
+    index(series);
+  }
+
+  private void restore(EventState state) {
+    Event event = state.event;
+    remove(event);
+    event.applySubject(state.subject);
+    event.applyTimes(state.startDate, state.startTime, state.endDate, state.endTime);
+    event.applyDetails(state.visibility, state.description, state.location);
+    add(event);
+  }
+
+  /**
+   * The next unedited occurrence of a series during an in-order walk.
+   */
+  private static final class SeriesCursor implements Comparable<SeriesCursor> {
+
+    private final Series series;
+    private long day;
+    private long start;
+
+    private SeriesCursor(Series series) {
+      this.series = series;
+    }
+
+    /**
+     * Moves to the first unedited occurrence on or after {@code fromDay}.
+     *
+     * @return false if the series has no such occurrence
+     */
+    private boolean advanceTo(long fromDay) {
+      day = series.nextVirtualDay(fromDay);
+      if (day == Long.MAX_VALUE) {
+        return false;
+      }
+      start = series.occurrenceStart(day);
+      return true;
+    }
+
+    @Override
+    public int compareTo(SeriesCursor other) {
+      int byStart = Long.compare(start, other.start);
+      return byStart != 0 ? byStart : Long.compare(series.getId(), other.series.getId());
+    }
+  }
+
+  /**
+   * Walks the events that cover any part of a range of days in start order, as
+   * {@link #eventsInOrder} does for the whole calendar, but lazily and only over
+   * the part of the indexes that overlaps the range.
+   *
+   * <p>A split hands the first half of the days to a new spliterator and keeps the
+   * rest. Each part returns the events that start on its own days, and the first
+   * part also those that start before the range and run into it, so every event is
+   * returned by exactly one part. Unedited occurrences never cross midnight, so a
+   * part takes those of the series overlapping its days that fall on its days.
+   * Series are taken from their index in start order and get a cursor only once
+   * the walk reaches their first occurrence.
+   */
+  private final class EventSpliterator implements Spliterator<Event> {
+
+    private final long stamp;
+    private long firstDay;
+    private final long lastDay;
+    private long minStart;
+    private long estimate;
+    private Iterator<Event> stored;
+    private Iterator<Series> series;
+    private Event nextStored;
+    private Series nextSeries;
+    private final PriorityQueue<SeriesCursor> cursors = new PriorityQueue<>();
+
+    private EventSpliterator(long stamp, long firstDay, long lastDay, long minStart,
+        long estimate) {
+      this.stamp = stamp;
+      this.firstDay = firstDay;
+      this.lastDay = lastDay;
+      this.minStart = minStart;
+      this.estimate = estimate;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+      if (stored == null) {
+        long from = firstDay * Event.MINUTES_PER_DAY;
+        long to = (lastDay + 1) * Event.MINUTES_PER_DAY;
+        stored = index.iterator(from, to, minStart);
+        series = seriesIndex.iterator(from, to, Long.MIN_VALUE);
+        nextStored = stored.hasNext() ? stored.next() : null;
+        nextSeries = series.hasNext() ? series.next() : null;
+      }
+      Event event = next();
+      if (!unmodifiedSince(stamp)) {
+        throw new ConcurrentModificationException();
+      }
+      if (event == null) {
+        return false;
+      }
+      action.accept(event);
+      return true;
+    }
+
+    /**
+     * Returns the next event in start order, or null once the walk is done.
+     */
+    private Event next() {
+      while (nextSeries != null && nextSeries.spanStart() <= Math.min(
+          nextStored == null ? Long.MAX_VALUE : nextStored.getStartMinute(),
+          cursors.isEmpty() ? Long.MAX_VALUE : cursors.peek().start)) {
+        SeriesCursor cursor = new SeriesCursor(nextSeries);
+        if (cursor.advanceTo(firstDay) && cursor.day <= lastDay) {
+          cursors.add(cursor);
+        }
+        nextSeries = series.hasNext() ? series.next() : null;
+      }
+      SeriesCursor cursor = cursors.peek();
+      if (cursor == null || (nextStored != null
+          && nextStored.getStartMinute() <= cursor.start)) {
+        Event event = nextStored;
+        if (event != null) {
+          nextStored = stored.hasNext() ? stored.next() : null;
+        }
+        return event;
+      }
+      cursors.poll();
+      Event occurrence = new Event(Calendar.this, cursor.series,
+          LocalDate.ofEpochDay(cursor.day));
+      if (cursor.advanceTo(cursor.day + 1) && cursor.day <= lastDay) {
+        cursors.add(cursor);
+      }
+      return occurrence;
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+      if (stored != null || lastDay <= firstDay) {
+        return null;
+      }
+      long mid = firstDay + (lastDay - firstDay + 1) / 2;
+      estimate >>>= 1;
+      EventSpliterator prefix = new EventSpliterator(stamp, firstDay, mid - 1, minStart,
+          estimate);
+      firstDay = mid;
+      minStart = mid * Event.MINUTES_PER_DAY;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL;
+    }
+  }
+
+  /**
+   * The editable state of an event, kept so a failed series change can be undone.
+   */
+  private static final class EventState {
+
+    private final Event event;
+    private final String subject;
+    private final LocalDate startDate;
+    private final LocalTime startTime;
+    private final LocalDate endDate;
+    private final LocalTime endTime;
+    private final String visibility;
+    private final String description;
+    private final String location;
+
+    private EventState(Event event) {
+      this.event = event;
+      this.subject = event.getSubject();
+      this.startDate = event.getStartDate();
+      this.startTime = event.getStartTime();
+      this.endDate = event.getEndDate();
+      this.endTime = event.getEndTime();
+      this.visibility = event.getVisibility();
+      this.description = event.getDescription();
+      this.location = event.getLocation();
+    }
+  }
 }
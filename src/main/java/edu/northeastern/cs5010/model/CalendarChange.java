@@ -0,0 +1,67 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One change to a {@link Calendar}, as reported to its {@link CalendarListener}s.
+ *
+ * <p>A change is everything one call did: creating an event, a batch of events or
+ * a series, an edit through an {@link Event}'s setter, or an edit of a series. It
+ * lists the stored events it added or changed and the days it touched, from where
+ * events were before the change to where they are after it. A change to a series
+ * rule touches every day from the first to the last occurrence of the series, and
+ * its occurrences can be read back with {@link Calendar#getEventsInRange}.
+ */
+public final class CalendarChange {
+
+  private final long version;
+  private final List<Event> events;
+  private final LocalDate firstDate;
+  private final LocalDate lastDate;
+
+  CalendarChange(long version, List<Event> events, LocalDate firstDate,
+      LocalDate lastDate) {
+    this.version = version;
+    this.events = Collections.unmodifiableList(events);
+    this.firstDate = firstDate;
+    this.lastDate = lastDate;
+  }
+
+  /**
+   * Returns the version of the calendar this change produced. Every change gets a
+   * version one higher than the change before it.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the stored events the change added or changed, in the order they were
+   * first changed. An unedited occurrence of a series is not stored on its own, so
+   * a change to a series rule lists only the occurrences edited on their own.
+   *
+   * @return the events, which show their current state rather than the state
+   *     right after this change
+   */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  public LocalDate getFirstDate() {
+    return firstDate;
+  }
+
+  public LocalDate getLastDate() {
+    return lastDate;
+  }
+
+  @Override
+  public String toString() {
+    return "Version " + version + ": " + events.size() + " events, " + firstDate + " - "
+        + lastDate;
+  }
+}
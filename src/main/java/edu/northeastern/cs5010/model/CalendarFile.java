@@ -0,0 +1,539 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A calendar saved in a binary file that is memory-mapped rather than read, so it
+ * opens in the time it takes to check a header.
+ *
+ * <p>The file holds fixed-width records: one per stored event, sorted by start,
+ * one per series rule, and the dates of the edited occurrences of each series,
+ * followed by a table of every distinct string. Records refer to strings by their
+ * index in the table. {@link #getEventsInRange} binary-searches the event records
+ * for the range and decodes only the records and strings it returns, and
+ * {@link #load()} turns the whole file into a calendar that can be edited, without
+ * the checks {@link Calendar#createEvent} makes. The calendar's zone and the zone
+ * each event was created in are saved by name.
+ *
+ * <p>Events returned by a query are copies that belong to no calendar; editing
+ * them changes nothing in the file. The header records a format version, and a
+ * file of another version is rejected. A {@code CalendarFile} is not safe for use
+ * by several threads at once.
+ */
+public final class CalendarFile {
+
+  private static final long MAGIC = 0x4A43414C46494C45L;
+  private static final int VERSION = 2;
+  private static final int ALLOWS_CONFLICTS = 1;
+  private static final int CONCURRENT = 2;
+  private static final int NO_DATE = Integer.MIN_VALUE;
+
+  private static final int HEADER = 64;
+  private static final int HEADER_CHECKED = 60;
+  private static final int EVENT_RECORD = 40;
+  private static final int SERIES_RECORD = 48;
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final ByteBuffer file;
+  private final int flags;
+  private final String title;
+  private final String defaultVisibility;
+  private final ZoneId zone;
+  private final int eventCount;
+  private final long maxEventMinutes;
+  private final int storedCount;
+  private final int seriesCount;
+  private final int eventsOffset;
+  private final int seriesOffset;
+  private final int overridesOffset;
+  private final int stringCount;
+  private final int stringOffsets;
+  private final int stringData;
+  private final String[] strings;
+  private final Series[] series;
+
+  private CalendarFile(ByteBuffer file) throws IOException {
+    this.file = file;
+    if (file.limit() < HEADER || file.getLong(0) != MAGIC) {
+      throw new IOException("Not a calendar file");
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(file.duplicate().position(0).limit(HEADER_CHECKED));
+    if ((int) checksum.getValue() != file.getInt(HEADER_CHECKED)) {
+      throw new IOException("Calendar file header is corrupt");
+    }
+    int version = file.getInt(8);
+    if (version != VERSION) {
+      throw new IOException("Unsupported calendar file version " + version);
+    }
+    flags = file.getInt(12);
+    eventCount = (int) file.getLong(24);
+    maxEventMinutes = file.getLong(32);
+    storedCount = file.getInt(40);
+    seriesCount = file.getInt(44);
+    int overrideCount = file.getInt(48);
+    stringCount = file.getInt(52);
+    long data = HEADER + (long) storedCount * EVENT_RECORD
+        + (long) seriesCount * SERIES_RECORD + (long) overrideCount * Integer.BYTES
+        + ((long) stringCount + 1) * Integer.BYTES;
+    if (storedCount < 0 || seriesCount < 0 || overrideCount < 0 || stringCount < 0
+        || data > file.limit()
+        || data + file.getInt((int) data - Integer.BYTES) != file.limit()) {
+      throw new IOException("Calendar file is truncated or corrupt");
+    }
+    eventsOffset = HEADER;
+    seriesOffset = eventsOffset + storedCount * EVENT_RECORD;
+    overridesOffset = seriesOffset + seriesCount * SERIES_RECORD;
+    stringOffsets = overridesOffset + overrideCount * Integer.BYTES;
+    stringData = (int) data;
+    strings = new String[stringCount];
+    series = new Series[seriesCount];
+    title = string(file.getInt(16));
+    defaultVisibility = string(file.getInt(20));
+    zone = zone(file.getInt(56));
+  }
+
+  /**
+   * Saves a calendar, replacing the file atomically once it is complete.
+   *
+   * @param calendar the calendar to save
+   * @param path the file to write
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Calendar calendar, Path path) throws IOException {
+    if (calendar == null || path == null) {
+      throw new IllegalArgumentException("Calendar and path cannot be null");
+    }
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      Writer writer = new Writer(out);
+      calendar.runExclusively(() -> writer.write(calendar));
+      out.force(true);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Maps a saved calendar, checking its header but decoding none of its events.
+   *
+   * @param path the file to open
+   * @return the file
+   * @throws IllegalArgumentException if the path is null
+   * @throws IOException if the file cannot be read or is not a calendar file of
+   *     this version
+   */
+  public static CalendarFile open(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+    try (FileChannel in = FileChannel.open(path)) {
+      long size = in.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Calendar file too large to map: " + size + " bytes");
+      }
+      return new CalendarFile(in.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getDefaultVisibility() {
+    return defaultVisibility;
+  }
+
+  public boolean allowsConflicts() {
+    return (flags & ALLOWS_CONFLICTS) != 0;
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Returns the number of events in the saved calendar, counting every occurrence
+   * of a recurring event, as {@link Calendar#getEventCount()} did.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns every event that covers any part of the given date, ordered by start.
+   *
+   * @param date the date to look up
+   * @return copies of the events on that date
+   */
+  public List<Event> getEventsOnDate(LocalDate date) {
+    return getEventsInRange(date, date);
+  }
+
+  /**
+   * Returns every event that covers any part of the days from the start date to the
+   * end date inclusive, ordered by start, as {@link Calendar#getEventsInRange}
+   * would have.
+   *
+   * @param startDate the first day of the range
+   * @param endDate the last day of the range
+   * @return copies of the events in the range
+   * @throws IllegalArgumentException if a date is null or the range is reversed
+   */
+  public List<Event> getEventsInRange(LocalDate startDate, LocalDate endDate) {
+    if (startDate == null || endDate == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    long start = Event.startMinute(startDate, null);
+    long end = Event.endMinute(endDate, null);
+    EventStore copies = new EventStore(zone);
+    List<Event> events = new ArrayList<>();
+    for (int record = firstStartingFrom(start - maxEventMinutes);
+        record < storedCount && startMinute(record) < end; record++) {
+      if (endMinute(record) > start) {
+        events.add(decodeEvent(copies, record));
+      }
+    }
+    int concrete = events.size();
+    long firstDay = startDate.toEpochDay();
+    long lastDay = endDate.toEpochDay();
+    for (int index = 0; index < seriesCount; index++) {
+      int record = seriesOffset + index * SERIES_RECORD;
+      if (file.getInt(record + 8) > lastDay || file.getInt(record + 12) < firstDay) {
+        continue;
+      }
+      Series rule = series(index);
+      int editedFrom = file.getInt(record + 40);
+      int editedTo = editedFrom + file.getInt(record + 44);
+      rule.forEachVirtualDay(firstDay, lastDay, day -> {
+        if (!isEdited(editedFrom, editedTo, (int) day)) {
+          LocalDate date = LocalDate.ofEpochDay(day);
+          events.add(new Event(copies, rule, date, rule.getSubject(), date, date,
+              rule.getStartTime(), rule.getEndTime(), rule.getVisibility(),
+              rule.getDescription(), rule.getLocation()));
+        }
+      });
+    }
+    if (events.size() > concrete) {
+      events.sort(Comparator.comparingLong(Event::getStartMinute));
+    }
+    return events;
+  }
+
+  /**
+   * Builds a calendar holding everything in the file. It is a
+   * {@link ConcurrentCalendar} if the saved calendar was one.
+   *
+   * @return the calendar
+   */
+  public Calendar load() {
+    boolean conflicts = allowsConflicts();
+    Calendar calendar = (flags & CONCURRENT) != 0
+        ? new ConcurrentCalendar(title, defaultVisibility, conflicts, zone)
+        : new Calendar(title, defaultVisibility, conflicts, zone);
+    calendar.runExclusively(() -> {
+      Series[] restored = new Series[seriesCount];
+      for (int index = 0; index < seriesCount; index++) {
+        Series rule = series(index);
+        restored[index] = calendar.restoreSeries(null, rule.getId(), rule.getSubject(),
+            rule.getDays(), rule.getFirstDate(), rule.getLastDate(), rule.getStartTime(),
+            rule.getEndTime(), rule.getVisibility(), rule.getDescription(),
+            rule.getLocation());
+      }
+      for (int slot = 0; slot < storedCount; slot++) {
+        int record = eventsOffset + slot * EVENT_RECORD;
+        int owner = file.getInt(record + 28);
+        int occurrenceDay = file.getInt(record + 32);
+        calendar.restoreEvent(null, slot, owner < 0 ? null : restored[owner],
+            occurrenceDay == NO_DATE ? null : LocalDate.ofEpochDay(occurrenceDay),
+            string(file.getInt(record + 12)), LocalDate.ofEpochDay(file.getInt(record)),
+            LocalDate.ofEpochDay(file.getInt(record + 4)),
+            JournalCodec.time(file.getShort(record + 8)),
+            JournalCodec.time(file.getShort(record + 10)), string(file.getInt(record + 16)),
+            string(file.getInt(record + 20)), string(file.getInt(record + 24)),
+            zoneOrNull(file.getInt(record + 36)));
+      }
+      calendar.finishRestore();
+    });
+    return calendar;
+  }
+
+  /**
+   * Returns the first event record starting at or after the given minute.
+   */
+  private int firstStartingFrom(long minute) {
+    int low = 0;
+    int high = storedCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (startMinute(middle) < minute) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long startMinute(int index) {
+    int record = eventsOffset + index * EVENT_RECORD;
+    short minute = file.getShort(record + 8);
+    return (long) file.getInt(record) * Event.MINUTES_PER_DAY + Math.max(minute, 0);
+  }
+
+  private long endMinute(int index) {
+    int record = eventsOffset + index * EVENT_RECORD;
+    short minute = file.getShort(record + 10);
+    long day = file.getInt(record + 4);
+    return minute < 0
+        ? (day + 1) * Event.MINUTES_PER_DAY
+        : day * Event.MINUTES_PER_DAY + minute;
+  }
+
+  private Event decodeEvent(EventStore copies, int index) {
+    int record = eventsOffset + index * EVENT_RECORD;
+    int owner = file.getInt(record + 28);
+    int occurrenceDay = file.getInt(record + 32);
+    Event event = new Event(copies, owner < 0 ? null : series(owner),
+        occurrenceDay == NO_DATE ? null : LocalDate.ofEpochDay(occurrenceDay),
+        string(file.getInt(record + 12)), LocalDate.ofEpochDay(file.getInt(record)),
+        LocalDate.ofEpochDay(file.getInt(record + 4)),
+        JournalCodec.time(file.getShort(record + 8)),
+        JournalCodec.time(file.getShort(record + 10)), string(file.getInt(record + 16)),
+        string(file.getInt(record + 20)), string(file.getInt(record + 24)));
+    event.applyZone(zoneOrNull(file.getInt(record + 36)));
+    return event;
+  }
+
+  private Series series(int index) {
+    Series rule = series[index];
+    if (rule == null) {
+      int record = seriesOffset + index * SERIES_RECORD;
+      rule = new Series(file.getLong(record), string(file.getInt(record + 24)),
+          JournalCodec.days(file.getInt(record + 20)),
+          LocalDate.ofEpochDay(file.getInt(record + 8)),
+          JournalCodec.time(file.getShort(record + 16)),
+          JournalCodec.time(file.getShort(record + 18)), string(file.getInt(record + 28)),
+          string(file.getInt(record + 32)), string(file.getInt(record + 36)));
+      rule.endOnOrBefore(LocalDate.ofEpochDay(file.getInt(record + 12)));
+      series[index] = rule;
+    }
+    return rule;
+  }
+
+  /**
+   * Returns whether a day is among a series' edited occurrences, which are stored
+   * sorted from {@code from} to {@code to}.
+   */
+  private boolean isEdited(int from, int to, int day) {
+    int low = from;
+    int high = to - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int edited = file.getInt(overridesOffset + middle * Integer.BYTES);
+      if (edited < day) {
+        low = middle + 1;
+      } else if (edited > day) {
+        high = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ZoneId zone(int id) throws IOException {
+    String name = string(id);
+    try {
+      return ZoneId.of(name == null ? "" : name);
+    } catch (DateTimeException e) {
+      throw new IOException("Calendar file has an unknown zone " + name, e);
+    }
+  }
+
+  /**
+   * Returns the zone with the given string id, which was checked when the file was
+   * written, or null for an event created without a zone of its own.
+   */
+  private ZoneId zoneOrNull(int id) {
+    return id < 0 ? null : ZoneId.of(string(id));
+  }
+
+  private String string(int id) {
+    if (id < 0) {
+      return null;
+    }
+    String value = strings[id];
+    if (value == null) {
+      int from = file.getInt(stringOffsets + id * Integer.BYTES);
+      int to = file.getInt(stringOffsets + (id + 1) * Integer.BYTES);
+      byte[] bytes = new byte[to - from];
+      file.get(stringData + from, bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+      strings[id] = value;
+    }
+    return value;
+  }
+
+  /**
+   * Streams a calendar into the file format through a fixed buffer, collecting the
+   * string table as it goes.
+   */
+  private static final class Writer {
+
+    private final FileChannel out;
+    private final JournalCodec.Output buffer = new JournalCodec.Output(BUFFER_SIZE);
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<byte[]> strings = new ArrayList<>();
+
+    private Writer(FileChannel out) {
+      this.out = out;
+    }
+
+    private void write(Calendar calendar) {
+      try {
+        List<Series> rules = new ArrayList<>();
+        calendar.forEachSeries(rules::add);
+        Map<Series, Integer> ruleIndex = new IdentityHashMap<>();
+        for (Series rule : rules) {
+          ruleIndex.put(rule, ruleIndex.size());
+        }
+        int[] stored = {0};
+        long[] longest = {0};
+        calendar.forEachStored(event -> {
+          stored[0]++;
+          longest[0] = Math.max(longest[0], event.getEndMinute() - event.getStartMinute());
+        });
+
+        out.position(HEADER);
+        calendar.forEachStored(event -> {
+          Series owner = event.getSeries();
+          LocalDate occurrenceDate = event.getOccurrenceDate();
+          buffer.putInt((int) event.getStartDate().toEpochDay())
+              .putInt((int) event.getEndDate().toEpochDay())
+              .putShort(JournalCodec.minute(event.getStartTime()))
+              .putShort(JournalCodec.minute(event.getEndTime()))
+              .putInt(id(event.getSubject()))
+              .putInt(id(event.getVisibility()))
+              .putInt(id(event.getDescription()))
+              .putInt(id(event.getLocation()))
+              .putInt(owner == null ? -1 : ruleIndex.get(owner))
+              .putInt(occurrenceDate == null ? NO_DATE : (int) occurrenceDate.toEpochDay())
+              .putInt(id(event.getOwnZone() == null ? null : event.getOwnZone().getId()));
+          flushIfFull();
+        });
+        int edited = 0;
+        for (Series rule : rules) {
+          buffer.putLong(rule.getId())
+              .putInt((int) rule.getFirstDate().toEpochDay())
+              .putInt((int) rule.getLastDate().toEpochDay())
+              .putShort(JournalCodec.minute(rule.getStartTime()))
+              .putShort(JournalCodec.minute(rule.getEndTime()))
+              .putInt(JournalCodec.dayMask(rule.getDays()))
+              .putInt(id(rule.getSubject()))
+              .putInt(id(rule.getVisibility()))
+              .putInt(id(rule.getDescription()))
+              .putInt(id(rule.getLocation()))
+              .putInt(edited)
+              .putInt(rule.getOverrides().size());
+          edited += rule.getOverrides().size();
+          flushIfFull();
+        }
+        for (Series rule : rules) {
+          for (LocalDate date : rule.getOverrides().keySet()) {
+            buffer.putInt((int) date.toEpochDay());
+            flushIfFull();
+          }
+        }
+        int title = id(calendar.getTitle());
+        int defaultVisibility = id(calendar.getDefaultVisibility());
+        int zone = id(calendar.getZone().getId());
+        int offset = 0;
+        buffer.putInt(offset);
+        for (byte[] bytes : strings) {
+          offset += bytes.length;
+          buffer.putInt(offset);
+          flushIfFull();
+        }
+        for (byte[] bytes : strings) {
+          buffer.putBytes(ByteBuffer.wrap(bytes));
+          flushIfFull();
+        }
+        flush();
+
+        buffer.putLong(MAGIC).putInt(VERSION)
+            .putInt((calendar.allowsConflicts() ? ALLOWS_CONFLICTS : 0)
+                | (calendar instanceof ConcurrentCalendar ? CONCURRENT : 0))
+            .putInt(title).putInt(defaultVisibility)
+            .putLong(calendar.getEventCount()).putLong(longest[0])
+            .putInt(stored[0]).putInt(rules.size()).putInt(edited).putInt(strings.size())
+            .putInt(zone);
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.buffer().duplicate().flip());
+        buffer.putInt((int) checksum.getValue());
+        ByteBuffer header = buffer.buffer().flip();
+        for (long position = 0; header.hasRemaining(); ) {
+          position += out.write(header, position);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private int id(String value) {
+      if (value == null) {
+        return -1;
+      }
+      Integer id = ids.get(value);
+      if (id == null) {
+        id = strings.size();
+        ids.put(value, id);
+        strings.add(value.getBytes(StandardCharsets.UTF_8));
+      }
+      return id;
+    }
+
+    private void flushIfFull() {
+      if (buffer.position() >= BUFFER_SIZE) {
+        try {
+          flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      ByteBuffer bytes = buffer.buffer().flip();
+      while (bytes.hasRemaining()) {
+        out.write(bytes);
+      }
+      bytes.clear();
+    }
+  }
+}
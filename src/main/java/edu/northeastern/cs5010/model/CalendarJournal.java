@@ -0,0 +1,604 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a {@link Calendar} on disk as a snapshot and a write-ahead log of every
+ * change made since.
+ *
+ * <p>Every change to the calendar, including edits made through an
+ * {@link Event}'s setters and changes to whole series, is appended to the log as
+ * one frame holding the new state of each event and series it touched, so a
+ * change is recovered whole or not at all. Frames carry a sequence number and a
+ * CRC32 checksum. When the log grows past the
+ * {@linkplain JournalOptions#getSnapshotThreshold() snapshot threshold} the
+ * calendar is written to a new snapshot, which records the last sequence number
+ * it includes, and the log starts over. Recovery loads the snapshot and replays
+ * the log frames after it, stopping at the first torn or corrupt frame, which a
+ * crash in the middle of a write leaves behind.
+ *
+ * <p>Frames are written and forced to disk in groups, as set by the
+ * {@link JournalOptions}: once every sync batch of changes, and at the sync
+ * interval if one is set. A change made through the calendar is durable once its
+ * group is synced; {@link #sync()} syncs the waiting group at once. If the log
+ * cannot be written, the method that made the change throws an
+ * {@link UncheckedIOException}, and the change stays made in memory and is still
+ * reported to the calendar's listeners. Its frame stays queued, so a later sync
+ * that succeeds still writes it, in order.
+ *
+ * <p>Snapshots and recovery use the same binary records as the log, keyed by
+ * event slot and series id, unlike {@link Calendar#exportToCSV(java.io.File)},
+ * so they keep series and the calendar's settings. A journal may be used from any
+ * thread if its calendar is a {@link ConcurrentCalendar}.
+ */
+public final class CalendarJournal implements Closeable {
+
+  private static final String SNAPSHOT = "calendar.snapshot";
+  private static final String SNAPSHOT_TEMP = "calendar.snapshot.tmp";
+  private static final String LOG = "calendar.log";
+  private static final long MAGIC = 0x4A43414C534E4150L;
+  private static final int VERSION = 2;
+  private static final int FRAME_HEADER = 2 * Integer.BYTES + Long.BYTES;
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final Path directory;
+  private final JournalOptions options;
+  private final Calendar calendar;
+  private final FileChannel log;
+  private final long recoveryNanos;
+  private final long recoveredChanges;
+  private final Object lock = new Object();
+  private final JournalCodec.Output transaction = new JournalCodec.Output(4096);
+  private final JournalCodec.Output pending = new JournalCodec.Output(4096);
+  private final Deque<Integer> marks = new ArrayDeque<>();
+  private final CRC32 crc = new CRC32();
+  private final ScheduledExecutorService flusher;
+  private long sequence;
+  private long logSize;
+  private int unsynced;
+  private long commits;
+  private long syncs;
+  private long snapshots;
+  private IOException flushFailure;
+  private boolean closed;
+
+  private CalendarJournal(Path directory, JournalOptions options, Calendar calendar,
+      FileChannel log, long sequence, long logSize, long recoveryNanos,
+      long recoveredChanges) {
+    this.directory = directory;
+    this.options = options;
+    this.calendar = calendar;
+    this.log = log;
+    this.sequence = sequence;
+    this.logSize = logSize;
+    this.recoveryNanos = recoveryNanos;
+    this.recoveredChanges = recoveredChanges;
+    Duration interval = options.getSyncInterval();
+    if (interval == null) {
+      flusher = null;
+    } else {
+      flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "calendar-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleWithFixedDelay(this::syncWaiting, interval.toNanos(),
+          interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    calendar.setJournal(new Recorder());
+  }
+
+  /**
+   * Starts journaling a calendar into an empty directory, beginning with a
+   * snapshot of what the calendar already holds.
+   *
+   * @param directory the directory, created if it does not exist
+   * @param calendar the calendar to journal
+   * @param options how to sync and compact the log
+   * @return the journal
+   * @throws IllegalArgumentException if an argument is null or the calendar is
+   *     already journaled
+   * @throws FileAlreadyExistsException if the directory already holds a journal
+   * @throws IOException if the snapshot or log cannot be written
+   */
+  public static CalendarJournal create(Path directory, Calendar calendar,
+      JournalOptions options) throws IOException {
+    if (directory == null || calendar == null || options == null) {
+      throw new IllegalArgumentException("Directory, calendar and options cannot be null");
+    }
+    Files.createDirectories(directory);
+    if (Files.exists(directory.resolve(SNAPSHOT))) {
+      throw new FileAlreadyExistsException(directory.resolve(SNAPSHOT).toString());
+    }
+    CalendarJournal[] created = new CalendarJournal[1];
+    exclusively(calendar, () -> {
+      writeSnapshot(directory, calendar, 0);
+      FileChannel log = FileChannel.open(directory.resolve(LOG), StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      created[0] = new CalendarJournal(directory, options, calendar, log, 0, 0, 0, 0);
+    });
+    return created[0];
+  }
+
+  /**
+   * Recovers a journaled calendar from its latest snapshot and the log after it,
+   * and goes on journaling it. A torn frame at the end of the log is cut off.
+   *
+   * @param directory the directory holding the journal
+   * @param options how to sync and compact the log from now on
+   * @return the journal, whose {@link #getCalendar()} is the recovered calendar
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if there is no journal or it cannot be read
+   */
+  public static CalendarJournal open(Path directory, JournalOptions options)
+      throws IOException {
+    if (directory == null || options == null) {
+      throw new IllegalArgumentException("Directory and options cannot be null");
+    }
+    long started = System.nanoTime();
+    Calendar calendar;
+    JournalCodec.Replay replay;
+    long sequence;
+    try (FileChannel in = FileChannel.open(directory.resolve(SNAPSHOT))) {
+      ByteBuffer snapshot = map(in);
+      CRC32 checksum = new CRC32();
+      checksum.update(snapshot.duplicate().limit(snapshot.limit() - Integer.BYTES));
+      if (snapshot.limit() < Long.BYTES + Integer.BYTES || snapshot.getLong() != MAGIC
+          || (int) checksum.getValue() != snapshot.getInt(snapshot.limit() - Integer.BYTES)) {
+        throw new IOException("Not a valid calendar snapshot: " + directory.resolve(SNAPSHOT));
+      }
+      int version = snapshot.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported calendar snapshot version " + version);
+      }
+      sequence = snapshot.getLong();
+      byte flags = snapshot.get();
+      String title = JournalCodec.getString(snapshot);
+      String defaultVisibility = JournalCodec.getString(snapshot);
+      ZoneId zone = ZoneId.of(JournalCodec.getString(snapshot));
+      calendar = (flags & 2) != 0
+          ? new ConcurrentCalendar(title, defaultVisibility, (flags & 1) != 0, zone)
+          : new Calendar(title, defaultVisibility, (flags & 1) != 0, zone);
+      replay = new JournalCodec.Replay(calendar);
+      replay(replay, snapshot.limit(snapshot.limit() - Integer.BYTES));
+    }
+
+    FileChannel log = FileChannel.open(directory.resolve(LOG), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long recovered = 0;
+    long end = 0;
+    try {
+      ByteBuffer frames = map(log);
+      CRC32 checksum = new CRC32();
+      while (frames.remaining() >= FRAME_HEADER) {
+        int length = frames.getInt();
+        int expected = frames.getInt();
+        if (length < 0 || frames.remaining() < Long.BYTES + length) {
+          break;
+        }
+        ByteBuffer frame = frames.slice().limit(Long.BYTES + length);
+        checksum.reset();
+        checksum.update(frame.duplicate());
+        if ((int) checksum.getValue() != expected) {
+          break;
+        }
+        long frameSequence = frame.getLong();
+        if (frameSequence > sequence) {
+          replay(replay, frame);
+          sequence = frameSequence;
+          recovered++;
+        }
+        frames.position(frames.position() + Long.BYTES + length);
+        end = frames.position();
+      }
+      log.truncate(end);
+    } catch (IOException | RuntimeException e) {
+      log.close();
+      throw e;
+    }
+    calendar.finishRestore();
+    return new CalendarJournal(directory, options, calendar, log, sequence, end,
+        System.nanoTime() - started, recovered);
+  }
+
+  public Calendar getCalendar() {
+    return calendar;
+  }
+
+  /**
+   * Forces every change made so far to disk.
+   *
+   * @throws IOException if the log cannot be written
+   */
+  public void sync() throws IOException {
+    synchronized (lock) {
+      requireOpen();
+      flush(true);
+    }
+  }
+
+  /**
+   * Writes the calendar to a new snapshot now and starts the log over. This waits
+   * for any change in progress on another thread.
+   *
+   * @throws IOException if the snapshot cannot be written
+   * @throws IllegalStateException if called from within a change to the calendar
+   */
+  public void snapshot() throws IOException {
+    exclusively(calendar, () -> {
+      synchronized (lock) {
+        requireOpen();
+        if (!marks.isEmpty()) {
+          throw new IllegalStateException("Cannot take a snapshot during a change");
+        }
+        takeSnapshot();
+      }
+    });
+  }
+
+  /**
+   * Returns how long {@link #open} took to load the snapshot and replay the log.
+   *
+   * @return the recovery time, zero for a journal made by {@link #create}
+   */
+  public Duration getRecoveryTime() {
+    return Duration.ofNanos(recoveryNanos);
+  }
+
+  /**
+   * Returns the number of changes {@link #open} replayed from the log.
+   */
+  public long getRecoveredChanges() {
+    return recoveredChanges;
+  }
+
+  /**
+   * Returns the number of changes written since the journal was opened.
+   */
+  public long getCommitCount() {
+    synchronized (lock) {
+      return commits;
+    }
+  }
+
+  /**
+   * Returns the number of times the log was forced to disk since the journal was
+   * opened.
+   */
+  public long getSyncCount() {
+    synchronized (lock) {
+      return syncs;
+    }
+  }
+
+  /**
+   * Returns the number of snapshots taken since the journal was opened.
+   */
+  public long getSnapshotCount() {
+    synchronized (lock) {
+      return snapshots;
+    }
+  }
+
+  /**
+   * Returns the size of the log in bytes, including changes not written out yet.
+   */
+  public long getLogSize() {
+    synchronized (lock) {
+      return logSize + pending.position();
+    }
+  }
+
+  /**
+   * Syncs every change made so far and stops journaling the calendar, which stays
+   * usable in memory.
+   *
+   * @throws IOException if the log cannot be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      exclusively(calendar, () -> {
+        synchronized (lock) {
+          if (closed) {
+            return;
+          }
+          closed = true;
+          calendar.setJournal(Journal.NONE);
+          try {
+            flush(true);
+          } finally {
+            log.close();
+          }
+        }
+      });
+    } finally {
+      if (flusher != null) {
+        flusher.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Writes the frame of the change just finished and syncs or compacts the log if
+   * the options call for it. Runs while the calendar cannot change. If a sync at
+   * the interval failed since the last change, the frame is still queued behind the
+   * ones that sync left unwritten, and the failure is thrown after it.
+   */
+  private void commitTransaction() {
+    ByteBuffer payload = transaction.buffer();
+    if (payload.position() == 0) {
+      return;
+    }
+    synchronized (lock) {
+      try {
+        payload.flip();
+        long frameSequence = ++sequence;
+        crc.reset();
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+          crc.update((int) (frameSequence >>> shift));
+        }
+        crc.update(payload.duplicate());
+        pending.putInt(payload.remaining()).putInt((int) crc.getValue())
+            .putLong(frameSequence).putBytes(payload);
+        commits++;
+        unsynced++;
+        if (flushFailure != null) {
+          IOException failure = flushFailure;
+          flushFailure = null;
+          throw failure;
+        }
+        if (unsynced >= options.getSyncBatch()) {
+          flush(true);
+        } else if (pending.position() >= BUFFER_SIZE) {
+          flush(false);
+        }
+        if (logSize + pending.position() >= options.getSnapshotThreshold()) {
+          takeSnapshot();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        payload.clear();
+      }
+    }
+  }
+
+  /**
+   * Writes the waiting frames to the log, and forces them to disk if asked to.
+   */
+  private void flush(boolean force) throws IOException {
+    ByteBuffer bytes = pending.buffer();
+    bytes.flip();
+    try {
+      while (bytes.hasRemaining()) {
+        logSize += log.write(bytes, logSize);
+      }
+    } finally {
+      bytes.compact();
+    }
+    if (force && unsynced > 0) {
+      log.force(false);
+      syncs++;
+      unsynced = 0;
+    }
+  }
+
+  private void syncWaiting() {
+    synchronized (lock) {
+      if (!closed && unsynced > 0) {
+        try {
+          flush(true);
+        } catch (IOException e) {
+          flushFailure = e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the snapshot with one of the calendar as it is now and empties the
+   * log, whose frames the snapshot includes. Runs while the calendar cannot change.
+   */
+  private void takeSnapshot() throws IOException {
+    writeSnapshot(directory, calendar, sequence);
+    log.truncate(0);
+    pending.reset(0);
+    logSize = 0;
+    unsynced = 0;
+    snapshots++;
+  }
+
+  private void requireOpen() {
+    if (closed) {
+      throw new IllegalStateException("The journal is closed");
+    }
+  }
+
+  private static void writeSnapshot(Path directory, Calendar calendar, long sequence)
+      throws IOException {
+    Path temp = directory.resolve(SNAPSHOT_TEMP);
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      SnapshotWriter writer = new SnapshotWriter(out);
+      writer.records.putLong(MAGIC).putInt(VERSION).putLong(sequence)
+          .putByte((byte) ((calendar.allowsConflicts() ? 1 : 0)
+              | (calendar instanceof ConcurrentCalendar ? 2 : 0)))
+          .putString(calendar.getTitle())
+          .putString(calendar.getDefaultVisibility())
+          .putString(calendar.getZone().getId());
+      calendar.forEachSeries(series -> {
+        JournalCodec.writeSeries(writer.records, series);
+        writer.flushIfFull();
+      });
+      calendar.forEachStored(event -> {
+        JournalCodec.writeEvent(writer.records, event);
+        writer.flushIfFull();
+      });
+      writer.finish();
+      out.force(true);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // Some platforms cannot sync a directory; the rename is durable there anyway.
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Journal file too large to map: " + size + " bytes");
+    }
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    return buffer;
+  }
+
+  private static void replay(JournalCodec.Replay replay, ByteBuffer records)
+      throws IOException {
+    try {
+      replay.applyAll(records);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt calendar journal: " + e, e);
+    }
+  }
+
+  /**
+   * Runs an action while the calendar cannot change.
+   */
+  private static void exclusively(Calendar calendar, IoAction action) throws IOException {
+    IOException[] failure = new IOException[1];
+    calendar.runExclusively(() -> {
+      try {
+        action.run();
+      } catch (IOException e) {
+        failure[0] = e;
+      }
+    });
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+  }
+
+  private interface IoAction {
+
+    void run() throws IOException;
+  }
+
+  /**
+   * Streams snapshot records to a file through a fixed buffer, checksumming them
+   * on the way.
+   */
+  private static final class SnapshotWriter {
+
+    private final FileChannel out;
+    private final JournalCodec.Output records = new JournalCodec.Output(BUFFER_SIZE);
+    private final CRC32 checksum = new CRC32();
+
+    private SnapshotWriter(FileChannel out) {
+      this.out = out;
+    }
+
+    private void flushIfFull() {
+      if (records.position() >= BUFFER_SIZE) {
+        try {
+          flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      ByteBuffer bytes = records.buffer();
+      bytes.flip();
+      checksum.update(bytes.duplicate());
+      while (bytes.hasRemaining()) {
+        out.write(bytes);
+      }
+      bytes.clear();
+    }
+
+    private void finish() throws IOException {
+      flush();
+      records.putInt((int) checksum.getValue());
+      ByteBuffer bytes = records.buffer();
+      bytes.flip();
+      while (bytes.hasRemaining()) {
+        out.write(bytes);
+      }
+    }
+  }
+
+  /**
+   * Collects the records of the change in progress and writes them as one frame
+   * when the outermost transaction commits.
+   */
+  private final class Recorder implements Journal {
+
+    @Override
+    public void begin() {
+      marks.push(transaction.position());
+    }
+
+    @Override
+    public void commit() {
+      marks.pop();
+      if (marks.isEmpty()) {
+        commitTransaction();
+      }
+    }
+
+    @Override
+    public void abort() {
+      transaction.reset(marks.pop());
+    }
+
+    @Override
+    public void eventStored(Event event) {
+      JournalCodec.writeEvent(transaction, event);
+      commitIfOutside();
+    }
+
+    @Override
+    public void seriesStored(Series series) {
+      JournalCodec.writeSeries(transaction, series);
+      commitIfOutside();
+    }
+
+    @Override
+    public void seriesSplit(Series head, java.time.LocalDate date, Series tail) {
+      JournalCodec.writeSplit(transaction, head, date, tail);
+      commitIfOutside();
+    }
+
+    private void commitIfOutside() {
+      if (marks.isEmpty()) {
+        commitTransaction();
+      }
+    }
+  }
+}
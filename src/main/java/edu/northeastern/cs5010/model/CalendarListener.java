@@ -0,0 +1,25 @@
+package edu.northeastern.cs5010.model;
+
+/**
+ * Receives every change made to a {@link Calendar}, once the change is complete.
+ *
+ * <p>A listener is called on the thread that made the change, after the calendar
+ * has applied it and before the method that made it returns. Every change carries
+ * the calendar version it produced, so a listener that misses changes, or starts
+ * listening late, can tell how far behind it is.
+ *
+ * <p>An exception thrown by a listener does not reach the method that made the
+ * change, which has already been applied, and does not keep the other listeners
+ * from being called. It is passed to the calling thread's uncaught exception
+ * handler instead.
+ */
+@FunctionalInterface
+public interface CalendarListener {
+
+  /**
+   * Called after a change to the calendar.
+   *
+   * @param change what changed
+   */
+  void calendarChanged(CalendarChange change);
+}
@@ -0,0 +1,203 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The metrics of a {@link Calendar} at one moment, as returned by
+ * {@link Calendar#getMetrics()}: how long its hot operations take, how many
+ * conflicts it rejected, how much its queries scanned, and how big it is.
+ *
+ * <p>Latencies and counters cover the time metrics were
+ * {@linkplain Calendar#setMetricsEnabled(boolean) enabled}; the event and series
+ * counts are read when the snapshot is taken.
+ */
+public final class CalendarMetrics {
+
+  /**
+   * The operations whose latencies are recorded.
+   */
+  public enum Operation {
+    /**
+     * {@link Calendar#createEvent}, including its checks.
+     */
+    CREATE_EVENT,
+    /**
+     * One check of a time for conflicts, in a calendar that does not allow them.
+     */
+    CONFLICT_CHECK,
+    /**
+     * {@link Calendar#getEventsInRange} and {@link Calendar#getEventsOnDate}.
+     */
+    GET_EVENTS_IN_RANGE,
+    /**
+     * {@link Calendar#isBusyAt}.
+     */
+    IS_BUSY_AT,
+    /**
+     * {@link Calendar#exportToCSV} and {@link Calendar#exportChangesSince}.
+     */
+    EXPORT_TO_CSV
+  }
+
+  private final Map<Operation, Latency> latencies;
+  private final long conflictsRejected;
+  private final long queries;
+  private final long eventsScanned;
+  private final int eventCount;
+  private final int seriesCount;
+
+  CalendarMetrics(Map<Operation, Latency> latencies, long conflictsRejected, long queries,
+      long eventsScanned, int eventCount, int seriesCount) {
+    this.latencies = Collections.unmodifiableMap(new EnumMap<>(latencies));
+    this.conflictsRejected = conflictsRejected;
+    this.queries = queries;
+    this.eventsScanned = eventsScanned;
+    this.eventCount = eventCount;
+    this.seriesCount = seriesCount;
+  }
+
+  /**
+   * Returns the latencies recorded for an operation.
+   *
+   * @param operation the operation
+   * @return the latencies
+   */
+  public Latency getLatency(Operation operation) {
+    return latencies.get(operation);
+  }
+
+  /**
+   * Returns how many new or changed events were rejected because they conflicted
+   * with another event.
+   *
+   * @return the number of rejected conflicts
+   */
+  public long getConflictsRejected() {
+    return conflictsRejected;
+  }
+
+  /**
+   * Returns how many range queries walked the calendar's indexes rather than
+   * being answered from the query cache.
+   *
+   * @return the number of queries
+   */
+  public long getQueries() {
+    return queries;
+  }
+
+  /**
+   * Returns how many events those queries found in total, stored events and
+   * occurrences of series alike.
+   *
+   * @return the number of events scanned
+   */
+  public long getEventsScanned() {
+    return eventsScanned;
+  }
+
+  /**
+   * Returns the average number of events a query scanned.
+   *
+   * @return the events per query, or 0 if there were no queries
+   */
+  public double getEventsScannedPerQuery() {
+    return queries == 0 ? 0 : (double) eventsScanned / queries;
+  }
+
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the number of recurring series, counting each part of a series that
+   * was split by {@link Calendar#modifyRecurringEventsFrom} on its own.
+   *
+   * @return the number of series
+   */
+  public int getSeriesCount() {
+    return seriesCount;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    text.append(eventCount).append(" events, ").append(seriesCount).append(" series, ")
+        .append(conflictsRejected).append(" conflicts rejected, ").append(queries)
+        .append(" queries scanning ").append(eventsScanned).append(" events");
+    latencies.forEach((operation, latency) -> {
+      if (latency.getCount() > 0) {
+        text.append(", ").append(operation).append(' ').append(latency);
+      }
+    });
+    return text.toString();
+  }
+
+  /**
+   * The latencies recorded for one operation, in nanoseconds. Each latency is kept
+   * to within about six percent.
+   */
+  public static final class Latency {
+
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    Latency(long[] counts, long count, long total, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.total = total;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+      return count == 0 ? 0 : (double) total / count;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    /**
+     * Returns the latency that the given percentage of recorded latencies do not
+     * exceed.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if the percentage is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("Percentile must be from 0 to 100");
+      }
+      long wanted = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int bucket = 0; bucket < counts.length; bucket++) {
+        seen += counts[bucket];
+        if (seen >= wanted) {
+          return Math.min(max, LatencyHistogram.highestValue(bucket));
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return count + " calls, mean " + Math.round(getMean()) + " ns, p50 "
+          + getValueAtPercentile(50) + " ns, p99 " + getValueAtPercentile(99) + " ns, max "
+          + max + " ns";
+    }
+  }
+}
@@ -0,0 +1,548 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Hosts many calendars, one per user or team, found by title and kept in memory
+ * only while they are in use.
+ *
+ * <p>Calendars are hash-partitioned by title across {@linkplain
+ * RegistryOptions#getShardCount() shards}. Each shard owns its calendars and a
+ * worker thread, and everything done to its calendars runs on that thread, so a
+ * shard needs no locks and queries across many calendars run on every shard in
+ * parallel. Within its {@linkplain RegistryOptions#getMaxLoadedEvents() memory
+ * bound} a shard keeps its most recently used calendars loaded; it saves the rest
+ * to disk as {@link CalendarFile}s, and loads one again the next time it is used.
+ * Queries across calendars read a saved calendar straight from its memory-mapped
+ * file, without loading it.
+ *
+ * <p>Calendars are {@link ConcurrentCalendar}s, so the events a query returns may
+ * be read from any thread. A calendar must only be changed inside
+ * {@link #withCalendar}, and must not be kept after it returns: once the registry
+ * saves a calendar, changes to the object it saved are lost. Listeners, metrics
+ * and caches set on a calendar are not saved with it.
+ *
+ * <p>Opening a registry on a directory that holds saved calendars, such as one
+ * left by {@link #close()}, registers each of them.
+ */
+public final class CalendarRegistry implements Closeable {
+
+  private static final String EXTENSION = ".cal";
+
+  private final Path directory;
+  private final RegistryOptions options;
+  private final Shard[] shards;
+  private volatile boolean closed;
+
+  private CalendarRegistry(Path directory, RegistryOptions options) {
+    this.directory = directory;
+    this.options = options;
+    this.shards = new Shard[options.getShardCount()];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard(i);
+    }
+  }
+
+  /**
+   * Opens a registry whose calendars are saved in the given directory, registering
+   * every calendar already saved there.
+   *
+   * @param directory the directory, created if it does not exist
+   * @param options how to shard and bound the calendars
+   * @return the registry
+   * @throws IllegalArgumentException if an argument is null
+   * @throws IOException if the directory or a calendar in it cannot be read
+   */
+  public static CalendarRegistry open(Path directory, RegistryOptions options)
+      throws IOException {
+    if (directory == null || options == null) {
+      throw new IllegalArgumentException("Directory and options cannot be null");
+    }
+    Files.createDirectories(directory);
+    CalendarRegistry registry = new CalendarRegistry(directory, options);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (Path path : files) {
+        CalendarFile file = CalendarFile.open(path);
+        Entry entry = new Entry(file.getTitle());
+        entry.file = file;
+        registry.shardOf(entry.title).entries.put(entry.title, entry);
+      }
+    } catch (IOException | RuntimeException e) {
+      registry.close();
+      throw e;
+    }
+    return registry;
+  }
+
+  /**
+   * Creates a calendar and registers it.
+   *
+   * @param title the title of the calendar
+   * @param defaultVisibility the visibility of events created without one
+   * @param allowsConflicts whether events may overlap
+   * @throws IllegalArgumentException if the title or visibility is null or empty,
+   *     or a calendar with the title is already registered
+   */
+  public void createCalendar(String title, String defaultVisibility,
+      boolean allowsConflicts) {
+    Calendar calendar = new ConcurrentCalendar(title, defaultVisibility, allowsConflicts);
+    Shard shard = shardOf(title);
+    run(shard, () -> {
+      if (shard.entries.containsKey(title)) {
+        throw new IllegalArgumentException("A calendar titled " + title + " already exists");
+      }
+      Entry entry = new Entry(title);
+      entry.calendar = calendar;
+      entry.savedVersion = -1;
+      shard.entries.put(title, entry);
+      shard.used(entry);
+      return null;
+    });
+  }
+
+  /**
+   * Runs an action on a calendar, loading it first if it was saved to disk. The
+   * action runs on the calendar's shard, one at a time with every other action on
+   * that shard's calendars.
+   *
+   * @param title the title of the calendar
+   * @param action what to do with the calendar, which must not keep it
+   * @return what the action returned
+   * @throws IllegalArgumentException if no calendar has the title
+   * @throws UncheckedIOException if the calendar cannot be loaded, or another
+   *     calendar cannot be saved to make room for it
+   */
+  public <T> T withCalendar(String title, Function<Calendar, T> action) {
+    if (action == null) {
+      throw new IllegalArgumentException("Action cannot be null");
+    }
+    Shard shard = shardOf(title);
+    return run(shard, () -> {
+      Entry entry = shard.require(title);
+      try {
+        return action.apply(shard.load(entry));
+      } finally {
+        shard.used(entry);
+      }
+    });
+  }
+
+  /**
+   * Removes a calendar and its saved file.
+   *
+   * @param title the title of the calendar
+   * @return false if no calendar had the title
+   */
+  public boolean removeCalendar(String title) {
+    Shard shard = shardOf(title);
+    return run(shard, () -> {
+      Entry entry = shard.entries.remove(title);
+      if (entry == null) {
+        return false;
+      }
+      shard.loadedEvents -= entry.loadedEvents;
+      Files.deleteIfExists(pathOf(title));
+      return true;
+    });
+  }
+
+  public boolean contains(String title) {
+    Shard shard = shardOf(title);
+    return run(shard, () -> shard.entries.containsKey(title));
+  }
+
+  /**
+   * Returns the titles of every registered calendar, sorted.
+   *
+   * @return the titles
+   */
+  public List<String> getTitles() {
+    List<String> titles = new ArrayList<>();
+    for (List<String> part : onEveryShard(shard -> new ArrayList<>(shard.entries.keySet()))) {
+      titles.addAll(part);
+    }
+    titles.sort(null);
+    return titles;
+  }
+
+  /**
+   * Returns the titles of the calendars busy at the given moment, sorted. Every
+   * shard checks its calendars in parallel, reading saved calendars from disk
+   * without loading them.
+   *
+   * @param date the date to check
+   * @param time the time to check
+   * @return the titles of the busy calendars
+   * @throws IllegalArgumentException if the date or time is null
+   */
+  public List<String> findBusyAt(LocalDate date, LocalTime time) {
+    if (date == null || time == null) {
+      throw new IllegalArgumentException("Date and time cannot be null");
+    }
+    long minute = Event.startMinute(date, time);
+    List<String> busy = new ArrayList<>();
+    for (List<String> part : onEveryShard(shard -> {
+      List<String> titles = new ArrayList<>();
+      for (Entry entry : shard.entries.values()) {
+        boolean busyAt;
+        if (entry.calendar != null) {
+          busyAt = entry.calendar.isBusyAt(date, time);
+        } else {
+          busyAt = entry.file.getEventsOnDate(date).stream().anyMatch(event ->
+              event.getStartMinute() <= minute && minute < event.getEndMinute());
+        }
+        if (busyAt) {
+          titles.add(entry.title);
+        }
+      }
+      return titles;
+    })) {
+      busy.addAll(part);
+    }
+    busy.sort(null);
+    return busy;
+  }
+
+  /**
+   * Returns the events of each of the given calendars on a date, looked up on
+   * every shard in parallel. Saved calendars are read from disk without loading
+   * them, and their events are copies that belong to no calendar.
+   *
+   * @param date the date to look up
+   * @param titles the titles of the calendars
+   * @return the events on the date, ordered by start, by title in the order given
+   * @throws IllegalArgumentException if the date or titles are null, or a title is
+   *     not registered
+   */
+  public Map<String, List<Event>> getEventsOnDate(LocalDate date, Collection<String> titles) {
+    if (date == null || titles == null) {
+      throw new IllegalArgumentException("Date and titles cannot be null");
+    }
+    List<List<String>> byShard = new ArrayList<>(shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      byShard.add(new ArrayList<>());
+    }
+    for (String title : titles) {
+      byShard.get(shardOf(title).index).add(title);
+    }
+    Map<String, List<Event>> found = new LinkedHashMap<>();
+    for (Map<String, List<Event>> part : onEveryShard(shard -> {
+      Map<String, List<Event>> events = new LinkedHashMap<>();
+      for (String title : byShard.get(shard.index)) {
+        Entry entry = shard.require(title);
+        events.put(title, entry.calendar != null ? entry.calendar.getEventsOnDate(date)
+            : entry.file.getEventsOnDate(date));
+      }
+      return events;
+    })) {
+      found.putAll(part);
+    }
+    Map<String, List<Event>> ordered = new LinkedHashMap<>();
+    for (String title : titles) {
+      ordered.put(title, found.get(title));
+    }
+    return ordered;
+  }
+
+  /**
+   * Returns the number of calendars currently loaded in memory.
+   *
+   * @return the number of loaded calendars
+   */
+  public int getLoadedCount() {
+    int loaded = 0;
+    for (int count : onEveryShard(shard -> {
+      int shardLoaded = 0;
+      for (Entry entry : shard.entries.values()) {
+        if (entry.calendar != null) {
+          shardLoaded++;
+        }
+      }
+      return shardLoaded;
+    })) {
+      loaded += count;
+    }
+    return loaded;
+  }
+
+  /**
+   * Returns how many times a calendar was saved to disk to free its memory.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    long evictions = 0;
+    for (long count : onEveryShard(shard -> shard.evictions)) {
+      evictions += count;
+    }
+    return evictions;
+  }
+
+  /**
+   * Saves every loaded calendar that changed since it was loaded and stops the
+   * shards' threads.
+   *
+   * @throws IOException if a calendar cannot be saved
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    IOException failure = null;
+    for (Shard shard : shards) {
+      try {
+        shard.executor.submit(() -> {
+          for (Entry entry : shard.entries.values()) {
+            shard.save(entry);
+          }
+          return null;
+        }).get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof IOException ? (IOException) e.getCause()
+              : new IOException(e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = new IOException("Interrupted while saving calendars", e);
+      } finally {
+        shard.executor.shutdown();
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private Shard shardOf(String title) {
+    if (title == null) {
+      throw new IllegalArgumentException("Title cannot be null");
+    }
+    int hash = title.hashCode();
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  /**
+   * Returns the file a calendar is saved in, named by the hexadecimal UTF-8 bytes
+   * of its title so that any title makes a valid and distinct file name.
+   */
+  private Path pathOf(String title) {
+    StringBuilder name = new StringBuilder();
+    for (byte b : title.getBytes(StandardCharsets.UTF_8)) {
+      name.append(Character.forDigit((b >> 4) & 0xF, 16))
+          .append(Character.forDigit(b & 0xF, 16));
+    }
+    return directory.resolve(name.append(EXTENSION).toString());
+  }
+
+  /**
+   * Runs a task on a shard's thread and waits for it. A task already on that
+   * thread, such as a registry call made inside {@link #withCalendar}, runs at once.
+   */
+  private <T> T run(Shard shard, Callable<T> task) {
+    if (closed) {
+      throw new IllegalStateException("The registry is closed");
+    }
+    if (Thread.currentThread() == shard.thread) {
+      return call(task);
+    }
+    return await(shard.executor.submit(() -> call(task)));
+  }
+
+  /**
+   * Runs a query on every shard in parallel and returns the result of each.
+   */
+  private <T> List<T> onEveryShard(Function<Shard, T> query) {
+    if (closed) {
+      throw new IllegalStateException("The registry is closed");
+    }
+    List<Future<T>> running = new ArrayList<>(shards.length);
+    List<T> results = new ArrayList<>(shards.length);
+    for (Shard shard : shards) {
+      if (Thread.currentThread() == shard.thread) {
+        results.add(query.apply(shard));
+      } else {
+        running.add(shard.executor.submit(() -> query.apply(shard)));
+      }
+    }
+    for (Future<T> result : running) {
+      results.add(await(result));
+    }
+    return results;
+  }
+
+  private static <T> T call(Callable<T> task) {
+    try {
+      return task.call();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static <T> T await(Future<T> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.cancel(true);
+      throw new IllegalStateException("Interrupted while waiting for a shard", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * A registered calendar, loaded or saved.
+   */
+  private static final class Entry {
+
+    private final String title;
+    private Calendar calendar;
+    private CalendarFile file;
+    private long savedVersion;
+    private int loadedEvents;
+    private long lastUsed;
+
+    private Entry(String title) {
+      this.title = title;
+    }
+  }
+
+  /**
+   * A partition of the calendars with the thread that owns them. Its fields are
+   * only used on that thread.
+   */
+  private final class Shard {
+
+    private final int index;
+    private final ScheduledExecutorService executor;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile Thread thread;
+    private long loadedEvents;
+    private long evictions;
+
+    private Shard(int index) {
+      this.index = index;
+      this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        thread = new Thread(task, "calendar-registry-" + index);
+        thread.setDaemon(true);
+        return thread;
+      });
+      Duration idle = options.getIdleTimeout();
+      if (idle != null) {
+        long period = Math.max(1, idle.toNanos() / 2);
+        executor.scheduleWithFixedDelay(this::evictIdle, period, period,
+            TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private Entry require(String title) {
+      Entry entry = entries.get(title);
+      if (entry == null) {
+        throw new IllegalArgumentException("No calendar titled " + title);
+      }
+      return entry;
+    }
+
+    private Calendar load(Entry entry) {
+      if (entry.calendar == null) {
+        entry.calendar = entry.file.load();
+        entry.savedVersion = entry.calendar.getVersion();
+        entry.file = null;
+      }
+      return entry.calendar;
+    }
+
+    /**
+     * Records that a calendar was used and what it now holds, and saves the least
+     * recently used other calendars while the shard holds more than its bound.
+     */
+    private void used(Entry entry) {
+      entry.lastUsed = System.nanoTime();
+      if (entry.calendar == null || !entries.containsKey(entry.title)) {
+        return;
+      }
+      int size = entry.calendar.storedSize();
+      loadedEvents += size - entry.loadedEvents;
+      entry.loadedEvents = size;
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (loadedEvents > options.getMaxLoadedEvents() && eldest.hasNext()) {
+        Entry candidate = eldest.next();
+        if (candidate != entry && candidate.calendar != null) {
+          evict(candidate);
+        }
+      }
+    }
+
+    private void evictIdle() {
+      long cutoff = System.nanoTime() - options.getIdleTimeout().toNanos();
+      for (Entry entry : entries.values()) {
+        if (entry.calendar != null && entry.lastUsed - cutoff < 0) {
+          try {
+            evict(entry);
+          } catch (UncheckedIOException e) {
+            // The calendar stays loaded and is saved on a later sweep.
+          }
+        }
+      }
+    }
+
+    private void evict(Entry entry) {
+      try {
+        save(entry);
+        entry.file = CalendarFile.open(pathOf(entry.title));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      entry.calendar = null;
+      loadedEvents -= entry.loadedEvents;
+      entry.loadedEvents = 0;
+      evictions++;
+    }
+
+    /**
+     * Saves a loaded calendar if it changed since it was loaded or last saved.
+     */
+    private void save(Entry entry) throws IOException {
+      if (entry.calendar != null && entry.calendar.getVersion() != entry.savedVersion) {
+        CalendarFile.write(entry.calendar, pathOf(entry.title));
+        entry.savedVersion = entry.calendar.getVersion();
+      }
+    }
+  }
+}
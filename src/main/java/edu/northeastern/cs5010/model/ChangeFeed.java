@@ -0,0 +1,133 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects the changes a {@link Calendar} makes into {@link CalendarChange}s,
+ * numbers them, and hands them to the calendar's listeners.
+ *
+ * <p>The calendar reports changes here as it reports them to its {@link Journal},
+ * with the same transactions: a state reported outside a transaction, or the
+ * outermost commit of one, completes a change, and an abort drops everything the
+ * transaction collected. Removing an event or series only records the minutes it
+ * left; the state reported after it completes the change. Every event and series
+ * reported is stamped with the version of the change it belongs to, and an abort
+ * puts back the versions they had before the transaction.
+ */
+final class ChangeFeed {
+
+  private final List<CalendarListener> listeners = new CopyOnWriteArrayList<>();
+  private final Set<Event> events = new LinkedHashSet<>();
+  private final Map<Event, Long> eventVersions = new HashMap<>();
+  private final Map<Series, Long> seriesVersions = new HashMap<>();
+  private long firstMinute = Long.MAX_VALUE;
+  private long endMinute = Long.MIN_VALUE;
+  private int depth;
+  private volatile long version;
+
+  long getVersion() {
+    return version;
+  }
+
+  void addListener(CalendarListener listener) {
+    listeners.add(listener);
+  }
+
+  void removeListener(CalendarListener listener) {
+    listeners.remove(listener);
+  }
+
+  void begin() {
+    depth++;
+  }
+
+  void commit() {
+    if (--depth == 0) {
+      publish();
+    }
+  }
+
+  void abort() {
+    if (--depth == 0) {
+      eventVersions.forEach((event, old) -> {
+        if (event.isConcrete()) {
+          event.setVersion(old);
+        }
+      });
+      seriesVersions.forEach(Series::setVersion);
+      clear();
+    }
+  }
+
+  void eventStored(Event event) {
+    if (depth > 0) {
+      eventVersions.putIfAbsent(event, event.getVersion());
+    }
+    event.setVersion(version + 1);
+    events.add(event);
+    touched(event.getStartMinute(), event.getEndMinute());
+    if (depth == 0) {
+      publish();
+    }
+  }
+
+  void seriesStored(Series series) {
+    if (depth > 0) {
+      seriesVersions.putIfAbsent(series, series.getVersion());
+    }
+    series.setVersion(version + 1);
+    touched(series.spanStart(), series.spanEnd());
+    if (depth == 0) {
+      publish();
+    }
+  }
+
+  /**
+   * Records minutes a change is about to leave, before the state it moves to is
+   * reported.
+   */
+  void touched(long start, long end) {
+    firstMinute = Math.min(firstMinute, start);
+    endMinute = Math.max(endMinute, end);
+  }
+
+  /**
+   * Completes the change collected so far, if it touched anything. The change is
+   * numbered and cleared before any listener sees it, so a listener that fails
+   * does not leave it half published. A listener that throws is reported to the
+   * thread's uncaught exception handler, and the other listeners are still called.
+   */
+  private void publish() {
+    if (firstMinute > endMinute) {
+      return;
+    }
+    CalendarChange change = new CalendarChange(version + 1, new ArrayList<>(events),
+        LocalDate.ofEpochDay(Math.floorDiv(firstMinute, Event.MINUTES_PER_DAY)),
+        LocalDate.ofEpochDay(Math.floorDiv(endMinute - 1, Event.MINUTES_PER_DAY)));
+    version++;
+    clear();
+    for (CalendarListener listener : listeners) {
+      try {
+        listener.calendarChanged(change);
+      } catch (RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    }
+  }
+
+  private void clear() {
+    events.clear();
+    eventVersions.clear();
+    seriesVersions.clear();
+    firstMinute = Long.MAX_VALUE;
+    endMinute = Long.MIN_VALUE;
+  }
+}
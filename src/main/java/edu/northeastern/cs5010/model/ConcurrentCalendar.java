@@ -0,0 +1,418 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Calendar} that many threads can read and write at once.
+ *
+ * <p>Writers take turns: every change, including edits made through an
+ * {@link Event}'s setters, runs while holding one writer lock, so duplicate and
+ * conflict checks see every earlier change and no two writers can both claim the
+ * same time. A single lock rather than locks striped by date is deliberate:
+ * conflict checks, multi-day events and recurring series reach arbitrarily far
+ * across dates, and striping would need every writer to take all the stripes its
+ * change might touch.
+ *
+ * <p>Readers take no lock. The event indexes are persistent trees that are never
+ * changed in place, so a query walks a consistent tree while a writer builds the
+ * next one. Each query runs as an optimistic read of a {@link StampedLock} that
+ * writers hold for the length of each change, and is simply run again if a write
+ * overlapped it. After several overlapped attempts in a row a query waits
+ * for a read lock instead, so a stream of writes cannot starve it. Opening a
+ * stream such as {@link #streamAllEvents()} takes its stamp the same way. Exports
+ * hold the read lock for their whole run, since a half-written file cannot be
+ * retried.
+ *
+ * <p>Changing the visibility, description or location of an event also takes the
+ * writer lock, since the strings of every event are pooled in one shared table.
+ */
+public class ConcurrentCalendar extends Calendar {
+
+  private static final int OPTIMISTIC_ATTEMPTS = 8;
+
+  private final ReentrantLock writer = new ReentrantLock();
+  private final StampedLock lock = new StampedLock();
+
+  /**
+   * Creates a public calendar that allows conflicting events.
+   *
+   * @param title the title of the calendar
+   * @throws IllegalArgumentException if the title is null or empty
+   */
+  public ConcurrentCalendar(String title) {
+    super(title);
+  }
+
+  /**
+   * Creates a calendar.
+   *
+   * @param title the title of the calendar
+   * @param defaultVisibility the visibility of events created without one
+   * @param allowsConflicts whether events may overlap
+   * @throws IllegalArgumentException if the title or visibility is null or empty
+   */
+  public ConcurrentCalendar(String title, String defaultVisibility, boolean allowsConflicts) {
+    super(title, defaultVisibility, allowsConflicts);
+  }
+
+  /**
+   * Creates a calendar in the given zone.
+   *
+   * @param title the title of the calendar
+   * @param defaultVisibility the visibility of events created without one
+   * @param allowsConflicts whether events may overlap
+   * @param zone the zone of the calendar
+   * @throws IllegalArgumentException if the title or visibility is null or empty,
+   *     or the zone is null
+   */
+  public ConcurrentCalendar(String title, String defaultVisibility, boolean allowsConflicts,
+      ZoneId zone) {
+    super(title, defaultVisibility, allowsConflicts, zone);
+  }
+
+  @Override
+  public int getEventCount() {
+    return read(super::getEventCount);
+  }
+
+  @Override
+  public CalendarMetrics getMetrics() {
+    return read(super::getMetrics);
+  }
+
+  @Override
+  public Event createEvent(String subject, LocalDate startDate, LocalDate endDate,
+      LocalTime startTime, LocalTime endTime, String visibility, String description,
+      String location) {
+    return write(() -> super.createEvent(subject, startDate, endDate, startTime, endTime,
+        visibility, description, location));
+  }
+
+  @Override
+  public Event createEvent(String subject, ZonedDateTime start, ZonedDateTime end,
+      String visibility, String description, String location) {
+    return write(() -> super.createEvent(subject, start, end, visibility, description,
+        location));
+  }
+
+  @Override
+  public List<Event> createEvents(Collection<EventSpec> specs) {
+    return write(() -> super.createEvents(specs));
+  }
+
+  @Override
+  public List<Event> createRecurringEvent(String subject, LocalDate startDate,
+      LocalTime startTime, LocalTime endTime, Set<DayOfWeek> days, Integer occurrences,
+      LocalDate untilDate, String visibility, String description, String location) {
+    return write(() -> super.createRecurringEvent(subject, startDate, startTime, endTime,
+        days, occurrences, untilDate, visibility, description, location));
+  }
+
+  @Override
+  public Event getEvent(String subject, LocalDate date, LocalTime time) {
+    return read(() -> super.getEvent(subject, date, time));
+  }
+
+  @Override
+  public List<Event> getEventsInRange(LocalDate startDate, LocalDate endDate) {
+    return read(() -> super.getEventsInRange(startDate, endDate));
+  }
+
+  @Override
+  public List<Event> getEventsBetween(Instant from, Instant to) {
+    return read(() -> super.getEventsBetween(from, to));
+  }
+
+  @Override
+  public List<Event> getAllEvents() {
+    return read(super::getAllEvents);
+  }
+
+  @Override
+  public List<TimeSlot> findFreeSlots(LocalDate date, Duration duration) {
+    return read(() -> super.findFreeSlots(date, duration));
+  }
+
+  @Override
+  public void modifyAllRecurringEvents(String subject, LocalDate date, LocalTime time,
+      Consumer<Event> change) {
+    write(() -> {
+      super.modifyAllRecurringEvents(subject, date, time, change);
+      return null;
+    });
+  }
+
+  @Override
+  public void modifyRecurringEventsFrom(String subject, LocalDate date, LocalTime time,
+      Consumer<Event> change) {
+    write(() -> {
+      super.modifyRecurringEventsFrom(subject, date, time, change);
+      return null;
+    });
+  }
+
+  @Override
+  public void exportToCSV(WritableByteChannel channel) throws IOException {
+    export(() -> super.exportToCSV(channel));
+  }
+
+  @Override
+  public void exportChangesSince(long version, WritableByteChannel channel)
+      throws IOException {
+    export(() -> super.exportChangesSince(version, channel));
+  }
+
+  @Override
+  CsvImportResult importRows(CsvEventReader.Result read) {
+    return write(() -> super.importRows(read));
+  }
+
+  @Override
+  void rename(Event event, String subject) {
+    write(() -> {
+      super.rename(event, subject);
+      return null;
+    });
+  }
+
+  @Override
+  Event materialize(Event view) {
+    return write(() -> super.materialize(view));
+  }
+
+  @Override
+  void editOccurrence(Event view, Consumer<Event> edit) {
+    write(() -> {
+      super.editOccurrence(view, edit);
+      return null;
+    });
+  }
+
+  @Override
+  void reschedule(Event event, LocalDate startDate, LocalTime startTime,
+      LocalDate endDate, LocalTime endTime) {
+    write(() -> {
+      super.reschedule(event, startDate, startTime, endDate, endTime);
+      return null;
+    });
+  }
+
+  @Override
+  void describe(Event event, String visibility, String description, String location) {
+    write(() -> {
+      super.describe(event, visibility, description, location);
+      return null;
+    });
+  }
+
+  @Override
+  boolean anyEventBetween(long fromSecond, long toSecond) {
+    return read(() -> super.anyEventBetween(fromSecond, toSecond));
+  }
+
+  @Override
+  void runExclusively(Runnable action) {
+    write(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Builds a missing bitmap under an optimistic stamp, and caches and returns it
+   * only if no write has started since, so a bitmap missing a newer event or torn
+   * by a half-made change is never used. Holding the read lock while caching keeps
+   * a writer from starting in between. A build that writes keep overlapping is run
+   * again, and after several attempts in a row is run under the read lock, as
+   * {@link #read} does.
+   */
+  @Override
+  long[] busyBits(long day) {
+    long[] bits = cachedBusyBits(day);
+    if (bits != null) {
+      return bits;
+    }
+    if (writer.isHeldByCurrentThread()) {
+      return buildBusyBits(day);
+    }
+    for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp == 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      try {
+        bits = buildBusyBits(day);
+      } catch (RuntimeException e) {
+        if (lock.validate(stamp)) {
+          throw e;
+        }
+        continue;
+      }
+      long readStamp = lock.tryConvertToReadLock(stamp);
+      if (readStamp != 0) {
+        try {
+          cacheBusyBits(bits);
+        } finally {
+          lock.unlockRead(readStamp);
+        }
+        return bits;
+      }
+    }
+    long stamp = lock.readLock();
+    try {
+      bits = buildBusyBits(day);
+      cacheBusyBits(bits);
+      return bits;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Takes an optimistic read stamp, so a stream fails as soon as a write overlaps
+   * it. Events are handles onto shared columns and series are edited in place, so a
+   * stream cannot keep reading the indexes it started from once a write begins. Like
+   * a query, it tries several times without a lock while a write is running, and
+   * only then waits for the read lock. A stream opened during a change, by the
+   * thread making it, must be consumed before the change ends.
+   */
+  @Override
+  long modificationStamp() {
+    if (writer.isHeldByCurrentThread()) {
+      return super.modificationStamp();
+    }
+    for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0) {
+        return stamp;
+      }
+      Thread.onSpinWait();
+    }
+    return lock.tryConvertToOptimisticRead(lock.readLock());
+  }
+
+  @Override
+  boolean unmodifiedSince(long stamp) {
+    if (writer.isHeldByCurrentThread()) {
+      return super.unmodifiedSince(stamp);
+    }
+    return lock.validate(stamp);
+  }
+
+  /**
+   * Reads a cached bitmap under an optimistic stamp, without the lambda that
+   * {@link #read} takes, so a check of a cached day allocates nothing. A day not
+   * yet cached, or a read that a write overlapped, goes through {@link #read}.
+   */
+  @Override
+  boolean busyAt(long day, int minute) {
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      long[] bits = cachedBusyBits(day);
+      if (bits != null) {
+        boolean busy = BusyBitmap.isSet(bits, minute);
+        if (lock.validate(stamp)) {
+          return busy;
+        }
+      }
+    }
+    return read(() -> super.busyAt(day, minute));
+  }
+
+  /**
+   * Runs a query as an optimistic read, running it again if a write overlapped it.
+   * A query that fails while a write overlaps it may have seen a half-made change,
+   * so the failure is ignored and the query retried.
+   *
+   * <p>A query must not start another overridden query, because the read lock it
+   * may fall back to is not reentrant. {@link #getEventsOnDate} is left to the
+   * {@link #getEventsInRange} it calls for that reason.
+   */
+  private <T> T read(Supplier<T> query) {
+    if (writer.isHeldByCurrentThread()) {
+      return query.get();
+    }
+    for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp == 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      try {
+        T result = query.get();
+        if (lock.validate(stamp)) {
+          return result;
+        }
+      } catch (RuntimeException e) {
+        if (lock.validate(stamp)) {
+          throw e;
+        }
+      }
+    }
+    long stamp = lock.readLock();
+    try {
+      return query.get();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Runs an export while holding the read lock, since a half-written file cannot be
+   * retried.
+   */
+  private void export(Export export) throws IOException {
+    if (writer.isHeldByCurrentThread()) {
+      export.run();
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      export.run();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Runs a change while holding the writer lock. Changes made by a change, such as
+   * the edits a series change applies to each occurrence, run under the same hold.
+   */
+  private <T> T write(Supplier<T> change) {
+    writer.lock();
+    try {
+      if (writer.getHoldCount() > 1) {
+        return change.get();
+      }
+      long stamp = lock.writeLock();
+      try {
+        return change.get();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    } finally {
+      writer.unlock();
+    }
+  }
+
+  private interface Export {
+
+    void run() throws IOException;
+  }
+}
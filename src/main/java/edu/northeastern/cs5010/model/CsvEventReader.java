@@ -0,0 +1,413 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the Google Calendar CSV format written by {@link CsvEventWriter}.
+ *
+ * <p>The file is memory-mapped and read in two passes. The first pass runs over the
+ * raw bytes once, tracking only whether it is inside a quoted field, and cuts the
+ * file into chunks at record boundaries, so a quoted field containing line breaks
+ * never straddles two chunks. The second pass parses the chunks in parallel on the
+ * common fork-join pool. Records that cannot be parsed are reported rather than
+ * stopping the read.
+ */
+final class CsvEventReader {
+
+  static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+  private static final DateTimeFormatter DATE =
+      DateTimeFormatter.ofPattern("M/d/uuuu", Locale.US);
+  private static final DateTimeFormatter TIME_12_HOUR = new DateTimeFormatterBuilder()
+      .parseCaseInsensitive().appendPattern("h:mm a").toFormatter(Locale.US);
+  private static final DateTimeFormatter TIME_24_HOUR =
+      DateTimeFormatter.ofPattern("H:mm", Locale.US);
+
+  private CsvEventReader() {
+  }
+
+  /**
+   * Reads every record of a CSV file.
+   *
+   * @param path the file to read
+   * @param chunkSize the approximate number of bytes each parallel task parses
+   * @return the parsed records and the records that could not be parsed
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file has no header naming at least the
+   *     Subject and Start Date columns
+   */
+  static Result read(Path path, int chunkSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("CSV files larger than 2 GiB are not supported");
+      }
+      MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int limit = (int) size;
+      int start = hasByteOrderMark(data, limit) ? 3 : 0;
+      int headerEnd = endOfRecord(data, start, limit);
+      if (headerEnd == start) {
+        throw new IllegalArgumentException("CSV file has no header");
+      }
+      Columns columns = new Columns(parseFields(data, start, trimLineEnd(data, start, headerEnd),
+          new FieldBuffer()));
+
+      List<Result> parsed = split(data, headerEnd, limit, chunkSize).parallelStream()
+          .map(chunk -> chunk.parse(data, columns))
+          .collect(Collectors.toList());
+      Result result = new Result();
+      for (Result part : parsed) {
+        result.rows.addAll(part.rows);
+        result.errors.addAll(part.errors);
+      }
+      return result;
+    }
+  }
+
+  private static boolean hasByteOrderMark(MappedByteBuffer data, int limit) {
+    return limit >= 3 && data.get(0) == (byte) 0xEF && data.get(1) == (byte) 0xBB
+        && data.get(2) == (byte) 0xBF;
+  }
+
+  /**
+   * Returns the position just after the line break that ends the record starting at
+   * {@code from}, or {@code limit} if the record runs to the end of the file.
+   */
+  private static int endOfRecord(MappedByteBuffer data, int from, int limit) {
+    boolean quoted = false;
+    for (int i = from; i < limit; i++) {
+      byte b = data.get(i);
+      if (b == '"') {
+        quoted = !quoted;
+      } else if (b == '\n' && !quoted) {
+        return i + 1;
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * Cuts the records from {@code from} onwards into chunks of about
+   * {@code chunkSize} bytes, each starting and ending on a record boundary.
+   */
+  private static List<Chunk> split(MappedByteBuffer data, int from, int limit,
+      int chunkSize) {
+    List<Chunk> chunks = new ArrayList<>();
+    boolean quoted = false;
+    long record = 2;
+    int chunkStart = from;
+    long chunkRecord = record;
+    for (int i = from; i < limit; i++) {
+      byte b = data.get(i);
+      if (b == '"') {
+        quoted = !quoted;
+      } else if (b == '\n' && !quoted) {
+        record++;
+        if (i + 1 - chunkStart >= chunkSize) {
+          chunks.add(new Chunk(chunkStart, i + 1, chunkRecord));
+          chunkStart = i + 1;
+          chunkRecord = record;
+        }
+      }
+    }
+    if (chunkStart < limit) {
+      chunks.add(new Chunk(chunkStart, limit, chunkRecord));
+    }
+    return chunks;
+  }
+
+  /**
+   * Returns the end of a record without its trailing line break.
+   */
+  private static int trimLineEnd(MappedByteBuffer data, int start, int end) {
+    if (end > start && data.get(end - 1) == '\n') {
+      end--;
+    }
+    if (end > start && data.get(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Splits one record into its fields, removing quotes and un-doubling quotes
+   * inside quoted fields.
+   */
+  private static List<String> parseFields(MappedByteBuffer data, int start, int end,
+      FieldBuffer field) {
+    List<String> fields = new ArrayList<>();
+    int i = start;
+    while (true) {
+      field.clear();
+      if (i < end && data.get(i) == '"') {
+        i++;
+        while (i < end) {
+          byte b = data.get(i++);
+          if (b != '"') {
+            field.append(b);
+          } else if (i < end && data.get(i) == '"') {
+            field.append(b);
+            i++;
+          } else {
+            break;
+          }
+        }
+        while (i < end && data.get(i) != ',') {
+          i++;
+        }
+      } else {
+        int fieldStart = i;
+        while (i < end && data.get(i) != ',') {
+          i++;
+        }
+        field.append(data, fieldStart, i);
+      }
+      fields.add(field.toString());
+      if (i >= end) {
+        return fields;
+      }
+      i++;
+      if (i == end) {
+        fields.add("");
+        return fields;
+      }
+    }
+  }
+
+  private static LocalDate parseDate(String value, String column) {
+    try {
+      return LocalDate.parse(value, DATE);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+    }
+  }
+
+  private static LocalTime parseTime(String value, String column) {
+    try {
+      return LocalTime.parse(value, TIME_12_HOUR);
+    } catch (DateTimeParseException e) {
+      try {
+        return LocalTime.parse(value, TIME_24_HOUR);
+      } catch (DateTimeParseException again) {
+        throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+      }
+    }
+  }
+
+  /**
+   * The records read from a file, or from one chunk of it.
+   */
+  static final class Result {
+
+    private final List<Row> rows = new ArrayList<>();
+    private final List<CsvImportResult.RowError> errors = new ArrayList<>();
+
+    List<Row> getRows() {
+      return rows;
+    }
+
+    List<CsvImportResult.RowError> getErrors() {
+      return errors;
+    }
+  }
+
+  /**
+   * One parsed record. Its fields have been read but not yet checked against the
+   * rules of a calendar.
+   */
+  static final class Row {
+
+    private final long record;
+    private final EventSpec spec;
+
+    private Row(long record, EventSpec spec) {
+      this.record = record;
+      this.spec = spec;
+    }
+
+    long getRecord() {
+      return record;
+    }
+
+    /**
+     * Returns the event the record describes. Its visibility is null if the Private
+     * column was empty.
+     */
+    EventSpec getSpec() {
+      return spec;
+    }
+  }
+
+  /**
+   * The positions of the known columns in the header, or -1 for missing columns.
+   */
+  private static final class Columns {
+
+    private final int subject;
+    private final int startDate;
+    private final int startTime;
+    private final int endDate;
+    private final int endTime;
+    private final int allDay;
+    private final int description;
+    private final int location;
+    private final int isPrivate;
+
+    private Columns(List<String> header) {
+      subject = indexOf(header, "Subject");
+      startDate = indexOf(header, "Start Date");
+      startTime = indexOf(header, "Start Time");
+      endDate = indexOf(header, "End Date");
+      endTime = indexOf(header, "End Time");
+      allDay = indexOf(header, "All Day Event");
+      description = indexOf(header, "Description");
+      location = indexOf(header, "Location");
+      isPrivate = indexOf(header, "Private");
+      if (subject < 0 || startDate < 0) {
+        throw new IllegalArgumentException(
+            "CSV header must name at least the Subject and Start Date columns");
+      }
+    }
+
+    private static int indexOf(List<String> header, String column) {
+      for (int i = 0; i < header.size(); i++) {
+        if (header.get(i).trim().equalsIgnoreCase(column)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Returns the trimmed value of a column, or an empty string if the record does
+     * not have it.
+     */
+    private static String get(List<String> fields, int column) {
+      return column < 0 || column >= fields.size() ? "" : fields.get(column).trim();
+    }
+
+    private Row toRow(long record, List<String> fields) {
+      String subjectValue = get(fields, subject);
+      if (subjectValue.isEmpty()) {
+        throw new IllegalArgumentException("Subject is empty");
+      }
+      String startDateValue = get(fields, startDate);
+      if (startDateValue.isEmpty()) {
+        throw new IllegalArgumentException("Start Date is empty");
+      }
+      LocalDate start = parseDate(startDateValue, "Start Date");
+      String endDateValue = get(fields, endDate);
+      LocalDate end = endDateValue.isEmpty() ? start : parseDate(endDateValue, "End Date");
+
+      String startTimeValue = get(fields, startTime);
+      String endTimeValue = get(fields, endTime);
+      boolean allDayEvent = "True".equalsIgnoreCase(get(fields, allDay))
+          || (startTimeValue.isEmpty() && endTimeValue.isEmpty());
+      LocalTime from = null;
+      LocalTime to = null;
+      if (!allDayEvent) {
+        if (startTimeValue.isEmpty() || endTimeValue.isEmpty()) {
+          throw new IllegalArgumentException(
+              "Timed events need both a Start Time and an End Time");
+        }
+        from = parseTime(startTimeValue, "Start Time");
+        to = parseTime(endTimeValue, "End Time");
+      }
+
+      String privateValue = get(fields, isPrivate);
+      String visibility = privateValue.isEmpty() ? null
+          : "True".equalsIgnoreCase(privateValue) ? "Private" : "Public";
+      String descriptionValue = get(fields, description);
+      String locationValue = get(fields, location);
+      return new Row(record, new EventSpec(subjectValue, start, end, from, to, visibility,
+          descriptionValue.isEmpty() ? null : descriptionValue,
+          locationValue.isEmpty() ? null : locationValue));
+    }
+  }
+
+  /**
+   * A run of whole records, parsed as one parallel task.
+   */
+  private static final class Chunk {
+
+    private final int start;
+    private final int end;
+    private final long firstRecord;
+
+    private Chunk(int start, int end, long firstRecord) {
+      this.start = start;
+      this.end = end;
+      this.firstRecord = firstRecord;
+    }
+
+    private Result parse(MappedByteBuffer data, Columns columns) {
+      Result result = new Result();
+      FieldBuffer field = new FieldBuffer();
+      long record = firstRecord;
+      for (int from = start; from < end; record++) {
+        int next = endOfRecord(data, from, end);
+        int recordEnd = trimLineEnd(data, from, next);
+        if (recordEnd > from) {
+          try {
+            result.rows.add(columns.toRow(record, parseFields(data, from, recordEnd, field)));
+          } catch (IllegalArgumentException e) {
+            result.errors.add(new CsvImportResult.RowError(record, e.getMessage()));
+          }
+        }
+        from = next;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A growable byte array a field is decoded from, reused for every field of a
+   * chunk.
+   */
+  private static final class FieldBuffer {
+
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    private void clear() {
+      length = 0;
+    }
+
+    private void append(byte b) {
+      ensureCapacity(length + 1);
+      bytes[length++] = b;
+    }
+
+    private void append(MappedByteBuffer data, int from, int to) {
+      ensureCapacity(length + to - from);
+      data.get(from, bytes, length, to - from);
+      length += to - from;
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+      }
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
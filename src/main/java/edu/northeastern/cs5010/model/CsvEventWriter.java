@@ -0,0 +1,215 @@
+package edu.northeastern.cs5010.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Writes events as rows of a Google Calendar CSV file straight into a channel.
+ *
+ * <p>Rows are UTF-8 encoded field by field into one reusable buffer, which is
+ * handed to the channel whenever it fills up. Dates, times and escaped text are
+ * encoded character by character, so writing a row allocates nothing and the
+ * memory an export needs does not depend on how many events it writes.
+ */
+final class CsvEventWriter {
+
+  static final String HEADER = "Subject,Start Date,Start Time,End Date,End Time,"
+      + "All Day Event,Description,Location,Private";
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+  private static final String PRIVATE_VISIBILITY = "Private";
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+
+  CsvEventWriter(WritableByteChannel channel) {
+    this(channel, DEFAULT_BUFFER_SIZE);
+  }
+
+  CsvEventWriter(WritableByteChannel channel, int bufferSize) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  void writeHeader() throws IOException {
+    writeText(HEADER);
+    endRow();
+  }
+
+  void writeRow(Event event) throws IOException {
+    LocalTime startTime = event.getStartTime();
+    LocalTime endTime = event.getEndTime();
+    boolean allDay = startTime == null;
+    writeField(event.getSubject());
+    writeByte(',');
+    writeDate(event.getStartDate());
+    writeByte(',');
+    if (!allDay) {
+      writeTime(startTime);
+    }
+    writeByte(',');
+    writeDate(event.getEndDate());
+    writeByte(',');
+    if (!allDay) {
+      writeTime(endTime);
+    }
+    writeByte(',');
+    writeText(allDay ? "True" : "False");
+    writeByte(',');
+    writeField(event.getDescription());
+    writeByte(',');
+    writeField(event.getLocation());
+    writeByte(',');
+    writeText(PRIVATE_VISIBILITY.equalsIgnoreCase(event.getVisibility()) ? "True" : "False");
+    endRow();
+  }
+
+  /**
+   * Hands everything buffered so far to the channel.
+   */
+  void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private void endRow() throws IOException {
+    writeByte('\r');
+    writeByte('\n');
+  }
+
+  /**
+   * Writes a text field, quoting it and doubling its quotes if it contains a comma,
+   * a quote or a line break.
+   */
+  private void writeField(String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    if (!needsQuotes(value)) {
+      writeText(value);
+      return;
+    }
+    writeByte('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        writeByte('"');
+      }
+      i = writeChar(value, i);
+    }
+    writeByte('"');
+  }
+
+  private static boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeText(String value) throws IOException {
+    for (int i = 0; i < value.length(); i++) {
+      i = writeChar(value, i);
+    }
+  }
+
+  /**
+   * Writes the character at {@code i} as UTF-8, together with the next one if they
+   * form a surrogate pair.
+   *
+   * @return the index of the last character written
+   */
+  private int writeChar(String value, int i) throws IOException {
+    char c = value.charAt(i);
+    if (buffer.remaining() < 4) {
+      flush();
+    }
+    if (c < 0x80) {
+      buffer.put((byte) c);
+    } else if (c < 0x800) {
+      buffer.put((byte) (0xC0 | (c >> 6)));
+      buffer.put((byte) (0x80 | (c & 0x3F)));
+    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+        && Character.isLowSurrogate(value.charAt(i + 1))) {
+      int codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+      buffer.put((byte) (0xF0 | (codePoint >> 18)));
+      buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+      buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+      buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+      return i + 1;
+    } else if (Character.isSurrogate(c)) {
+      buffer.put((byte) '?');
+    } else {
+      buffer.put((byte) (0xE0 | (c >> 12)));
+      buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+      buffer.put((byte) (0x80 | (c & 0x3F)));
+    }
+    return i;
+  }
+
+  /**
+   * Writes a date as {@code MM/dd/yyyy}.
+   */
+  private void writeDate(LocalDate date) throws IOException {
+    writeDigits(date.getMonthValue(), 2);
+    writeByte('/');
+    writeDigits(date.getDayOfMonth(), 2);
+    writeByte('/');
+    int year = date.getYear();
+    if (year < 0) {
+      writeByte('-');
+      year = -year;
+    }
+    writeDigits(year, 4);
+  }
+
+  /**
+   * Writes a time as {@code hh:mm AM} or {@code hh:mm PM}.
+   */
+  private void writeTime(LocalTime time) throws IOException {
+    int hour = time.getHour() % 12;
+    writeDigits(hour == 0 ? 12 : hour, 2);
+    writeByte(':');
+    writeDigits(time.getMinute(), 2);
+    writeByte(' ');
+    writeByte(time.getHour() < 12 ? 'A' : 'P');
+    writeByte('M');
+  }
+
+  /**
+   * Writes a non-negative number, padded with zeros to at least {@code width}
+   * digits.
+   */
+  private void writeDigits(int value, int width) throws IOException {
+    int digits = 1;
+    for (int rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (int i = digits; i < width; i++) {
+      writeByte('0');
+    }
+    int divisor = 1;
+    for (int i = 1; i < digits; i++) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      writeByte('0' + value / divisor % 10);
+    }
+  }
+
+  private void writeByte(int value) throws IOException {
+    if (!buffer.hasRemaining()) {
+      flush();
+    }
+    buffer.put((byte) value);
+  }
+}
@@ -0,0 +1,74 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link Calendar#importFromCSV}: how many events were imported and
+ * which records were skipped, and why.
+ */
+public final class CsvImportResult {
+
+  private final int importedCount;
+  private final List<RowError> errors;
+
+  CsvImportResult(int importedCount, List<RowError> errors) {
+    this.importedCount = importedCount;
+    this.errors = Collections.unmodifiableList(errors);
+  }
+
+  public int getImportedCount() {
+    return importedCount;
+  }
+
+  /**
+   * Returns the records that were not imported, in file order.
+   *
+   * @return the rejected records
+   */
+  public List<RowError> getErrors() {
+    return errors;
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "Imported " + importedCount + " events, rejected " + errors.size() + " records";
+  }
+
+  /**
+   * A record that could not be imported.
+   */
+  public static final class RowError {
+
+    private final long record;
+    private final String message;
+
+    RowError(long record, String message) {
+      this.record = record;
+      this.message = message;
+    }
+
+    /**
+     * Returns the position of the record in the file, where the header is record 1.
+     * A record can span several lines if a quoted field contains line breaks.
+     *
+     * @return the record number
+     */
+    public long getRecord() {
+      return record;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return "Record " + record + ": " + message;
+    }
+  }
+}
@@ -0,0 +1,579 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.function.Consumer;
+
+/**
+ * A single event in a {@link Calendar}.
+ *
+ * <p>An event either has both a start and an end time, or neither, in which case
+ * it is an all-day event covering every day from its start date to its end date.
+ * Events are created through their calendar, and every change that could break
+ * one of the calendar's rules (duplicate events, conflicts, end before start) is
+ * validated by the calendar before it is applied.
+ *
+ * <p>An occurrence of a recurring event starts out as a view: it holds only its
+ * {@link Series} and date and reads everything else from the series rule. The
+ * first time such an occurrence is edited on its own it is materialized, taking a
+ * copy of the rule's fields, and from then on every view of that date reads from
+ * the materialized event.
+ *
+ * <p>A concrete event is itself only a handle: its fields live in the calendar's
+ * {@link EventStore}, which packs them into primitive columns. Times are therefore
+ * kept to the minute.
+ *
+ * <p>Dates and times are wall-clock times in the calendar's
+ * {@linkplain Calendar#getZone() zone}. The instants they stand for are worked out
+ * with that zone's rules on the event's own date, so an occurrence of a series at
+ * 9:00 stays at 9:00 local time on both sides of a daylight saving change while
+ * its instant moves by the hour. A wall-clock time that falls in the gap of such a
+ * change is moved later by the length of the gap, and one that falls in an
+ * overlap takes the earlier of its two instants.
+ */
+public class Event {
+
+  static final int MINUTES_PER_DAY = 24 * 60;
+
+  /**
+   * The earliest and latest dates an event may fall on. Dates are stored as epoch
+   * days in ints, and the smallest int is kept to mark a missing date.
+   */
+  static final LocalDate MIN_DATE = LocalDate.ofEpochDay(Integer.MIN_VALUE + 1);
+  static final LocalDate MAX_DATE = LocalDate.ofEpochDay(Integer.MAX_VALUE);
+
+  /**
+   * The slot of a view, which holds no fields of its own.
+   */
+  private static final int VIEW = -1;
+
+  private final EventStore store;
+  private final LocalDate occurrenceDate;
+  private Series series;
+  private int slot;
+
+  /**
+   * Creates a concrete event, storing its fields in the given store. Occurrences of
+   * a series also record the date the series rule gave them.
+   */
+  Event(EventStore store, Series series, LocalDate occurrenceDate, String subject,
+      LocalDate startDate, LocalDate endDate, LocalTime startTime, LocalTime endTime,
+      String visibility, String description, String location) {
+    requireSubject(subject);
+    requireValidTimes(startDate, endDate, startTime, endTime);
+    this.store = store;
+    this.series = series;
+    this.occurrenceDate = occurrenceDate;
+    this.slot = store.allocate(subject, startDate, endDate, startTime, endTime, visibility,
+        description, location);
+  }
+
+  /**
+   * Creates a handle onto an event whose fields are already in the given slot.
+   */
+  Event(EventStore store, int slot, Series series, LocalDate occurrenceDate) {
+    this.store = store;
+    this.slot = slot;
+    this.series = series;
+    this.occurrenceDate = occurrenceDate;
+  }
+
+  /**
+   * Creates a view of the occurrence of a series on the given date.
+   */
+  Event(Calendar calendar, Series series, LocalDate occurrenceDate) {
+    this.store = calendar.getStore();
+    this.series = series;
+    this.occurrenceDate = occurrenceDate;
+    this.slot = VIEW;
+  }
+
+  public String getSubject() {
+    Event state = state();
+    return state != null ? state.store.getSubject(state.slot) : rule().getSubject();
+  }
+
+  public LocalDate getStartDate() {
+    Event state = state();
+    return state != null ? state.store.getStartDate(state.slot) : occurrenceDate;
+  }
+
+  public LocalDate getEndDate() {
+    Event state = state();
+    return state != null ? state.store.getEndDate(state.slot) : occurrenceDate;
+  }
+
+  /**
+   * Returns the start time of the event.
+   *
+   * @return the start time, or null for an all-day event
+   */
+  public LocalTime getStartTime() {
+    Event state = state();
+    return state != null ? state.store.getStartTime(state.slot) : rule().getStartTime();
+  }
+
+  /**
+   * Returns the end time of the event.
+   *
+   * @return the end time, or null for an all-day event
+   */
+  public LocalTime getEndTime() {
+    Event state = state();
+    return state != null ? state.store.getEndTime(state.slot) : rule().getEndTime();
+  }
+
+  public String getVisibility() {
+    Event state = state();
+    return state != null ? state.store.getVisibility(state.slot) : rule().getVisibility();
+  }
+
+  public String getDescription() {
+    Event state = state();
+    return state != null ? state.store.getDescription(state.slot) : rule().getDescription();
+  }
+
+  public String getLocation() {
+    Event state = state();
+    return state != null ? state.store.getLocation(state.slot) : rule().getLocation();
+  }
+
+  public boolean isAllDayEvent() {
+    return getStartTime() == null;
+  }
+
+  public boolean isMultiDay() {
+    return getEndDate().isAfter(getStartDate());
+  }
+
+  public boolean isPartOfRecurringSeries() {
+    return series != null;
+  }
+
+  /**
+   * Returns the zone the event was created in, or the calendar's zone if it was
+   * created from wall-clock times.
+   *
+   * @return the zone
+   */
+  public ZoneId getZone() {
+    ZoneId zone = getOwnZone();
+    return zone != null ? zone : store.getWallClockZone();
+  }
+
+  /**
+   * Returns the instant the event starts. An all-day event starts at the start of
+   * its first day in the calendar's zone.
+   *
+   * @return the start instant
+   */
+  public Instant getStartInstant() {
+    return Instant.ofEpochSecond(getStartSecond());
+  }
+
+  /**
+   * Returns the instant the event ends. An all-day event ends at the start of the
+   * day after its last day in the calendar's zone.
+   *
+   * @return the end instant
+   */
+  public Instant getEndInstant() {
+    return Instant.ofEpochSecond(getEndSecond());
+  }
+
+  /**
+   * Returns the subject of the recurring series this event belongs to. This stays
+   * the same if only this occurrence is renamed.
+   *
+   * @return the series subject, or null if the event is not part of a series
+   */
+  public String getSeriesSubject() {
+    return series == null ? null : getSeries().getSubject();
+  }
+
+  /**
+   * Renames the event.
+   *
+   * @param subject the new subject
+   * @throws IllegalArgumentException if the subject is blank, the rename would
+   *     duplicate another event, or another event with the new subject starts on
+   *     the same day
+   */
+  public void setSubject(String subject) {
+    requireSubject(subject);
+    edit(target -> {
+      if (target.store.isDetached()) {
+        target.applySubject(subject);
+      } else {
+        target.store.getCalendar().rename(target, subject);
+      }
+    });
+  }
+
+  /**
+   * Moves the event to a new start date, keeping its duration.
+   *
+   * @param startDate the new start date
+   * @throws IllegalArgumentException if the move breaks a calendar rule
+   */
+  public void setStartDate(LocalDate startDate) {
+    if (startDate == null) {
+      throw new IllegalArgumentException("Start date cannot be null");
+    }
+    edit(target -> {
+      long days = startDate.toEpochDay() - target.getStartDate().toEpochDay();
+      target.moveTo(startDate, target.getStartTime(), target.getEndDate().plusDays(days),
+          target.getEndTime());
+    });
+  }
+
+  /**
+   * Changes the end date of the event, keeping its start.
+   *
+   * @param endDate the new end date
+   * @throws IllegalArgumentException if the change breaks a calendar rule
+   */
+  public void setEndDate(LocalDate endDate) {
+    edit(target -> target.moveTo(target.getStartDate(), target.getStartTime(), endDate,
+        target.getEndTime()));
+  }
+
+  /**
+   * Moves the event to a new start time, keeping its duration.
+   *
+   * @param startTime the new start time
+   * @throws IllegalArgumentException if the event is all-day or the move breaks a
+   *     calendar rule
+   */
+  public void setStartTime(LocalTime startTime) {
+    requireTimed(startTime);
+    edit(target -> {
+      LocalDate startDate = target.getStartDate();
+      LocalDateTime start = LocalDateTime.of(startDate, startTime);
+      LocalDateTime end = start.plus(Duration.between(
+          LocalDateTime.of(startDate, target.getStartTime()),
+          LocalDateTime.of(target.getEndDate(), target.getEndTime())));
+      target.moveTo(startDate, startTime, end.toLocalDate(), end.toLocalTime());
+    });
+  }
+
+  /**
+   * Changes the end time of the event, keeping its start.
+   *
+   * @param endTime the new end time
+   * @throws IllegalArgumentException if the event is all-day or the change breaks
+   *     a calendar rule, such as ending before it starts
+   */
+  public void setEndTime(LocalTime endTime) {
+    requireTimed(endTime);
+    edit(target -> target.moveTo(target.getStartDate(), target.getStartTime(),
+        target.getEndDate(), endTime));
+  }
+
+  /**
+   * Changes the visibility of the event.
+   *
+   * @param visibility the new visibility, or null for the calendar default
+   */
+  public void setVisibility(String visibility) {
+    String value = visibility == null ? store.getCalendar().getDefaultVisibility()
+        : visibility;
+    edit(target -> target.describe(value, target.getDescription(), target.getLocation()));
+  }
+
+  public void setDescription(String description) {
+    edit(target -> target.describe(target.getVisibility(), description,
+        target.getLocation()));
+  }
+
+  public void setLocation(String location) {
+    edit(target -> target.describe(target.getVisibility(), target.getDescription(),
+        location));
+  }
+
+  @Override
+  public String toString() {
+    LocalTime start = getStartTime();
+    LocalTime end = getEndTime();
+    return getSubject() + " [" + getStartDate() + (start == null ? "" : " " + start)
+        + " - " + getEndDate() + (end == null ? "" : " " + end) + "]";
+  }
+
+  long getId() {
+    return slot;
+  }
+
+  /**
+   * Returns the part of the series that owns this occurrence.
+   *
+   * @return the series, or null if the event is not part of a series
+   */
+  Series getSeries() {
+    return series == null || slot != VIEW ? series : series.resolve(occurrenceDate);
+  }
+
+  /**
+   * Returns the date the series rule gives this occurrence, which does not change
+   * when the occurrence is moved.
+   */
+  LocalDate getOccurrenceDate() {
+    return occurrenceDate;
+  }
+
+  /**
+   * Returns whether this event holds its own fields rather than reading them from
+   * a series rule.
+   */
+  boolean isConcrete() {
+    return slot != VIEW;
+  }
+
+  /**
+   * Returns the first minute covered by the event, counted from the epoch.
+   */
+  long getStartMinute() {
+    Event state = state();
+    return state != null ? state.store.getStartMinute(state.slot)
+        : startMinute(occurrenceDate, rule().getStartTime());
+  }
+
+  /**
+   * Returns the first minute after the event, counted from the epoch.
+   */
+  long getEndMinute() {
+    Event state = state();
+    return state != null ? state.store.getEndMinute(state.slot)
+        : endMinute(occurrenceDate, rule().getEndTime());
+  }
+
+  /**
+   * Returns the zone the event was created in, if it has one of its own.
+   *
+   * @return the zone, or null if the event was created from wall-clock times
+   */
+  ZoneId getOwnZone() {
+    Event state = state();
+    return state != null ? state.store.getZone(state.slot) : null;
+  }
+
+  /**
+   * Returns the instant the event starts, in UTC epoch seconds.
+   */
+  long getStartSecond() {
+    Event state = state();
+    return state != null ? state.store.getStartSecond(state.slot)
+        : epochSecond(getStartMinute(), store.getWallClockZone());
+  }
+
+  /**
+   * Returns the instant the event ends, in UTC epoch seconds.
+   */
+  long getEndSecond() {
+    Event state = state();
+    return state != null ? state.store.getEndSecond(state.slot)
+        : epochSecond(getEndMinute(), store.getWallClockZone());
+  }
+
+  /**
+   * Returns the calendar version of the change that last stored this event, or that
+   * last changed the rule of an unedited occurrence.
+   */
+  long getVersion() {
+    Event state = state();
+    return state != null ? state.store.getVersion(state.slot) : rule().getVersion();
+  }
+
+  void setVersion(long version) {
+    store.setVersion(slot, version);
+  }
+
+  /**
+   * Turns this view into a concrete event holding a copy of the rule's fields.
+   */
+  void materialize(Series owner) {
+    this.slot = store.allocate(owner.getSubject(), occurrenceDate, occurrenceDate,
+        owner.getStartTime(), owner.getEndTime(), owner.getVisibility(),
+        owner.getDescription(), owner.getLocation());
+    this.series = owner;
+  }
+
+  /**
+   * Frees the fields of a concrete event that was never added to its calendar.
+   */
+  void discard() {
+    store.free(slot);
+    slot = VIEW;
+  }
+
+  void moveToSeries(Series owner) {
+    this.series = owner;
+  }
+
+  void applySubject(String subject) {
+    store.setSubject(slot, subject);
+  }
+
+  void applyTimes(LocalDate startDate, LocalTime startTime, LocalDate endDate,
+      LocalTime endTime) {
+    store.setTimes(slot, startDate, startTime, endDate, endTime);
+  }
+
+  void applyDetails(String visibility, String description, String location) {
+    store.setDetails(slot, visibility, description, location);
+  }
+
+  void applyZone(ZoneId zone) {
+    store.setZone(slot, zone);
+  }
+
+  static long startMinute(LocalDate date, LocalTime time) {
+    return date.toEpochDay() * MINUTES_PER_DAY + (time == null ? 0 : minuteOfDay(time));
+  }
+
+  static long endMinute(LocalDate date, LocalTime time) {
+    return time == null
+        ? (date.toEpochDay() + 1) * MINUTES_PER_DAY
+        : date.toEpochDay() * MINUTES_PER_DAY + minuteOfDay(time);
+  }
+
+  static int minuteOfDay(LocalTime time) {
+    return time.getHour() * 60 + time.getMinute();
+  }
+
+  /**
+   * Returns the UTC epoch second of a wall-clock minute, counted from the epoch, in
+   * the given zone. Fixed offsets, such as the UTC of a calendar with no zone, take
+   * no lookup of zone rules.
+   */
+  static long epochSecond(long minute, ZoneId zone) {
+    if (zone instanceof ZoneOffset) {
+      return minute * 60 - ((ZoneOffset) zone).getTotalSeconds();
+    }
+    ZoneRules rules = zone.getRules();
+    LocalDateTime local = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    if (rules.isFixedOffset()) {
+      return local.toEpochSecond(rules.getOffset(local));
+    }
+    return local.atZone(zone).toEpochSecond();
+  }
+
+  /**
+   * Returns the wall-clock minute, counted from the epoch, that a UTC epoch second
+   * falls in, in the given zone.
+   */
+  static long localMinute(long epochSecond, ZoneId zone) {
+    int offset = zone instanceof ZoneOffset ? ((ZoneOffset) zone).getTotalSeconds()
+        : zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    return Math.floorDiv(epochSecond + offset, 60);
+  }
+
+  static void requireSubject(String subject) {
+    if (subject == null || subject.isBlank()) {
+      throw new IllegalArgumentException("Subject cannot be null or empty");
+    }
+  }
+
+  static void requireValidTimes(LocalDate startDate, LocalDate endDate,
+      LocalTime startTime, LocalTime endTime) {
+    if (startDate == null || endDate == null) {
+      throw new IllegalArgumentException("Start and end dates cannot be null");
+    }
+    if ((startTime == null) != (endTime == null)) {
+      throw new IllegalArgumentException(
+          "Start and end times must both be set, or both be null for an all-day event");
+    }
+    if (endDate.isBefore(startDate)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    requireSupportedDate(startDate);
+    requireSupportedDate(endDate);
+    if (startTime != null && endMinute(endDate, endTime) <= startMinute(startDate, startTime)) {
+      throw new IllegalArgumentException("End must be after start");
+    }
+  }
+
+  /**
+   * Checks that a date is from {@link #MIN_DATE} to {@link #MAX_DATE}.
+   */
+  static void requireSupportedDate(LocalDate date) {
+    if (date.isBefore(MIN_DATE) || date.isAfter(MAX_DATE)) {
+      throw new IllegalArgumentException(
+          "Dates must be from " + MIN_DATE + " to " + MAX_DATE + ": " + date);
+    }
+  }
+
+  /**
+   * Checks the rules every schedule must follow, including that an occurrence of a
+   * recurring event starts and ends on the same day.
+   */
+  static void requireValidSchedule(boolean recurring, LocalDate startDate,
+      LocalDate endDate, LocalTime startTime, LocalTime endTime) {
+    requireValidTimes(startDate, endDate, startTime, endTime);
+    if (recurring && !startDate.equals(endDate)) {
+      throw new IllegalArgumentException(
+          "Occurrences of a recurring event must start and end on the same day");
+    }
+  }
+
+  /**
+   * Returns the event that holds this event's fields: itself if it is concrete,
+   * the materialized occurrence if one exists, and null if the series rule does.
+   */
+  private Event state() {
+    if (slot != VIEW) {
+      return this;
+    }
+    return rule().getOverride(occurrenceDate);
+  }
+
+  private Series rule() {
+    return series.resolve(occurrenceDate);
+  }
+
+  /**
+   * Applies an edit to the event holding this event's fields, materializing this
+   * occurrence first if the series rule still describes it. A rejected edit leaves
+   * the occurrence to the rule.
+   */
+  private void edit(Consumer<Event> edit) {
+    Event state = state();
+    if (state != null) {
+      edit.accept(state);
+    } else {
+      store.getCalendar().editOccurrence(this, edit);
+    }
+  }
+
+  private void moveTo(LocalDate startDate, LocalTime startTime, LocalDate endDate,
+      LocalTime endTime) {
+    if (store.isDetached()) {
+      requireValidSchedule(series != null, startDate, endDate, startTime, endTime);
+      applyTimes(startDate, startTime, endDate, endTime);
+    } else {
+      store.getCalendar().reschedule(this, startDate, startTime, endDate, endTime);
+    }
+  }
+
+  private void describe(String visibility, String description, String location) {
+    if (store.isDetached()) {
+      applyDetails(visibility, description, location);
+    } else {
+      store.getCalendar().describe(this, visibility, description, location);
+    }
+  }
+
+  private void requireTimed(LocalTime time) {
+    if (time == null) {
+      throw new IllegalArgumentException("Time cannot be null");
+    }
+    if (isAllDayEvent()) {
+      throw new IllegalArgumentException("All-day events have no start or end time");
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package edu.northeastern.cs5010.model;
+
+/**
+ * A hash index of a calendar's stored events on their subject and start, the key
+ * {@link Calendar#getEvent} looks events up by and the duplicate rule is about.
+ *
+ * <p>The index is an open-addressing table of the events themselves, probed
+ * linearly and kept at most half full. The key is read from the
+ * {@link EventStore} rather than stored: the pooled id of the subject and the
+ * start minute. Since pooled strings have one id each, comparing keys compares two
+ * ints and a lookup allocates nothing. A subject that is not pooled belongs to no
+ * event, so looking it up ends before the table is probed.
+ *
+ * <p>An event must be removed before its subject or start changes and added again
+ * after. Several events may share a key while a failed series change is being
+ * undone, so the index is a multiset.
+ */
+final class EventKeyIndex {
+
+  private final EventStore store;
+  private Event[] table = new Event[16];
+  private int size;
+
+  EventKeyIndex(EventStore store) {
+    this.store = store;
+  }
+
+  void add(Event event) {
+    if (2 * (size + 1) > table.length) {
+      rehash(table.length * 2);
+    }
+    insert(table, event);
+    size++;
+  }
+
+  void remove(Event event) {
+    Event[] events = table;
+    int mask = events.length - 1;
+    int gap = home(event, mask);
+    while (events[gap] != event) {
+      if (events[gap] == null) {
+        return;
+      }
+      gap = (gap + 1) & mask;
+    }
+    for (int i = (gap + 1) & mask; events[i] != null; i = (i + 1) & mask) {
+      int home = home(events[i], mask);
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        events[gap] = events[i];
+        gap = i;
+      }
+    }
+    events[gap] = null;
+    size--;
+  }
+
+  /**
+   * Finds a stored event by subject and start.
+   *
+   * @param subject the subject
+   * @param start the start minute
+   * @param ignored an event to skip, typically the one being changed, or null
+   * @return the event, or null if there is none
+   */
+  Event find(String subject, long start, Event ignored) {
+    int subjectId = store.findSubjectId(subject);
+    if (subjectId == StringPool.NULL) {
+      return null;
+    }
+    Event[] events = table;
+    int mask = events.length - 1;
+    int i = hash(subjectId, start) & mask;
+    for (int probes = 0; probes < events.length && events[i] != null; probes++) {
+      Event event = events[i];
+      int slot = (int) event.getId();
+      if (event != ignored && store.getSubjectId(slot) == subjectId
+          && store.getStartMinute(slot) == start) {
+        return event;
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  private void rehash(int capacity) {
+    Event[] events = new Event[capacity];
+    for (Event event : table) {
+      if (event != null) {
+        insert(events, event);
+      }
+    }
+    table = events;
+  }
+
+  private void insert(Event[] events, Event event) {
+    int mask = events.length - 1;
+    int i = home(event, mask);
+    while (events[i] != null) {
+      i = (i + 1) & mask;
+    }
+    events[i] = event;
+  }
+
+  private int home(Event event, int mask) {
+    int slot = (int) event.getId();
+    return hash(store.getSubjectId(slot), store.getStartMinute(slot)) & mask;
+  }
+
+  private static int hash(int subjectId, long start) {
+    long h = (subjectId * 0x9E3779B97F4A7C15L + start) * 0xC2B2AE3D27D4EB4FL;
+    return (int) (h ^ (h >>> 32));
+  }
+}
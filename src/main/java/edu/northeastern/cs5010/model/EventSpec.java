@@ -0,0 +1,96 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The fields of an event that has not been added to a calendar yet, for creating
+ * many events at once with {@link Calendar#createEvents}. The fields are checked
+ * when the batch is created, not here.
+ */
+public final class EventSpec {
+
+  private final String subject;
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+  private final LocalTime startTime;
+  private final LocalTime endTime;
+  private final String visibility;
+  private final String description;
+  private final String location;
+
+  /**
+   * Describes an all-day event covering every day from the start date to the end
+   * date.
+   *
+   * @param subject the subject of the event
+   * @param startDate the first day of the event
+   * @param endDate the last day of the event
+   */
+  public EventSpec(String subject, LocalDate startDate, LocalDate endDate) {
+    this(subject, startDate, endDate, null, null, null, null, null);
+  }
+
+  /**
+   * Describes an event. Leaving both times null describes an all-day event.
+   *
+   * @param subject the subject of the event
+   * @param startDate the start date
+   * @param endDate the end date
+   * @param startTime the start time, or null for an all-day event
+   * @param endTime the end time, or null for an all-day event
+   * @param visibility the visibility, or null for the calendar default
+   * @param description the description, may be null
+   * @param location the location, may be null
+   */
+  public EventSpec(String subject, LocalDate startDate, LocalDate endDate,
+      LocalTime startTime, LocalTime endTime, String visibility, String description,
+      String location) {
+    this.subject = subject;
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.visibility = visibility;
+    this.description = description;
+    this.location = location;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+
+  public LocalTime getStartTime() {
+    return startTime;
+  }
+
+  public LocalTime getEndTime() {
+    return endTime;
+  }
+
+  public String getVisibility() {
+    return visibility;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  @Override
+  public String toString() {
+    return subject + " [" + startDate + (startTime == null ? "" : " " + startTime)
+        + " - " + endDate + (endTime == null ? "" : " " + endTime) + "]";
+  }
+}
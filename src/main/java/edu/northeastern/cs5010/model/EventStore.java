@@ -0,0 +1,439 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * The fields of a calendar's concrete events, stored by column in primitive arrays
+ * rather than as one object per event.
+ *
+ * <p>Each event occupies a slot, the same index in every column. Dates are kept as
+ * epoch days in ints and times as minutes of the day in shorts, with -1 for the
+ * missing times of an all-day event, so times are kept to the minute. Subjects,
+ * descriptions and locations are ids into a shared {@link StringPool}, so a string
+ * repeated across many events is stored once. Visibilities are bytes indexing a
+ * table of the first {@value #MAX_VISIBILITY_CODES} distinct visibilities used. An
+ * event with any other visibility has a reserved code and keeps its visibility
+ * as an id into the pool, in a column created the first time one is needed. Each
+ * event also records the calendar version that last stored it. An {@link Event} is
+ * a small handle holding its slot and reads its fields from here.
+ *
+ * <p>Dates and times are wall-clock times in the calendar's zone. Next to them
+ * each event keeps its start and end as UTC epoch seconds, worked out whenever its
+ * times are stored, so queries across zones compare plain longs. An event created
+ * in a zone of its own records it as a short indexing a table of the distinct
+ * zones used, with -1 for an event that has none.
+ *
+ * <p>Slots of events that were created but never added, because they failed a
+ * check, are freed and reused.
+ */
+final class EventStore {
+
+  private static final int MAX_VISIBILITY_CODES = 255;
+  private static final byte POOLED = (byte) 255;
+
+  private static final short NO_TIME = -1;
+  private static final short NO_ZONE = -1;
+  private static final LocalTime[] TIMES = new LocalTime[Event.MINUTES_PER_DAY];
+
+  static {
+    for (int minute = 0; minute < TIMES.length; minute++) {
+      TIMES[minute] = LocalTime.of(minute / 60, minute % 60);
+    }
+  }
+
+  private final Calendar calendar;
+  private final boolean detached;
+  private final ZoneId zone;
+  private final StringPool strings = new StringPool();
+  private String[] visibilityNames = new String[4];
+  private int visibilityCount;
+  private ZoneId[] zoneNames = new ZoneId[4];
+  private int zoneCount;
+
+  private int[] startDays;
+  private int[] endDays;
+  private short[] startMinutes;
+  private short[] endMinutes;
+  private long[] startSeconds;
+  private long[] endSeconds;
+  private short[] zones;
+  private byte[] visibilities;
+  private int[] pooledVisibilities;
+  private int[] subjects;
+  private int[] descriptions;
+  private int[] locations;
+  private long[] versions;
+  private int[] freeSlots = new int[16];
+  private int freeCount;
+  private int size;
+
+  /**
+   * Creates an empty store.
+   *
+   * @param calendar the calendar the events belong to
+   * @param detached whether the events are copies that are never added to the
+   *     calendar, and so are edited without any of its checks
+   */
+  EventStore(Calendar calendar, boolean detached) {
+    this(calendar, detached, null);
+  }
+
+  /**
+   * Creates an empty store of copies that belong to no calendar.
+   *
+   * @param zone the zone the copies' wall-clock times are in
+   */
+  EventStore(ZoneId zone) {
+    this(null, true, zone);
+  }
+
+  private EventStore(Calendar calendar, boolean detached, ZoneId zone) {
+    this.calendar = calendar;
+    this.detached = detached;
+    this.zone = zone;
+    int capacity = detached ? 2 : 16;
+    startDays = new int[capacity];
+    endDays = new int[capacity];
+    startMinutes = new short[capacity];
+    endMinutes = new short[capacity];
+    startSeconds = new long[capacity];
+    endSeconds = new long[capacity];
+    zones = new short[capacity];
+    visibilities = new byte[capacity];
+    subjects = new int[capacity];
+    descriptions = new int[capacity];
+    locations = new int[capacity];
+    versions = new long[capacity];
+  }
+
+  Calendar getCalendar() {
+    return calendar;
+  }
+
+  boolean isDetached() {
+    return detached;
+  }
+
+  /**
+   * Returns the zone the stored wall-clock times are in. A calendar's zone is read
+   * when needed, since the calendar creates its store before it sets its zone.
+   */
+  ZoneId getWallClockZone() {
+    return calendar != null ? calendar.getZone() : zone;
+  }
+
+  /**
+   * Stores the fields of a new event.
+   *
+   * @return the slot of the event
+   */
+  int allocate(String subject, LocalDate startDate, LocalDate endDate, LocalTime startTime,
+      LocalTime endTime, String visibility, String description, String location) {
+    int slot;
+    if (freeCount > 0) {
+      slot = freeSlots[--freeCount];
+    } else {
+      if (size == subjects.length) {
+        resize(size * 2);
+      }
+      slot = size++;
+    }
+    subjects[slot] = strings.intern(subject);
+    descriptions[slot] = strings.intern(description);
+    locations[slot] = strings.intern(location);
+    setVisibility(slot, visibility);
+    versions[slot] = 0;
+    zones[slot] = NO_ZONE;
+    setTimes(slot, startDate, startTime, endDate, endTime);
+    return slot;
+  }
+
+  /**
+   * Stores the fields of an event in the given slot, as a journal recorded them.
+   * Slots skipped over are left free. Call {@link #finishRestore()} once every
+   * event is restored.
+   */
+  void restore(int slot, String subject, LocalDate startDate, LocalDate endDate,
+      LocalTime startTime, LocalTime endTime, String visibility, String description,
+      String location) {
+    if (slot >= subjects.length) {
+      resize(Math.max(slot + 1, subjects.length * 2));
+    }
+    for (; size <= slot; size++) {
+      subjects[size] = StringPool.NULL;
+      descriptions[size] = StringPool.NULL;
+      locations[size] = StringPool.NULL;
+    }
+    subjects[slot] = strings.intern(subject);
+    descriptions[slot] = strings.intern(description);
+    locations[slot] = strings.intern(location);
+    setVisibility(slot, visibility);
+    zones[slot] = NO_ZONE;
+    setTimes(slot, startDate, startTime, endDate, endTime);
+  }
+
+  /**
+   * Frees every slot a restore left empty.
+   */
+  void finishRestore() {
+    freeCount = 0;
+    for (int slot = size - 1; slot >= 0; slot--) {
+      if (subjects[slot] == StringPool.NULL) {
+        if (freeCount == freeSlots.length) {
+          freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+      }
+    }
+  }
+
+  /**
+   * Frees the slot of an event that will not be used again.
+   */
+  void free(int slot) {
+    strings.release(subjects[slot]);
+    strings.release(descriptions[slot]);
+    strings.release(locations[slot]);
+    releaseVisibility(slot);
+    subjects[slot] = StringPool.NULL;
+    descriptions[slot] = StringPool.NULL;
+    locations[slot] = StringPool.NULL;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+  }
+
+  String getSubject(int slot) {
+    return strings.get(subjects[slot]);
+  }
+
+  /**
+   * Returns the pooled id of an event's subject. Two events have the same subject
+   * exactly when their subject ids are equal.
+   */
+  int getSubjectId(int slot) {
+    return subjects[slot];
+  }
+
+  /**
+   * Returns the pooled id of a subject, or {@link StringPool#NULL} if no event has
+   * it.
+   */
+  int findSubjectId(String subject) {
+    return strings.find(subject);
+  }
+
+  LocalDate getStartDate(int slot) {
+    return LocalDate.ofEpochDay(startDays[slot]);
+  }
+
+  LocalDate getEndDate(int slot) {
+    return LocalDate.ofEpochDay(endDays[slot]);
+  }
+
+  LocalTime getStartTime(int slot) {
+    return time(startMinutes[slot]);
+  }
+
+  LocalTime getEndTime(int slot) {
+    return time(endMinutes[slot]);
+  }
+
+  String getVisibility(int slot) {
+    byte code = visibilities[slot];
+    return code == POOLED ? strings.get(pooledVisibilities[slot])
+        : visibilityNames[code & 0xFF];
+  }
+
+  String getDescription(int slot) {
+    return strings.get(descriptions[slot]);
+  }
+
+  String getLocation(int slot) {
+    return strings.get(locations[slot]);
+  }
+
+  /**
+   * Returns the first minute covered by an event, counted from the epoch.
+   */
+  long getStartMinute(int slot) {
+    short minute = startMinutes[slot];
+    return (long) startDays[slot] * Event.MINUTES_PER_DAY + (minute == NO_TIME ? 0 : minute);
+  }
+
+  /**
+   * Returns the first minute after an event, counted from the epoch.
+   */
+  long getEndMinute(int slot) {
+    short minute = endMinutes[slot];
+    return minute == NO_TIME
+        ? ((long) endDays[slot] + 1) * Event.MINUTES_PER_DAY
+        : (long) endDays[slot] * Event.MINUTES_PER_DAY + minute;
+  }
+
+  /**
+   * Returns the instant an event starts, in UTC epoch seconds.
+   */
+  long getStartSecond(int slot) {
+    return startSeconds[slot];
+  }
+
+  /**
+   * Returns the instant an event ends, in UTC epoch seconds.
+   */
+  long getEndSecond(int slot) {
+    return endSeconds[slot];
+  }
+
+  /**
+   * Returns the zone an event was created in.
+   *
+   * @return the zone, or null if the event has no zone of its own
+   */
+  ZoneId getZone(int slot) {
+    short code = zones[slot];
+    return code == NO_ZONE ? null : zoneNames[code];
+  }
+
+  /**
+   * Records the zone an event was created in.
+   *
+   * @param zone the zone, or null if the event has no zone of its own
+   * @throws IllegalArgumentException if the zone would exceed
+   *     {@value Short#MAX_VALUE} distinct zones
+   */
+  void setZone(int slot, ZoneId zone) {
+    zones[slot] = zone == null ? NO_ZONE : zoneCode(zone);
+  }
+
+  /**
+   * Returns the calendar version of the change that last stored an event.
+   */
+  long getVersion(int slot) {
+    return versions[slot];
+  }
+
+  void setVersion(int slot, long version) {
+    versions[slot] = version;
+  }
+
+  void setSubject(int slot, String subject) {
+    int old = subjects[slot];
+    subjects[slot] = strings.intern(subject);
+    strings.release(old);
+  }
+
+  void setTimes(int slot, LocalDate startDate, LocalTime startTime, LocalDate endDate,
+      LocalTime endTime) {
+    startDays[slot] = Math.toIntExact(startDate.toEpochDay());
+    endDays[slot] = Math.toIntExact(endDate.toEpochDay());
+    startMinutes[slot] = startTime == null ? NO_TIME : (short) Event.minuteOfDay(startTime);
+    endMinutes[slot] = endTime == null ? NO_TIME : (short) Event.minuteOfDay(endTime);
+    ZoneId wallClock = getWallClockZone();
+    startSeconds[slot] = Event.epochSecond(getStartMinute(slot), wallClock);
+    endSeconds[slot] = Event.epochSecond(getEndMinute(slot), wallClock);
+  }
+
+  /**
+   * Replaces the visibility, description and location of an event.
+   */
+  void setDetails(int slot, String visibility, String description, String location) {
+    setVisibility(slot, visibility);
+    int oldDescription = descriptions[slot];
+    int oldLocation = locations[slot];
+    descriptions[slot] = strings.intern(description);
+    locations[slot] = strings.intern(location);
+    strings.release(oldDescription);
+    strings.release(oldLocation);
+  }
+
+  /**
+   * Returns the number of distinct strings the events refer to.
+   */
+  int distinctStrings() {
+    return strings.size();
+  }
+
+  /**
+   * Stores the visibility of an event as a code, or in the pool once the table of
+   * codes is full, giving back the pooled visibility the slot held before.
+   */
+  private void setVisibility(int slot, String visibility) {
+    byte code = visibilityCode(visibility);
+    int pooled = code == POOLED ? strings.intern(visibility) : StringPool.NULL;
+    releaseVisibility(slot);
+    if (code == POOLED) {
+      if (pooledVisibilities == null) {
+        pooledVisibilities = new int[visibilities.length];
+      }
+      pooledVisibilities[slot] = pooled;
+    }
+    visibilities[slot] = code;
+  }
+
+  private void releaseVisibility(int slot) {
+    if (visibilities[slot] == POOLED) {
+      strings.release(pooledVisibilities[slot]);
+      visibilities[slot] = 0;
+    }
+  }
+
+  private byte visibilityCode(String visibility) {
+    for (int i = 0; i < visibilityCount; i++) {
+      if (visibilityNames[i].equals(visibility)) {
+        return (byte) i;
+      }
+    }
+    if (visibilityCount == MAX_VISIBILITY_CODES) {
+      return POOLED;
+    }
+    if (visibilityCount == visibilityNames.length) {
+      visibilityNames = Arrays.copyOf(visibilityNames, visibilityCount * 2);
+    }
+    visibilityNames[visibilityCount] = visibility;
+    return (byte) visibilityCount++;
+  }
+
+  private short zoneCode(ZoneId zone) {
+    for (int i = 0; i < zoneCount; i++) {
+      if (zoneNames[i].equals(zone)) {
+        return (short) i;
+      }
+    }
+    if (zoneCount == Short.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A calendar can use at most " + Short.MAX_VALUE + " distinct zones");
+    }
+    if (zoneCount == zoneNames.length) {
+      zoneNames = Arrays.copyOf(zoneNames, zoneCount * 2);
+    }
+    zoneNames[zoneCount] = zone;
+    return (short) zoneCount++;
+  }
+
+  private void resize(int capacity) {
+    startDays = Arrays.copyOf(startDays, capacity);
+    endDays = Arrays.copyOf(endDays, capacity);
+    startMinutes = Arrays.copyOf(startMinutes, capacity);
+    endMinutes = Arrays.copyOf(endMinutes, capacity);
+    startSeconds = Arrays.copyOf(startSeconds, capacity);
+    endSeconds = Arrays.copyOf(endSeconds, capacity);
+    zones = Arrays.copyOf(zones, capacity);
+    visibilities = Arrays.copyOf(visibilities, capacity);
+    if (pooledVisibilities != null) {
+      pooledVisibilities = Arrays.copyOf(pooledVisibilities, capacity);
+    }
+    subjects = Arrays.copyOf(subjects, capacity);
+    descriptions = Arrays.copyOf(descriptions, capacity);
+    locations = Arrays.copyOf(locations, capacity);
+    versions = Arrays.copyOf(versions, capacity);
+  }
+
+  private static LocalTime time(short minute) {
+    return minute == NO_TIME ? null : TIMES[minute];
+  }
+}
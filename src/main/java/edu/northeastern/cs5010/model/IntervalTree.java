@@ -0,0 +1,431 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An augmented AVL tree of half-open intervals {@code [start, end)}.
+ *
+ * <p>Entries are ordered by start and then by a caller-supplied id, so several
+ * entries may share a start. Every node also records the largest end in its
+ * subtree, which lets overlap queries skip whole subtrees that finish before the
+ * query window and stop descending once starts pass its end. For events of
+ * bounded length an overlap query costs O(log n + k) for k matches, and results
+ * are always visited in start order.
+ *
+ * <p>The tree is persistent: nodes are never changed once built, and an update
+ * copies only the O(log n) nodes on the path it touches before publishing the new
+ * root. Every query and iterator works on the root it started from, so it sees
+ * the tree as of a single moment, and readers on other threads may run alongside
+ * a writer without locking. Updates themselves must not run concurrently.
+ *
+ * @param <V> the type of value stored with each interval
+ */
+final class IntervalTree<V> {
+
+  private volatile Node<V> root;
+
+  /**
+   * A condition on a value that overlaps a query window. The window is passed in,
+   * so a condition that depends only on it and the value can be a constant rather
+   * than a lambda that captures the window, and a check allocates nothing.
+   *
+   * @param <V> the type of value tested
+   */
+  interface OverlapFilter<V> {
+
+    boolean test(V value, long from, long to);
+  }
+
+  /**
+   * Returns the number of intervals in the tree.
+   *
+   * @return the number of intervals
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Adds an interval. The pair {@code (start, id)} must not already be present.
+   *
+   * @param start inclusive start of the interval
+   * @param end exclusive end of the interval
+   * @param id tie-breaker that identifies the entry among those with the same start
+   * @param value the value stored with the interval
+   */
+  void insert(long start, long end, long id, V value) {
+    root = insert(root, new Node<>(start, end, id, value, null, null));
+  }
+
+  /**
+   * Removes the interval identified by {@code (start, id)}.
+   *
+   * @param start the start the interval was inserted with
+   * @param id the id the interval was inserted with
+   * @return true if an interval was removed
+   */
+  boolean remove(long start, long id) {
+    Node<V> before = root;
+    Node<V> after = remove(before, start, id);
+    if (after == before) {
+      return false;
+    }
+    root = after;
+    return true;
+  }
+
+  /**
+   * Visits, in start order, every interval that overlaps {@code [from, to)}.
+   *
+   * @param from inclusive start of the query window
+   * @param to exclusive end of the query window
+   * @param action the action to run for each overlapping value
+   */
+  void forEachOverlapping(long from, long to, Consumer<? super V> action) {
+    forEachOverlapping(root, from, to, action);
+  }
+
+  /**
+   * Returns whether any interval overlapping {@code [from, to)} satisfies the
+   * filter. The search stops at the first match.
+   *
+   * @param from inclusive start of the query window
+   * @param to exclusive end of the query window
+   * @param filter the condition a value must satisfy
+   * @return true if a matching value was found
+   */
+  boolean anyOverlapping(long from, long to, Predicate<? super V> filter) {
+    return anyOverlapping(root, from, to, filter);
+  }
+
+  /**
+   * Returns whether any interval overlapping {@code [from, to)}, other than the one
+   * holding {@code ignored}, satisfies the filter. The search stops at the first
+   * match.
+   *
+   * @param from inclusive start of the query window
+   * @param to exclusive end of the query window
+   * @param ignored a value to leave out, or null
+   * @param filter the condition a value must satisfy, given the window
+   * @return true if a matching value was found
+   */
+  boolean anyOverlapping(long from, long to, V ignored, OverlapFilter<? super V> filter) {
+    return anyOverlapping(root, from, to, ignored, filter);
+  }
+
+  /**
+   * Visits every value in start order.
+   *
+   * @param action the action to run for each value
+   */
+  void forEach(Consumer<? super V> action) {
+    forEach(root, action);
+  }
+
+  /**
+   * Returns an iterator over every value in start order, as the tree was when the
+   * iterator was created. It holds only the path to the next node.
+   *
+   * @return an iterator over the values
+   */
+  Iterator<V> iterator() {
+    Deque<Node<V>> path = new ArrayDeque<>();
+    for (Node<V> node = root; node != null; node = node.left) {
+      path.push(node);
+    }
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return !path.isEmpty();
+      }
+
+      @Override
+      public V next() {
+        if (path.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<V> node = path.pop();
+        for (Node<V> next = node.right; next != null; next = next.left) {
+          path.push(next);
+        }
+        return node.value;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator over every value that overlaps {@code [from, to)} and starts
+   * at or after {@code minStart}, in start order, as the tree was when the iterator
+   * was created. Like {@link #forEachOverlapping}, it skips subtrees that finish
+   * before the window, but it descends only as far as the next match, so it holds
+   * only a path of the tree and a caller that stops early does not pay for the
+   * rest of the window.
+   *
+   * @param from inclusive start of the query window
+   * @param to exclusive end of the query window
+   * @param minStart the earliest start of a value returned
+   * @return an iterator over the values
+   */
+  Iterator<V> iterator(long from, long to, long minStart) {
+    Deque<Node<V>> path = new ArrayDeque<>();
+    return new Iterator<>() {
+      private Node<V> below = root;
+      private V next = advance();
+
+      /**
+       * Pushes the nodes from {@code below} down to the first one that may overlap
+       * the window, then pops nodes until one does.
+       */
+      private V advance() {
+        while (true) {
+          for (Node<V> node = below; node != null && node.maxEnd > from; ) {
+            if (node.start < minStart) {
+              node = node.right;
+              continue;
+            }
+            if (node.start < to) {
+              path.push(node);
+            }
+            node = node.left;
+          }
+          if (path.isEmpty()) {
+            return null;
+          }
+          Node<V> node = path.pop();
+          below = node.right;
+          if (node.end > from) {
+            return node.value;
+          }
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public V next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        V value = next;
+        next = advance();
+        return value;
+      }
+    };
+  }
+
+  /**
+   * Returns the smallest start in the tree.
+   *
+   * @return the start, or {@code Long.MAX_VALUE} if the tree is empty
+   */
+  long firstStart() {
+    Node<V> node = root;
+    if (node == null) {
+      return Long.MAX_VALUE;
+    }
+    while (node.left != null) {
+      node = node.left;
+    }
+    return node.start;
+  }
+
+  /**
+   * Returns the largest end in the tree.
+   *
+   * @return the end, or {@code Long.MIN_VALUE} if the tree is empty
+   */
+  long maxEnd() {
+    Node<V> node = root;
+    return node == null ? Long.MIN_VALUE : node.maxEnd;
+  }
+
+  private static <V> void forEachOverlapping(Node<V> node, long from, long to,
+      Consumer<? super V> action) {
+    if (node == null || node.maxEnd <= from) {
+      return;
+    }
+    forEachOverlapping(node.left, from, to, action);
+    if (node.start < to) {
+      if (node.end > from) {
+        action.accept(node.value);
+      }
+      forEachOverlapping(node.right, from, to, action);
+    }
+  }
+
+  private static <V> boolean anyOverlapping(Node<V> node, long from, long to,
+      Predicate<? super V> filter) {
+    if (node == null || node.maxEnd <= from) {
+      return false;
+    }
+    if (anyOverlapping(node.left, from, to, filter)) {
+      return true;
+    }
+    if (node.start >= to) {
+      return false;
+    }
+    if (node.end > from && filter.test(node.value)) {
+      return true;
+    }
+    return anyOverlapping(node.right, from, to, filter);
+  }
+
+  private static <V> boolean anyOverlapping(Node<V> node, long from, long to, V ignored,
+      OverlapFilter<? super V> filter) {
+    if (node == null || node.maxEnd <= from) {
+      return false;
+    }
+    if (anyOverlapping(node.left, from, to, ignored, filter)) {
+      return true;
+    }
+    if (node.start >= to) {
+      return false;
+    }
+    if (node.end > from && node.value != ignored && filter.test(node.value, from, to)) {
+      return true;
+    }
+    return anyOverlapping(node.right, from, to, ignored, filter);
+  }
+
+  private static <V> void forEach(Node<V> node, Consumer<? super V> action) {
+    if (node == null) {
+      return;
+    }
+    forEach(node.left, action);
+    action.accept(node.value);
+    forEach(node.right, action);
+  }
+
+  private static int compare(long start, long id, Node<?> node) {
+    int byStart = Long.compare(start, node.start);
+    return byStart != 0 ? byStart : Long.compare(id, node.id);
+  }
+
+  private static <V> Node<V> insert(Node<V> node, Node<V> added) {
+    if (node == null) {
+      return added;
+    }
+    int cmp = compare(added.start, added.id, node);
+    if (cmp < 0) {
+      return balance(node, insert(node.left, added), node.right);
+    } else if (cmp > 0) {
+      return balance(node, node.left, insert(node.right, added));
+    }
+    throw new IllegalStateException("Interval already indexed");
+  }
+
+  /**
+   * Returns the subtree without the entry {@code (start, id)}, or the same subtree
+   * if it has no such entry.
+   */
+  private static <V> Node<V> remove(Node<V> node, long start, long id) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(start, id, node);
+    if (cmp < 0) {
+      Node<V> left = remove(node.left, start, id);
+      return left == node.left ? node : balance(node, left, node.right);
+    } else if (cmp > 0) {
+      Node<V> right = remove(node.right, start, id);
+      return right == node.right ? node : balance(node, node.left, right);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node<V> successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor, node.left, removeMin(node.right));
+  }
+
+  private static <V> Node<V> removeMin(Node<V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node, removeMin(node.left), node.right);
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * Builds a balanced subtree holding the entry of {@code node} between the given
+   * children, whose heights differ by at most two.
+   */
+  private static <V> Node<V> balance(Node<V> node, Node<V> left, Node<V> right) {
+    int balance = height(left) - height(right);
+    if (balance > 1) {
+      if (height(left.left) < height(left.right)) {
+        Node<V> pivot = left.right;
+        return pivot.with(left.with(left.left, pivot.left), node.with(pivot.right, right));
+      }
+      return left.with(left.left, node.with(left.right, right));
+    }
+    if (balance < -1) {
+      if (height(right.right) < height(right.left)) {
+        Node<V> pivot = right.left;
+        return pivot.with(node.with(left, pivot.left), right.with(pivot.right, right.right));
+      }
+      return right.with(node.with(left, right.left), right.right);
+    }
+    return node.with(left, right);
+  }
+
+  private static final class Node<V> {
+
+    private final long start;
+    private final long end;
+    private final long id;
+    private final V value;
+    private final Node<V> left;
+    private final Node<V> right;
+    private final long maxEnd;
+    private final int height;
+    private final int size;
+
+    private Node(long start, long end, long id, V value, Node<V> left, Node<V> right) {
+      this.start = start;
+      this.end = end;
+      this.id = id;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      long max = end;
+      if (left != null) {
+        max = Math.max(max, left.maxEnd);
+      }
+      if (right != null) {
+        max = Math.max(max, right.maxEnd);
+      }
+      this.maxEnd = max;
+      this.height = 1 + Math.max(height(left), height(right));
+      this.size = 1 + size(left) + size(right);
+    }
+
+    /**
+     * Returns a node holding this entry between the given children.
+     */
+    private Node<V> with(Node<V> newLeft, Node<V> newRight) {
+      return newLeft == left && newRight == right ? this
+          : new Node<>(start, end, id, value, newLeft, newRight);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.LocalDate;
+
+/**
+ * Receives every change made to a {@link Calendar}, as the full new state of each
+ * stored event and series it touched.
+ *
+ * <p>A change that touches several events, such as a batch of new events or an
+ * edit of a whole series, is reported between {@link #begin()} and
+ * {@link #commit()}, and {@link #abort()} ends it instead if the change failed
+ * and the calendar rolled it back. Transactions nest; only the outermost one
+ * counts. A state reported outside any transaction is a change of its own.
+ */
+interface Journal {
+
+  /**
+   * A journal that ignores every change.
+   */
+  Journal NONE = new Journal() {
+  };
+
+  default void begin() {
+  }
+
+  default void commit() {
+  }
+
+  default void abort() {
+  }
+
+  /**
+   * Reports a stored event that was added or changed.
+   */
+  default void eventStored(Event event) {
+  }
+
+  /**
+   * Reports a series that was added or whose rule changed.
+   */
+  default void seriesStored(Series series) {
+  }
+
+  /**
+   * Reports that the occurrences of {@code head} from {@code date} onwards were
+   * moved into the new series {@code tail}.
+   */
+  default void seriesSplit(Series head, LocalDate date, Series tail) {
+  }
+}
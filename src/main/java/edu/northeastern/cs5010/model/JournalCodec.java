@@ -0,0 +1,285 @@
+package edu.northeastern.cs5010.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The binary records of a {@link CalendarJournal}, shared by its log and its
+ * snapshots.
+ *
+ * <p>There are three kinds of record. An event record holds the whole state of a
+ * stored event, keyed by its slot in the {@link EventStore}, and a series record
+ * the whole rule of a series, keyed by its id, so replaying either one puts the
+ * event or series in its recorded state whether or not it exists yet. A split
+ * record repeats a {@link Calendar#modifyRecurringEventsFrom} split. Dates are
+ * written as epoch days, times as minutes of the day with -1 for none, and strings
+ * as a length and UTF-8 bytes with a length of -1 for null.
+ */
+final class JournalCodec {
+
+  static final byte EVENT = 1;
+  static final byte SERIES = 2;
+  static final byte SPLIT = 3;
+
+  private static final int NO_DATE = Integer.MIN_VALUE;
+
+  private JournalCodec() {
+  }
+
+  /**
+   * A growable buffer records are written to.
+   */
+  static final class Output {
+
+    private ByteBuffer buffer;
+
+    Output(int capacity) {
+      buffer = ByteBuffer.allocate(capacity);
+    }
+
+    ByteBuffer buffer() {
+      return buffer;
+    }
+
+    int position() {
+      return buffer.position();
+    }
+
+    void reset(int position) {
+      buffer.position(position);
+    }
+
+    Output putByte(byte value) {
+      ensure(Byte.BYTES).put(value);
+      return this;
+    }
+
+    Output putShort(short value) {
+      ensure(Short.BYTES).putShort(value);
+      return this;
+    }
+
+    Output putInt(int value) {
+      ensure(Integer.BYTES).putInt(value);
+      return this;
+    }
+
+    Output putLong(long value) {
+      ensure(Long.BYTES).putLong(value);
+      return this;
+    }
+
+    Output putString(String value) {
+      if (value == null) {
+        return putInt(-1);
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      putInt(bytes.length);
+      ensure(bytes.length).put(bytes);
+      return this;
+    }
+
+    Output putBytes(ByteBuffer bytes) {
+      ensure(bytes.remaining()).put(bytes);
+      return this;
+    }
+
+    private ByteBuffer ensure(int bytes) {
+      if (buffer.remaining() < bytes) {
+        ByteBuffer larger = ByteBuffer.allocate(
+            Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+      }
+      return buffer;
+    }
+  }
+
+  static void writeEvent(Output out, Event event) {
+    Series series = event.getSeries();
+    LocalDate occurrenceDate = event.getOccurrenceDate();
+    out.putByte(EVENT)
+        .putInt((int) event.getId())
+        .putLong(series == null ? -1 : series.getId())
+        .putInt(occurrenceDate == null ? NO_DATE : (int) occurrenceDate.toEpochDay())
+        .putInt((int) event.getStartDate().toEpochDay())
+        .putInt((int) event.getEndDate().toEpochDay())
+        .putShort(minute(event.getStartTime()))
+        .putShort(minute(event.getEndTime()))
+        .putString(event.getSubject())
+        .putString(event.getVisibility())
+        .putString(event.getDescription())
+        .putString(event.getLocation())
+        .putString(event.getOwnZone() == null ? null : event.getOwnZone().getId());
+  }
+
+  static void writeSeries(Output out, Series series) {
+    out.putByte(SERIES)
+        .putLong(series.getId())
+        .putInt((int) series.getFirstDate().toEpochDay())
+        .putInt((int) series.getLastDate().toEpochDay())
+        .putByte((byte) dayMask(series.getDays()))
+        .putShort(minute(series.getStartTime()))
+        .putShort(minute(series.getEndTime()))
+        .putString(series.getSubject())
+        .putString(series.getVisibility())
+        .putString(series.getDescription())
+        .putString(series.getLocation());
+  }
+
+  static void writeSplit(Output out, Series head, LocalDate date, Series tail) {
+    out.putByte(SPLIT)
+        .putLong(head.getId())
+        .putInt((int) date.toEpochDay())
+        .putLong(tail.getId());
+  }
+
+  static String getString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < -1 || length > in.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    if (length == -1) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static short minute(LocalTime time) {
+    return time == null ? -1 : (short) Event.minuteOfDay(time);
+  }
+
+  static LocalTime time(short minute) {
+    return minute < 0 ? null : LocalTime.of(minute / 60, minute % 60);
+  }
+
+  /**
+   * Packs days of the week into one bit each, by ordinal.
+   */
+  static int dayMask(Set<DayOfWeek> days) {
+    int mask = 0;
+    for (DayOfWeek day : days) {
+      mask |= 1 << day.ordinal();
+    }
+    return mask;
+  }
+
+  static Set<DayOfWeek> days(int mask) {
+    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if ((mask & (1 << day.ordinal())) != 0) {
+        days.add(day);
+      }
+    }
+    return days;
+  }
+
+  /**
+   * Applies records to a calendar being restored, keeping track of the events and
+   * series restored so far so later records can change them.
+   */
+  static final class Replay {
+
+    private final Calendar calendar;
+    private final Map<Long, Series> series = new HashMap<>();
+    private Event[] events = new Event[16];
+
+    Replay(Calendar calendar) {
+      this.calendar = calendar;
+    }
+
+    /**
+     * Applies every record in a buffer.
+     *
+     * @throws IllegalArgumentException if a record is malformed or refers to a
+     *     series that does not exist
+     */
+    void applyAll(ByteBuffer in) {
+      while (in.hasRemaining()) {
+        apply(in);
+      }
+    }
+
+    /**
+     * Applies the record at the buffer's position and moves past it.
+     */
+    void apply(ByteBuffer in) {
+      byte type = in.get();
+      switch (type) {
+        case EVENT:
+          applyEvent(in);
+          break;
+        case SERIES:
+          applySeries(in);
+          break;
+        case SPLIT:
+          Series head = series(in.getLong());
+          LocalDate date = LocalDate.ofEpochDay(in.getInt());
+          long tailId = in.getLong();
+          series.put(tailId, calendar.restoreSplit(head, date, tailId));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown journal record type " + type);
+      }
+    }
+
+    private void applyEvent(ByteBuffer in) {
+      int slot = in.getInt();
+      long seriesId = in.getLong();
+      int occurrenceDay = in.getInt();
+      LocalDate startDate = LocalDate.ofEpochDay(in.getInt());
+      LocalDate endDate = LocalDate.ofEpochDay(in.getInt());
+      LocalTime startTime = time(in.getShort());
+      LocalTime endTime = time(in.getShort());
+      String subject = getString(in);
+      String visibility = getString(in);
+      String description = getString(in);
+      String location = getString(in);
+      String zone = getString(in);
+      if (slot >= events.length) {
+        events = Arrays.copyOf(events, Math.max(slot + 1, events.length * 2));
+      }
+      events[slot] = calendar.restoreEvent(events[slot], slot,
+          seriesId < 0 ? null : series(seriesId),
+          occurrenceDay == NO_DATE ? null : LocalDate.ofEpochDay(occurrenceDay), subject,
+          startDate, endDate, startTime, endTime, visibility, description, location,
+          zone == null ? null : ZoneId.of(zone));
+    }
+
+    private void applySeries(ByteBuffer in) {
+      long id = in.getLong();
+      LocalDate firstDate = LocalDate.ofEpochDay(in.getInt());
+      LocalDate lastDate = LocalDate.ofEpochDay(in.getInt());
+      Set<DayOfWeek> days = days(in.get());
+      LocalTime startTime = time(in.getShort());
+      LocalTime endTime = time(in.getShort());
+      String subject = getString(in);
+      String visibility = getString(in);
+      String description = getString(in);
+      String location = getString(in);
+      series.put(id, calendar.restoreSeries(series.get(id), id, subject, days, firstDate,
+          lastDate, startTime, endTime, visibility, description, location));
+    }
+
+    private Series series(long id) {
+      Series found = series.get(id);
+      if (found == null) {
+        throw new IllegalArgumentException("Journal refers to unknown series " + id);
+      }
+      return found;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Duration;
+
+/**
+ * How a {@link CalendarJournal} trades durability against write cost, and how long
+ * its log may grow before it is compacted into a snapshot.
+ *
+ * <p>By default every change is forced to disk before the method that made it
+ * returns. A sync batch of n forces the log once every n changes instead, and a
+ * sync interval forces any changes still waiting after that long, so a crash loses
+ * at most the changes of one batch or one interval, and never part of a change.
+ * The snapshot threshold bounds the log, and with it the number of changes a
+ * recovery replays on top of the latest snapshot.
+ */
+public final class JournalOptions {
+
+  private static final long DEFAULT_SNAPSHOT_THRESHOLD = 64L << 20;
+
+  private final int syncBatch;
+  private final Duration syncInterval;
+  private final long snapshotThreshold;
+
+  private JournalOptions(int syncBatch, Duration syncInterval, long snapshotThreshold) {
+    this.syncBatch = syncBatch;
+    this.syncInterval = syncInterval;
+    this.snapshotThreshold = snapshotThreshold;
+  }
+
+  /**
+   * Returns options that force every change to disk, with no sync interval and a
+   * snapshot threshold of 64 MiB.
+   *
+   * @return the default options
+   */
+  public static JournalOptions defaults() {
+    return new JournalOptions(1, null, DEFAULT_SNAPSHOT_THRESHOLD);
+  }
+
+  /**
+   * Returns these options with the log forced once every given number of changes.
+   *
+   * @param changes the number of changes per sync
+   * @return the new options
+   * @throws IllegalArgumentException if the number is not positive
+   */
+  public JournalOptions withSyncBatch(int changes) {
+    if (changes <= 0) {
+      throw new IllegalArgumentException("Sync batch must be positive");
+    }
+    return new JournalOptions(changes, syncInterval, snapshotThreshold);
+  }
+
+  /**
+   * Returns these options with waiting changes forced to disk at the given
+   * interval.
+   *
+   * @param interval the interval, or null to sync only by batch
+   * @return the new options
+   * @throws IllegalArgumentException if the interval is not positive
+   */
+  public JournalOptions withSyncInterval(Duration interval) {
+    if (interval != null && (interval.isZero() || interval.isNegative())) {
+      throw new IllegalArgumentException("Sync interval must be positive");
+    }
+    return new JournalOptions(syncBatch, interval, snapshotThreshold);
+  }
+
+  /**
+   * Returns these options with a snapshot taken whenever the log grows past the
+   * given size.
+   *
+   * @param bytes the log size in bytes
+   * @return the new options
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public JournalOptions withSnapshotThreshold(long bytes) {
+    if (bytes <= 0) {
+      throw new IllegalArgumentException("Snapshot threshold must be positive");
+    }
+    return new JournalOptions(syncBatch, syncInterval, bytes);
+  }
+
+  public int getSyncBatch() {
+    return syncBatch;
+  }
+
+  /**
+   * Returns the interval at which waiting changes are forced to disk.
+   *
+   * @return the interval, or null if changes are synced only by batch
+   */
+  public Duration getSyncInterval() {
+    return syncInterval;
+  }
+
+  public long getSnapshotThreshold() {
+    return snapshotThreshold;
+  }
+}
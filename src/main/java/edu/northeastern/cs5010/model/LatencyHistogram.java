@@ -0,0 +1,73 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds that records without allocating or
+ * locking.
+ *
+ * <p>As in HdrHistogram, values are counted in buckets whose width grows with the
+ * value: every power of two is split into {@value #SUB_BUCKETS} equal buckets, so a
+ * recorded value is known to within about six percent however large it is, and
+ * the whole range of a long fits in a fixed array of counts. Recording finds the
+ * bucket from the position of the value's highest bit and increments its count
+ * atomically, so many threads may record at once.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one latency. Negative latencies, which a clock adjustment could give,
+   * count as zero.
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucket(value));
+    total.addAndGet(value);
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Returns a copy of the histogram's counts. A snapshot taken while other threads
+   * record may miss some of their latest values, but never counts one twice.
+   */
+  CalendarMetrics.Latency snapshot() {
+    long[] copy = new long[BUCKETS];
+    long copied = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      copied += copy[i];
+    }
+    return new CalendarMetrics.Latency(copy, copied, total.get(), max.get());
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Returns the largest value that falls in a bucket.
+   */
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    return lowest + width - 1;
+  }
+}
@@ -0,0 +1,80 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latencies and counters of a {@link Calendar}'s hot operations.
+ *
+ * <p>An operation is timed by calling {@link #start()} before it and
+ * {@link #finish} after it. While recording is off, {@code start} returns a marker
+ * without reading the clock and {@code finish} ignores it, so instrumented code
+ * costs one volatile read and a branch. Recording allocates nothing and takes no
+ * lock, so it may run on many threads at once.
+ */
+final class MetricsRecorder {
+
+  private static final long OFF = Long.MIN_VALUE;
+  private static final CalendarMetrics.Operation[] OPERATIONS =
+      CalendarMetrics.Operation.values();
+
+  private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+  private final LongAdder conflictsRejected = new LongAdder();
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder eventsScanned = new LongAdder();
+  private volatile boolean enabled;
+
+  MetricsRecorder() {
+    for (int i = 0; i < latencies.length; i++) {
+      latencies[i] = new LatencyHistogram();
+    }
+  }
+
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the time an operation starts at, or a marker if recording is off.
+   */
+  long start() {
+    return enabled ? System.nanoTime() : OFF;
+  }
+
+  /**
+   * Records the latency of an operation that started at the given time.
+   */
+  void finish(CalendarMetrics.Operation operation, long started) {
+    if (started != OFF) {
+      latencies[operation.ordinal()].record(System.nanoTime() - started);
+    }
+  }
+
+  void conflictRejected() {
+    if (enabled) {
+      conflictsRejected.increment();
+    }
+  }
+
+  void scanned(int events) {
+    if (enabled) {
+      queries.increment();
+      eventsScanned.add(events);
+    }
+  }
+
+  CalendarMetrics snapshot(int eventCount, int seriesCount) {
+    Map<CalendarMetrics.Operation, CalendarMetrics.Latency> snapshots =
+        new EnumMap<>(CalendarMetrics.Operation.class);
+    for (CalendarMetrics.Operation operation : OPERATIONS) {
+      snapshots.put(operation, latencies[operation.ordinal()].snapshot());
+    }
+    return new CalendarMetrics(snapshots, conflictsRejected.sum(), queries.sum(),
+        eventsScanned.sum(), eventCount, seriesCount);
+  }
+}
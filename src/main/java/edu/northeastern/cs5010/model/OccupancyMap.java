@@ -0,0 +1,190 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.Arrays;
+
+/**
+ * The busy time of a calendar that does not allow conflicts, kept as a sorted set
+ * of disjoint half-open intervals {@code [start, end)}.
+ *
+ * <p>Because no two intervals overlap, only the interval with the greatest start
+ * before a candidate's end can overlap it, so a conflict check is a single
+ * O(log n) floor lookup no matter how many events the calendar holds.
+ *
+ * <p>The intervals are the nodes of a treap held in parallel primitive arrays
+ * rather than entries of a map of boxed longs, so a check allocates nothing and
+ * each interval costs two longs and three ints. Each node gets a random priority
+ * and the tree is kept in heap order on it, which keeps the expected depth
+ * logarithmic even when events are added in start order. Freed nodes are reused.
+ */
+final class OccupancyMap {
+
+  /**
+   * A start no occupied interval has, for checks that should ignore nothing.
+   */
+  static final long NONE = Long.MIN_VALUE;
+
+  private static final int NIL = -1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] starts = new long[INITIAL_CAPACITY];
+  private long[] ends = new long[INITIAL_CAPACITY];
+  private int[] left = new int[INITIAL_CAPACITY];
+  private int[] right = new int[INITIAL_CAPACITY];
+  private int[] priorities = new int[INITIAL_CAPACITY];
+  private int root = NIL;
+  private int used;
+  private int free = NIL;
+  private int seed = 0x2545F491;
+
+  /**
+   * Returns whether {@code [start, end)} overlaps no occupied interval.
+   *
+   * @param start inclusive start of the candidate interval
+   * @param end exclusive end of the candidate interval
+   * @return true if the interval is free
+   */
+  boolean isFree(long start, long end) {
+    return isFreeIgnoring(start, end, NONE);
+  }
+
+  /**
+   * Returns whether {@code [start, end)} overlaps no occupied interval other than
+   * the one starting at {@code ignoredStart}, which is typically the event being
+   * moved.
+   *
+   * @param start inclusive start of the candidate interval
+   * @param end exclusive end of the candidate interval
+   * @param ignoredStart start of an occupied interval to leave out of the check
+   * @return true if the interval is free
+   */
+  boolean isFreeIgnoring(long start, long end, long ignoredStart) {
+    int last = lower(end);
+    if (last != NIL && starts[last] == ignoredStart) {
+      last = lower(ignoredStart);
+    }
+    return last == NIL || ends[last] <= start;
+  }
+
+  /**
+   * Marks {@code [start, end)} as busy. The interval must be free.
+   *
+   * @param start inclusive start of the interval
+   * @param end exclusive end of the interval
+   */
+  void occupy(long start, long end) {
+    int node = allocate(start, end);
+    root = insert(root, node);
+  }
+
+  /**
+   * Frees the occupied interval starting at {@code start}.
+   *
+   * @param start the start the interval was occupied with
+   */
+  void release(long start) {
+    root = remove(root, start);
+  }
+
+  /**
+   * Returns the node with the greatest start before {@code key}, or {@link #NIL}.
+   */
+  private int lower(long key) {
+    int found = NIL;
+    for (int node = root; node != NIL; ) {
+      if (starts[node] < key) {
+        found = node;
+        node = right[node];
+      } else {
+        node = left[node];
+      }
+    }
+    return found;
+  }
+
+  private int insert(int node, int added) {
+    if (node == NIL) {
+      return added;
+    }
+    if (starts[added] < starts[node]) {
+      left[node] = insert(left[node], added);
+      if (priorities[left[node]] > priorities[node]) {
+        int top = left[node];
+        left[node] = right[top];
+        right[top] = node;
+        return top;
+      }
+    } else {
+      right[node] = insert(right[node], added);
+      if (priorities[right[node]] > priorities[node]) {
+        int top = right[node];
+        right[node] = left[top];
+        left[top] = node;
+        return top;
+      }
+    }
+    return node;
+  }
+
+  private int remove(int node, long start) {
+    if (node == NIL) {
+      return NIL;
+    }
+    if (start < starts[node]) {
+      left[node] = remove(left[node], start);
+      return node;
+    }
+    if (start > starts[node]) {
+      right[node] = remove(right[node], start);
+      return node;
+    }
+    int merged = merge(left[node], right[node]);
+    left[node] = free;
+    free = node;
+    return merged;
+  }
+
+  /**
+   * Joins two treaps whose starts are all smaller in {@code low} than in
+   * {@code high}.
+   */
+  private int merge(int low, int high) {
+    if (low == NIL) {
+      return high;
+    }
+    if (high == NIL) {
+      return low;
+    }
+    if (priorities[low] > priorities[high]) {
+      right[low] = merge(right[low], high);
+      return low;
+    }
+    left[high] = merge(low, left[high]);
+    return high;
+  }
+
+  private int allocate(long start, long end) {
+    int node = free;
+    if (node != NIL) {
+      free = left[node];
+    } else {
+      if (used == starts.length) {
+        int capacity = used * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+      }
+      node = used++;
+    }
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    starts[node] = start;
+    ends[node] = end;
+    left[node] = NIL;
+    right[node] = NIL;
+    priorities[node] = seed;
+    return node;
+  }
+}
@@ -0,0 +1,144 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * The stretches of time over which a zone's offset from UTC does not change and no
+ * change is within a day, found as they are asked about and kept so an instant in
+ * one can be turned into a wall-clock minute by adding its offset.
+ *
+ * <p>Looking up a zone's rules allocates, so a calendar keeps one of these to let
+ * {@link Calendar#isBusyAt(java.time.Instant)} look them up only the first time it
+ * is asked about an instant between two changes of offset, about twice a year of
+ * the times asked about. Windows are kept in an immutable table, sorted by start
+ * and searched without a lock; a new window replaces the table with a copy. A zone
+ * with a fixed offset has one window covering all time.
+ */
+final class OffsetWindows {
+
+  /**
+   * Returned by {@link #localMinute} for an instant within a day of a change of
+   * offset.
+   */
+  static final long NEAR_CHANGE = Long.MIN_VALUE;
+
+  private static final long DAY_SECONDS = 24 * 60 * 60;
+
+  private final ZoneId zone;
+  private volatile Table table;
+
+  OffsetWindows(ZoneId zone) {
+    this.zone = zone;
+    ZoneRules rules = zone.getRules();
+    this.table = rules.isFixedOffset()
+        ? new Table(new long[] {Long.MIN_VALUE}, new long[] {Long.MAX_VALUE},
+            new int[] {rules.getOffset(Instant.EPOCH).getTotalSeconds()})
+        : new Table(new long[0], new long[0], new int[0]);
+  }
+
+  /**
+   * Returns the wall-clock minute, counted from the epoch, that an epoch second
+   * falls in.
+   *
+   * @return the minute, or {@link #NEAR_CHANGE} if the zone's offset changes within
+   *     a day of the second
+   */
+  long localMinute(long second) {
+    Table current = table;
+    int index = current.find(second);
+    if (index < 0) {
+      index = add(second);
+      if (index < 0) {
+        return NEAR_CHANGE;
+      }
+      current = table;
+    }
+    return Math.floorDiv(second + current.offsets[index], 60);
+  }
+
+  /**
+   * Looks up the window around an epoch second in the zone's rules and adds it.
+   *
+   * @return the index of the window in the new table, or -1 if there is none
+   */
+  private synchronized int add(long second) {
+    Table current = table;
+    int index = current.find(second);
+    if (index >= 0) {
+      return index;
+    }
+    ZoneRules rules = zone.getRules();
+    ZoneOffsetTransition previous = rules.previousTransition(Instant.ofEpochSecond(second + 1));
+    ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochSecond(second));
+    long from = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() + DAY_SECONDS;
+    long to = next == null ? Long.MAX_VALUE : next.toEpochSecond() - DAY_SECONDS;
+    if (second < from || second >= to) {
+      return -1;
+    }
+    int offset = rules.getOffset(Instant.ofEpochSecond(second)).getTotalSeconds();
+    table = current.with(from, to, offset);
+    return table.find(second);
+  }
+
+  /**
+   * Disjoint windows sorted by start, as parallel arrays.
+   */
+  private static final class Table {
+
+    private final long[] froms;
+    private final long[] tos;
+    private final int[] offsets;
+
+    private Table(long[] froms, long[] tos, int[] offsets) {
+      this.froms = froms;
+      this.tos = tos;
+      this.offsets = offsets;
+    }
+
+    /**
+     * Returns the index of the window holding an epoch second, or -1.
+     */
+    private int find(long second) {
+      int low = 0;
+      int high = froms.length - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        if (froms[middle] > second) {
+          high = middle - 1;
+        } else if (tos[middle] <= second) {
+          low = middle + 1;
+        } else {
+          return middle;
+        }
+      }
+      return -1;
+    }
+
+    private Table with(long from, long to, int offset) {
+      int at = 0;
+      while (at < froms.length && froms[at] < from) {
+        at++;
+      }
+      return new Table(insert(froms, at, from), insert(tos, at, to),
+          insert(offsets, at, offset));
+    }
+
+    private static long[] insert(long[] values, int at, long value) {
+      long[] copy = Arrays.copyOf(values, values.length + 1);
+      System.arraycopy(values, at, copy, at + 1, values.length - at);
+      copy[at] = value;
+      return copy;
+    }
+
+    private static int[] insert(int[] values, int at, int value) {
+      int[] copy = Arrays.copyOf(values, values.length + 1);
+      System.arraycopy(values, at, copy, at + 1, values.length - at);
+      copy[at] = value;
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of the results of a calendar's range queries over at most
+ * {@value #MAX_DAYS} days, so repeated per-day and per-week queries skip the index
+ * walk, the expansion of series and the sort.
+ *
+ * <p>Results are kept in least-recently-used order, keyed on their first day and
+ * length, and the least recently used is evicted once the cache is full. A result
+ * holds event handles, which always show the current fields of their events, so
+ * renaming or describing an event leaves it valid. Adding, moving or removing an
+ * event drops only the results whose days it touches: since no result spans more
+ * than {@value #MAX_DAYS} days, those are found by probing the keys that could
+ * overlap, or by a scan of the cache if that is shorter. Changing a series drops
+ * only the results for days it has an occurrence on.
+ *
+ * <p>The cache may be used from many threads. A result is computed without the
+ * cache's lock, so every invalidation also moves the cache to a new generation,
+ * and a result computed from a generation that has since ended is not cached: it
+ * may have missed the change. A change the result missed whose invalidation comes
+ * later still finds the result and drops it.
+ */
+final class QueryCache {
+
+  static final int MAX_DAYS = 7;
+
+  private final LinkedHashMap<Long, List<Event>> results =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<Event>> eldest) {
+          if (size() > capacity) {
+            evictions++;
+            return true;
+          }
+          return false;
+        }
+      };
+  private volatile int capacity;
+  private long generation;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /**
+   * Sets how many results the cache holds, evicting the least recently used
+   * results that no longer fit. A capacity of zero turns the cache off.
+   */
+  synchronized void setCapacity(int capacity) {
+    this.capacity = capacity;
+    generation++;
+    Iterator<List<Event>> eldest = results.values().iterator();
+    while (results.size() > capacity) {
+      eldest.next();
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns whether the results of the range from {@code firstDay} to
+   * {@code lastDay} are kept.
+   */
+  boolean caches(long firstDay, long lastDay) {
+    return capacity > 0 && lastDay - firstDay < MAX_DAYS;
+  }
+
+  synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * Returns the cached result of a range the cache {@linkplain #caches keeps}.
+   *
+   * @return the events, or null if they are not cached
+   */
+  synchronized List<Event> get(long firstDay, long lastDay) {
+    List<Event> events = results.get(key(firstDay, lastDay - firstDay));
+    if (events == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return events;
+  }
+
+  /**
+   * Caches the result of a range, unless the cache has been invalidated since the
+   * given generation.
+   */
+  synchronized void put(long firstDay, long lastDay, List<Event> events,
+      long computedGeneration) {
+    if (computedGeneration == generation && capacity > 0) {
+      results.put(key(firstDay, lastDay - firstDay), List.copyOf(events));
+    }
+  }
+
+  /**
+   * Drops every result covering any day of {@code [start, end)}. It must be called
+   * after the change is made, and costs nothing while the cache is off, since
+   * turning the cache on starts a new generation.
+   *
+   * @param start inclusive start, in epoch minutes
+   * @param end exclusive end, in epoch minutes
+   */
+  void invalidate(long start, long end) {
+    if (capacity > 0) {
+      drop(start, end);
+    }
+  }
+
+  /**
+   * Drops every result covering a day on which a series has an unedited
+   * occurrence. Called both before and after the rule of a series changes, it
+   * drops the results for the days the series leaves and the days it reaches,
+   * and keeps the results for the days between its occurrences.
+   */
+  void invalidate(Series series) {
+    if (capacity > 0) {
+      drop(series);
+    }
+  }
+
+  synchronized QueryCacheStats stats() {
+    return new QueryCacheStats(capacity, results.size(), hits, misses, evictions,
+        invalidations);
+  }
+
+  private synchronized void drop(long start, long end) {
+    generation++;
+    if (results.isEmpty()) {
+      return;
+    }
+    long firstDay = Math.floorDiv(start, Event.MINUTES_PER_DAY);
+    long lastDay = Math.floorDiv(end - 1, Event.MINUTES_PER_DAY);
+    if ((lastDay - firstDay + MAX_DAYS) * MAX_DAYS > results.size()) {
+      for (Iterator<Long> keys = results.keySet().iterator(); keys.hasNext(); ) {
+        long key = keys.next();
+        long day = Math.floorDiv(key, MAX_DAYS + 1);
+        long length = key - day * (MAX_DAYS + 1);
+        if (day <= lastDay && day + length >= firstDay) {
+          keys.remove();
+          invalidations++;
+        }
+      }
+      return;
+    }
+    for (long day = firstDay - MAX_DAYS + 1; day <= lastDay; day++) {
+      for (long length = Math.max(0, firstDay - day); length < MAX_DAYS; length++) {
+        if (results.remove(key(day, length)) != null) {
+          invalidations++;
+        }
+      }
+    }
+  }
+
+  private synchronized void drop(Series series) {
+    generation++;
+    long first = series.getFirstDate().toEpochDay();
+    long last = series.getLastDate().toEpochDay();
+    for (Iterator<Long> keys = results.keySet().iterator(); keys.hasNext(); ) {
+      long key = keys.next();
+      long day = Math.floorDiv(key, MAX_DAYS + 1);
+      long length = key - day * (MAX_DAYS + 1);
+      if (day <= last && day + length >= first
+          && series.nextVirtualDay(day) <= day + length) {
+        keys.remove();
+        invalidations++;
+      }
+    }
+  }
+
+  /**
+   * Packs a first day and a length of at most {@value #MAX_DAYS} days, less one,
+   * into a key.
+   */
+  private static long key(long firstDay, long length) {
+    return firstDay * (MAX_DAYS + 1) + length;
+  }
+}
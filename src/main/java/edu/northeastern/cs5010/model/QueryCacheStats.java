@@ -0,0 +1,81 @@
+package edu.northeastern.cs5010.model;
+
+/**
+ * The counters of a calendar's query cache at one moment, as returned by
+ * {@link Calendar#getQueryCacheStats()}. Counts start when the calendar is created
+ * and are not reset when the capacity changes.
+ */
+public final class QueryCacheStats {
+
+  private final int capacity;
+  private final int size;
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long invalidations;
+
+  QueryCacheStats(int capacity, int size, long hits, long misses, long evictions,
+      long invalidations) {
+    this.capacity = capacity;
+    this.size = size;
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.invalidations = invalidations;
+  }
+
+  /**
+   * Returns the most results the cache holds.
+   *
+   * @return the capacity, or zero if the cache is off
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns how many results were dropped to make room for newer ones.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns how many results were dropped because a change touched their days.
+   *
+   * @return the number of invalidated results
+   */
+  public long getInvalidations() {
+    return invalidations;
+  }
+
+  /**
+   * Returns the share of lookups the cache answered.
+   *
+   * @return the hit rate from 0 to 1, or 0 if nothing was looked up
+   */
+  public double getHitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return size + "/" + capacity + " results, " + hits + " hits, " + misses + " misses, "
+        + evictions + " evictions, " + invalidations + " invalidations";
+  }
+}
@@ -0,0 +1,102 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Duration;
+
+/**
+ * How a {@link CalendarRegistry} spreads its calendars across shards and how much
+ * of them each shard keeps in memory.
+ *
+ * <p>Memory is bounded by the number of stored events and series rules a shard
+ * keeps loaded, since that is what a calendar's memory grows with; unedited
+ * occurrences of a series cost nothing. Once a shard goes over its bound it saves
+ * its least recently used calendars to disk until it is back under. An idle
+ * timeout also saves calendars that have not been used for that long, however
+ * little memory they hold.
+ */
+public final class RegistryOptions {
+
+  private static final int DEFAULT_MAX_LOADED_EVENTS = 1 << 20;
+
+  private final int shardCount;
+  private final int maxLoadedEvents;
+  private final Duration idleTimeout;
+
+  private RegistryOptions(int shardCount, int maxLoadedEvents, Duration idleTimeout) {
+    this.shardCount = shardCount;
+    this.maxLoadedEvents = maxLoadedEvents;
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Returns options with one shard per available processor, at most 2^20 stored
+   * events loaded per shard, and no idle timeout.
+   *
+   * @return the default options
+   */
+  public static RegistryOptions defaults() {
+    return new RegistryOptions(Runtime.getRuntime().availableProcessors(),
+        DEFAULT_MAX_LOADED_EVENTS, null);
+  }
+
+  /**
+   * Returns these options with the given number of shards, each with a worker
+   * thread of its own.
+   *
+   * @param shards the number of shards
+   * @return the new options
+   * @throws IllegalArgumentException if the number is not positive
+   */
+  public RegistryOptions withShardCount(int shards) {
+    if (shards <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    return new RegistryOptions(shards, maxLoadedEvents, idleTimeout);
+  }
+
+  /**
+   * Returns these options with each shard keeping at most the given number of
+   * stored events and series loaded.
+   *
+   * @param events the number of events per shard
+   * @return the new options
+   * @throws IllegalArgumentException if the number is not positive
+   */
+  public RegistryOptions withMaxLoadedEvents(int events) {
+    if (events <= 0) {
+      throw new IllegalArgumentException("Loaded events must be positive");
+    }
+    return new RegistryOptions(shardCount, events, idleTimeout);
+  }
+
+  /**
+   * Returns these options with calendars saved to disk once they have not been
+   * used for the given time.
+   *
+   * @param timeout the timeout, or null to save calendars only to bound memory
+   * @return the new options
+   * @throws IllegalArgumentException if the timeout is not positive
+   */
+  public RegistryOptions withIdleTimeout(Duration timeout) {
+    if (timeout != null && (timeout.isZero() || timeout.isNegative())) {
+      throw new IllegalArgumentException("Idle timeout must be positive");
+    }
+    return new RegistryOptions(shardCount, maxLoadedEvents, timeout);
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public int getMaxLoadedEvents() {
+    return maxLoadedEvents;
+  }
+
+  /**
+   * Returns how long a calendar may go unused before it is saved to disk.
+   *
+   * @return the timeout, or null if calendars are saved only to bound memory
+   */
+  public Duration getIdleTimeout() {
+    return idleTimeout;
+  }
+}
@@ -0,0 +1,460 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongConsumer;
+
+/**
+ * A recurring event stored as a rule rather than as a list of occurrences.
+ *
+ * <p>The rule records the days of the week, the first and last occurrence dates
+ * and the fields every occurrence shares. Occurrences are computed from the rule
+ * when a query reaches them and handed out as lightweight {@link Event} views. An
+ * occurrence that is edited on its own is materialized into a regular event and
+ * kept in {@link #overrides}, keyed by the date the rule gave it, and the rule
+ * skips that date from then on. Memory therefore grows with the number of series
+ * and edited occurrences, not with the number of occurrences. The overrides are a
+ * skip list so that lock-free readers of a {@link ConcurrentCalendar} can look
+ * dates up while a writer adds to them.
+ *
+ * <p>Editing a series from some occurrence onwards splits it in two. The earlier
+ * part keeps a link to the later part, so views created before the split still
+ * {@linkplain #resolve(LocalDate) resolve} to the part that now owns their date.
+ */
+final class Series {
+
+  private static final long[] NO_DAYS = new long[0];
+
+  private final long id;
+  private final Set<DayOfWeek> days;
+  private final int[] offsets;
+  private final int dayMask;
+  private final LocalDate firstDate;
+  private LocalDate lastDate;
+  private String subject;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private String visibility;
+  private String description;
+  private String location;
+  private long version;
+  private final NavigableMap<LocalDate, Event> overrides = new ConcurrentSkipListMap<>();
+  private volatile long[] editedDays = NO_DAYS;
+  private Series next;
+
+  /**
+   * Creates a series whose occurrences fall on the given days, starting at the
+   * first such day on or after {@code startDate}.
+   */
+  Series(long id, String subject, Set<DayOfWeek> days, LocalDate startDate,
+      LocalTime startTime, LocalTime endTime, String visibility, String description,
+      String location) {
+    this.id = id;
+    this.days = EnumSet.copyOf(days);
+    LocalDate first = startDate;
+    while (!this.days.contains(first.getDayOfWeek())) {
+      first = first.plusDays(1);
+    }
+    this.firstDate = first;
+    this.lastDate = first;
+    this.offsets = new int[this.days.size()];
+    int mask = 0;
+    for (DayOfWeek day : this.days) {
+      mask |= 1 << Math.floorMod(day.getValue() - first.getDayOfWeek().getValue(), 7);
+    }
+    for (int offset = 0, i = 0; offset < 7; offset++) {
+      if ((mask & (1 << offset)) != 0) {
+        offsets[i++] = offset;
+      }
+    }
+    this.dayMask = mask;
+    this.subject = subject;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.visibility = visibility;
+    this.description = description;
+    this.location = location;
+  }
+
+  long getId() {
+    return id;
+  }
+
+  String getSubject() {
+    return subject;
+  }
+
+  LocalTime getStartTime() {
+    return startTime;
+  }
+
+  LocalTime getEndTime() {
+    return endTime;
+  }
+
+  String getVisibility() {
+    return visibility;
+  }
+
+  String getDescription() {
+    return description;
+  }
+
+  String getLocation() {
+    return location;
+  }
+
+  /**
+   * Returns the calendar version of the change that last created or changed the
+   * rule.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  void setVersion(long version) {
+    this.version = version;
+  }
+
+  LocalDate getFirstDate() {
+    return firstDate;
+  }
+
+  LocalDate getLastDate() {
+    return lastDate;
+  }
+
+  Set<DayOfWeek> getDays() {
+    return EnumSet.copyOf(days);
+  }
+
+  /**
+   * Ends the series after its {@code count}th occurrence.
+   */
+  void endAfter(int count) {
+    lastDate = occurrenceDate(count - 1);
+  }
+
+  /**
+   * Ends the series at its last occurrence on or before {@code untilDate}.
+   *
+   * @return false if no occurrence falls on or before that date
+   */
+  boolean endOnOrBefore(LocalDate untilDate) {
+    int count = countUntil(untilDate);
+    if (count == 0) {
+      return false;
+    }
+    endAfter(count);
+    return true;
+  }
+
+  /**
+   * Returns the date of the occurrence at the given position, counting from zero.
+   */
+  LocalDate occurrenceDate(int position) {
+    return firstDate.plusDays(offset(position));
+  }
+
+  /**
+   * Returns the number of occurrences on or before {@code date}, edited or not.
+   */
+  int countUntil(LocalDate date) {
+    long daysIn = date.toEpochDay() - firstDate.toEpochDay();
+    if (daysIn < 0) {
+      return 0;
+    }
+    long count = daysIn / 7 * offsets.length;
+    int rest = (int) (daysIn % 7);
+    for (int offset : offsets) {
+      if (offset <= rest) {
+        count++;
+      }
+    }
+    return (int) count;
+  }
+
+  /**
+   * Returns the number of occurrences, edited or not.
+   */
+  int occurrenceCount() {
+    return countUntil(lastDate);
+  }
+
+  /**
+   * Returns the number of occurrences still described by the rule alone.
+   */
+  int virtualCount() {
+    return occurrenceCount() - overrides.size();
+  }
+
+  boolean isOccurrence(long epochDay) {
+    long daysIn = epochDay - firstDate.toEpochDay();
+    return daysIn >= 0 && epochDay <= lastDate.toEpochDay()
+        && (dayMask & (1 << (int) (daysIn % 7))) != 0;
+  }
+
+  /**
+   * Returns whether the rule alone describes the occurrence on the given day,
+   * that is, there is an occurrence that has not been edited on its own.
+   */
+  boolean isVirtual(long epochDay) {
+    return isOccurrence(epochDay)
+        && !isEdited(epochDay);
+  }
+
+  /**
+   * Returns whether the occurrence on the given day was edited on its own. The
+   * epoch days of the overrides are kept in a sorted array beside the map, so the
+   * check needs no {@link LocalDate} and allocates nothing.
+   */
+  private boolean isEdited(long epochDay) {
+    long[] edited = editedDays;
+    return edited.length != 0 && Arrays.binarySearch(edited, epochDay) >= 0;
+  }
+
+  /**
+   * Copies the epoch days of the overrides into {@link #editedDays}.
+   */
+  private void refreshEditedDays() {
+    long[] edited = new long[overrides.size()];
+    int i = 0;
+    for (LocalDate date : overrides.keySet()) {
+      edited[i++] = date.toEpochDay();
+    }
+    editedDays = edited;
+  }
+
+  long occurrenceStart(long epochDay) {
+    return epochDay * Event.MINUTES_PER_DAY
+        + (startTime == null ? 0 : Event.minuteOfDay(startTime));
+  }
+
+  long occurrenceEnd(long epochDay) {
+    return endTime == null
+        ? (epochDay + 1) * Event.MINUTES_PER_DAY
+        : epochDay * Event.MINUTES_PER_DAY + Event.minuteOfDay(endTime);
+  }
+
+  /**
+   * Returns the first minute of the first occurrence, counted from the epoch.
+   */
+  long spanStart() {
+    return occurrenceStart(firstDate.toEpochDay());
+  }
+
+  /**
+   * Returns the first minute after the last occurrence, counted from the epoch.
+   */
+  long spanEnd() {
+    return occurrenceEnd(lastDate.toEpochDay());
+  }
+
+  /**
+   * Returns whether an unedited occurrence overlaps {@code [start, end)}.
+   */
+  boolean hasVirtualOverlapping(long start, long end) {
+    long firstDay = Math.max(Math.floorDiv(start, Event.MINUTES_PER_DAY),
+        firstDate.toEpochDay());
+    long lastDay = Math.min(Math.floorDiv(end - 1, Event.MINUTES_PER_DAY),
+        lastDate.toEpochDay());
+    for (long day = firstDay; day <= lastDay; day++) {
+      if (isVirtual(day) && occurrenceStart(day) < end && occurrenceEnd(day) > start) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether an unedited occurrence starts exactly at {@code start}.
+   */
+  boolean hasVirtualStartingAt(long start) {
+    long day = Math.floorDiv(start, Event.MINUTES_PER_DAY);
+    return isVirtual(day) && occurrenceStart(day) == start;
+  }
+
+  /**
+   * Returns the day of the first unedited occurrence on or after {@code fromDay}.
+   *
+   * @return the epoch day, or {@code Long.MAX_VALUE} if there is none
+   */
+  long nextVirtualDay(long fromDay) {
+    long first = firstDate.toEpochDay();
+    long last = lastDate.toEpochDay();
+    long from = Math.max(fromDay, first);
+    if (from > last) {
+      return Long.MAX_VALUE;
+    }
+    int position = countUntil(LocalDate.ofEpochDay(from - 1));
+    for (long day = first + offset(position); day <= last; day = first + offset(++position)) {
+      if (!isEdited(day)) {
+        return day;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Visits, in date order, the day of every unedited occurrence from
+   * {@code fromDay} to {@code toDay} inclusive.
+   *
+   * <p>The walk steps from occurrence to occurrence by the rule's day offsets rather
+   * than day by day, and skips edited occurrences by walking the sorted overrides
+   * alongside, so it costs one step per occurrence in range.
+   */
+  void forEachVirtualDay(long fromDay, long toDay, LongConsumer action) {
+    long first = firstDate.toEpochDay();
+    long last = Math.min(toDay, lastDate.toEpochDay());
+    long from = Math.max(fromDay, first);
+    if (from > last) {
+      return;
+    }
+    Iterator<LocalDate> edited = overrides.isEmpty() ? null
+        : overrides.navigableKeySet().tailSet(LocalDate.ofEpochDay(from), true).iterator();
+    long nextEdited = nextDay(edited);
+    int position = countUntil(LocalDate.ofEpochDay(from - 1));
+    for (long day = first + offset(position); day <= last; day = first + offset(++position)) {
+      while (nextEdited < day) {
+        nextEdited = nextDay(edited);
+      }
+      if (day != nextEdited) {
+        action.accept(day);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of days from the first occurrence to the occurrence at the
+   * given position.
+   */
+  private long offset(int position) {
+    return 7L * (position / offsets.length) + offsets[position % offsets.length];
+  }
+
+  private static long nextDay(Iterator<LocalDate> dates) {
+    return dates != null && dates.hasNext() ? dates.next().toEpochDay() : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the part of this series that owns the occurrence on {@code date},
+   * following splits made after a view was created.
+   */
+  Series resolve(LocalDate date) {
+    Series owner = this;
+    while (owner.next != null && !date.isBefore(owner.next.firstDate)) {
+      owner = owner.next;
+    }
+    return owner;
+  }
+
+  Event getOverride(LocalDate date) {
+    return overrides.isEmpty() ? null : overrides.get(date);
+  }
+
+  void putOverride(LocalDate date, Event occurrence) {
+    if (overrides.put(date, occurrence) == null) {
+      long[] edited = editedDays;
+      int at = -Arrays.binarySearch(edited, date.toEpochDay()) - 1;
+      long[] added = new long[edited.length + 1];
+      System.arraycopy(edited, 0, added, 0, at);
+      added[at] = date.toEpochDay();
+      System.arraycopy(edited, at, added, at + 1, edited.length - at);
+      editedDays = added;
+    }
+  }
+
+  void removeOverride(LocalDate date) {
+    if (overrides.remove(date) != null) {
+      refreshEditedDays();
+    }
+  }
+
+  /**
+   * Returns the occurrences that have been edited on their own, by rule date.
+   */
+  Map<LocalDate, Event> getOverrides() {
+    return overrides;
+  }
+
+  /**
+   * Returns the occurrences in date order as views, fixed to the dates this series
+   * covers when the list is created.
+   */
+  List<Event> views(Calendar calendar) {
+    int size = occurrenceCount();
+    return new AbstractList<>() {
+      @Override
+      public Event get(int position) {
+        if (position < 0 || position >= size) {
+          throw new IndexOutOfBoundsException(position);
+        }
+        return new Event(calendar, Series.this, occurrenceDate(position));
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  void setRule(String subject, LocalTime startTime, LocalTime endTime, String visibility,
+      String description, String location) {
+    this.subject = subject;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.visibility = visibility;
+    this.description = description;
+    this.location = location;
+  }
+
+  /**
+   * Moves the occurrences from {@code date} onwards, along with their overrides,
+   * into a new series that continues this one.
+   *
+   * @param date an occurrence date after the first occurrence
+   * @param newId the id of the new series
+   * @return the new series
+   */
+  Series splitAt(LocalDate date, long newId) {
+    Series tail = new Series(newId, subject, days, date, startTime, endTime, visibility,
+        description, location);
+    tail.lastDate = lastDate;
+    tail.next = next;
+    NavigableMap<LocalDate, Event> moved = overrides.tailMap(date, true);
+    for (Event occurrence : moved.values()) {
+      occurrence.moveToSeries(tail);
+    }
+    tail.overrides.putAll(moved);
+    moved.clear();
+    tail.refreshEditedDays();
+    refreshEditedDays();
+    lastDate = occurrenceDate(countUntil(date) - 2);
+    next = tail;
+    return tail;
+  }
+
+  /**
+   * Undoes {@link #splitAt}, taking the occurrences of {@code tail} back.
+   */
+  void rejoin(Series tail) {
+    lastDate = tail.lastDate;
+    next = tail.next;
+    for (Event occurrence : tail.overrides.values()) {
+      occurrence.moveToSeries(this);
+    }
+    overrides.putAll(tail.overrides);
+    refreshEditedDays();
+  }
+}
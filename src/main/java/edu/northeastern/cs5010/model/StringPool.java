@@ -0,0 +1,105 @@
+package edu.northeastern.cs5010.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned strings, each stored once and referred to by an int id.
+ *
+ * <p>Every id is reference counted: {@link #intern} takes a reference and
+ * {@link #release} gives one back. A string whose last reference is released is
+ * dropped and its id reused, so renaming events or rewriting their descriptions
+ * does not leave old strings behind. Null is never stored and has the id
+ * {@value #NULL}.
+ *
+ * <p>Only one thread changes the pool at a time, but lookups by string may run
+ * alongside a change, so the map of ids is a concurrent one.
+ */
+final class StringPool {
+
+  /**
+   * The id of a null string.
+   */
+  static final int NULL = -1;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private String[] values = new String[16];
+  private int[] references = new int[16];
+  private int[] freeIds = new int[16];
+  private int freeCount;
+  private int size;
+
+  /**
+   * Returns the id of a string, adding it if it is not pooled yet, and takes a
+   * reference to it.
+   *
+   * @param value the string, may be null
+   * @return its id
+   */
+  int intern(String value) {
+    if (value == null) {
+      return NULL;
+    }
+    Integer existing = ids.get(value);
+    int id;
+    if (existing != null) {
+      id = existing;
+    } else {
+      id = freeCount > 0 ? freeIds[--freeCount] : size++;
+      if (id == values.length) {
+        values = Arrays.copyOf(values, id * 2);
+        references = Arrays.copyOf(references, id * 2);
+      }
+      values[id] = value;
+      ids.put(value, id);
+    }
+    references[id]++;
+    return id;
+  }
+
+  /**
+   * Gives back a reference taken by {@link #intern}.
+   *
+   * @param id the id of the string
+   */
+  void release(int id) {
+    if (id == NULL || --references[id] > 0) {
+      return;
+    }
+    ids.remove(values[id]);
+    values[id] = null;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+  }
+
+  /**
+   * Returns the id of a pooled string without taking a reference.
+   *
+   * @param value the string, may be null
+   * @return its id, or {@value #NULL} if it is null or not pooled
+   */
+  int find(String value) {
+    Integer id = value == null ? null : ids.get(value);
+    return id == null ? NULL : id;
+  }
+
+  /**
+   * Returns the string with the given id.
+   *
+   * @param id the id
+   * @return the string, or null for {@value #NULL}
+   */
+  String get(int id) {
+    return id == NULL ? null : values[id];
+  }
+
+  /**
+   * Returns the number of distinct strings pooled.
+   */
+  int size() {
+    return ids.size();
+  }
+}
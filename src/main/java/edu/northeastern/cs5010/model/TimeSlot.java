@@ -0,0 +1,67 @@
+package edu.northeastern.cs5010.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A stretch of free time, from its start up to but not including its end.
+ */
+public final class TimeSlot {
+
+  private final LocalDateTime start;
+  private final LocalDateTime end;
+
+  /**
+   * Creates a slot.
+   *
+   * @param start the start of the slot
+   * @param end the end of the slot, after the start
+   * @throws IllegalArgumentException if either bound is null or the end is not
+   *     after the start
+   */
+  public TimeSlot(LocalDateTime start, LocalDateTime end) {
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("Start and end cannot be null");
+    }
+    if (!end.isAfter(start)) {
+      throw new IllegalArgumentException("End must be after start");
+    }
+    this.start = start;
+    this.end = end;
+  }
+
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  public LocalDateTime getEnd() {
+    return end;
+  }
+
+  public Duration getDuration() {
+    return Duration.between(start, end);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TimeSlot)) {
+      return false;
+    }
+    TimeSlot other = (TimeSlot) o;
+    return start.equals(other.start) && end.equals(other.end);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(start, end);
+  }
+
+  @Override
+  public String toString() {
+    return "[" + start + " - " + end + ")";
+  }
+}
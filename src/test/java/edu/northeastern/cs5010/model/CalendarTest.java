@@ -7,15 +7,43 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Comprehensive test suite for the Calendar class.
@@ -187,6 +215,90 @@ class CalendarTest {
 
       assertEquals(2, cal.getEventCount());
     }
+
+    @Test
+    @DisplayName("Should allow back-to-back events when conflicts not allowed")
+    void testBackToBackEventsDoNotConflict() {
+      Calendar cal = new Calendar("Strict Calendar", "Public", false);
+
+      cal.createEvent("Meeting 1", testDate, testDate,
+          LocalTime.of(10, 0), LocalTime.of(11, 0), null, null, null);
+
+      assertDoesNotThrow(() ->
+          cal.createEvent("Meeting 2", testDate, testDate,
+              LocalTime.of(11, 0), LocalTime.of(12, 0), null, null, null));
+      assertThrows(IllegalArgumentException.class,
+          () -> cal.createEvent("All Day", testDate, testDate));
+    }
+  }
+
+  @Nested
+  @DisplayName("Batch Event Creation Tests")
+  class BatchEventCreationTests {
+
+    @Test
+    @DisplayName("Should create every event of a batch")
+    void testCreateEvents() {
+      List<EventSpec> specs = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        specs.add(new EventSpec("Event " + i, testDate.plusDays(i % 30),
+            testDate.plusDays(i % 30), LocalTime.of(i % 24, 0), LocalTime.of(i % 24, 30),
+            null, null, null));
+      }
+
+      List<Event> created = calendar.createEvents(specs);
+
+      assertEquals(1000, created.size());
+      assertEquals(1000, calendar.getEventCount());
+      assertEquals("Event 0", created.get(0).getSubject());
+      assertEquals("Public", created.get(999).getVisibility());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch if it contains a duplicate")
+    void testRejectBatchWithDuplicate() {
+      calendar.createEvent("Existing", testDate, testDate);
+      List<EventSpec> specs = List.of(
+          new EventSpec("Meeting", testDate, testDate, testTime, testTime.plusHours(1),
+              null, null, null),
+          new EventSpec("Review", testDate, testDate.plusDays(1)),
+          new EventSpec("Meeting", testDate, testDate, testTime, testTime.plusHours(2),
+              null, null, null));
+
+      assertThrows(IllegalArgumentException.class, () -> calendar.createEvents(specs));
+      assertEquals(1, calendar.getEventCount());
+      assertThrows(IllegalArgumentException.class, () -> calendar.createEvents(
+          List.of(new EventSpec("Existing", testDate, testDate))));
+      assertEquals(1, calendar.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch on conflicts when conflicts not allowed")
+    void testRejectBatchWithConflict() {
+      Calendar strict = new Calendar("Strict", "Public", false);
+      strict.createEvent("Existing", testDate, testDate, LocalTime.of(9, 0),
+          LocalTime.of(10, 0), null, null, null);
+
+      assertThrows(IllegalArgumentException.class, () -> strict.createEvents(List.of(
+          new EventSpec("First", testDate, testDate, LocalTime.of(10, 0),
+              LocalTime.of(11, 0), null, null, null),
+          new EventSpec("Overlaps First", testDate, testDate, LocalTime.of(10, 30),
+              LocalTime.of(11, 30), null, null, null))));
+      assertThrows(IllegalArgumentException.class, () -> strict.createEvents(List.of(
+          new EventSpec("Overlaps Existing", testDate, testDate, LocalTime.of(9, 30),
+              LocalTime.of(10, 30), null, null, null))));
+      assertThrows(IllegalArgumentException.class, () -> strict.createEvents(List.of(
+          new EventSpec("Invalid", testDate, testDate, LocalTime.of(12, 0),
+              LocalTime.of(11, 0), null, null, null))));
+      assertEquals(1, strict.getEventCount());
+
+      strict.createEvents(List.of(
+          new EventSpec("Second", testDate, testDate, LocalTime.of(11, 0),
+              LocalTime.of(12, 0), null, null, null),
+          new EventSpec("First", testDate, testDate, LocalTime.of(10, 0),
+              LocalTime.of(11, 0), null, null, null)));
+      assertEquals(3, strict.getEventCount());
+    }
   }
 
   @Nested
@@ -270,6 +382,34 @@ class CalendarTest {
               null, null, null));
     }
 
+    @Test
+    @DisplayName("Should report the earliest failing occurrence of a long series")
+    void testLongSeriesReportsEarliestFailure() {
+      Calendar cal = new Calendar("Strict Calendar", "Public", false);
+      Set<DayOfWeek> everyDay = Set.of(DayOfWeek.values());
+      cal.createEvent("Daily", testDate.plusDays(7000), testDate.plusDays(7000),
+          testTime, testTime.plusHours(1), null, null, null);
+      cal.createEvent("Blocker", testDate.plusDays(9000), testDate.plusDays(9000),
+          testTime, testTime.plusMinutes(30), null, null, null);
+
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+          () -> cal.createRecurringEvent("Daily", testDate, testTime, testTime.plusHours(1),
+              everyDay, 10000, null, null, null, null));
+      assertTrue(e.getMessage().contains("same subject"));
+      assertEquals(2, cal.getEventCount());
+
+      cal.createRecurringEvent("Daily", testDate.plusDays(9001), testTime,
+          testTime.plusHours(1), everyDay, 10000, null, null, null, null);
+      assertEquals(10002, cal.getEventCount());
+      cal.createEvent("Late", testDate.plusDays(15000), testDate.plusDays(15000),
+          testTime.plusHours(1), testTime.plusHours(2), null, null, null);
+      assertThrows(IllegalArgumentException.class,
+          () -> cal.modifyAllRecurringEvents("Daily", testDate.plusDays(9001), testTime,
+              occurrence -> occurrence.setEndTime(testTime.plusMinutes(90))));
+      assertEquals(testTime.plusHours(1), cal.getEvent("Daily", testDate.plusDays(9001),
+          testTime).getEndTime());
+    }
+
     @Test
     @DisplayName("Should require either occurrence count or end date")
     void testRecurringEventRequiresCountOrEndDate() {
@@ -315,6 +455,27 @@ class CalendarTest {
         assertEquals("Public", event.getVisibility());
       }
     }
+
+    @Test
+    @DisplayName("Should answer queries on a long-running series without listing it")
+    void testLongRunningSeries() {
+      LocalDate monday = LocalDate.of(2025, 11, 10);
+      Set<DayOfWeek> weekdays = Set.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+          DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+      List<Event> events = calendar.createRecurringEvent("Daily Standup", monday,
+          LocalTime.of(9, 0), LocalTime.of(9, 15), weekdays, null,
+          monday.plusYears(10), null, null, null);
+
+      assertEquals(events.size(), calendar.getEventCount());
+      assertEquals(LocalDate.of(2035, 11, 9),
+          events.get(events.size() - 1).getStartDate());
+      LocalDate farMonday = monday.plusWeeks(400);
+      assertEquals(1, calendar.getEventsOnDate(farMonday).size());
+      assertTrue(calendar.isBusyAt(farMonday, LocalTime.of(9, 10)));
+      assertFalse(calendar.isBusyAt(farMonday.plusDays(5), LocalTime.of(9, 10)));
+      assertNotNull(calendar.getEvent("Daily Standup", farMonday, LocalTime.of(9, 0)));
+    }
   }
 
   @Nested
@@ -422,6 +583,47 @@ class CalendarTest {
 
       assertEquals(3, allEvents.size());
     }
+
+    @Test
+    @DisplayName("Should keep busy times current as events change")
+    void testBusyAtFollowsEdits() {
+      Event lunch = calendar.getEvent("Lunch", testDate, LocalTime.of(12, 0));
+      assertTrue(calendar.isBusyAt(testDate, LocalTime.of(12, 30)));
+
+      lunch.setStartTime(LocalTime.of(13, 0));
+      assertFalse(calendar.isBusyAt(testDate, LocalTime.of(12, 30)));
+      assertTrue(calendar.isBusyAt(testDate, LocalTime.of(13, 59)));
+      assertFalse(calendar.isBusyAt(testDate, LocalTime.of(14, 0)));
+
+      LocalDate monday = LocalDate.of(2025, 11, 10);
+      assertFalse(calendar.isBusyAt(monday, LocalTime.of(8, 15)));
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(8, 0),
+          LocalTime.of(8, 30), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      assertTrue(calendar.isBusyAt(monday, LocalTime.of(8, 15)));
+      calendar.modifyAllRecurringEvents("Standup", monday, LocalTime.of(8, 0),
+          occurrence -> occurrence.setStartTime(LocalTime.of(9, 0)));
+      assertFalse(calendar.isBusyAt(monday, LocalTime.of(8, 15)));
+      assertTrue(calendar.isBusyAt(monday.plusWeeks(3), LocalTime.of(9, 15)));
+    }
+
+    @Test
+    @DisplayName("Should find free slots long enough for a duration")
+    void testFindFreeSlots() {
+      List<TimeSlot> slots = calendar.findFreeSlots(testDate, Duration.ofMinutes(150));
+
+      assertEquals(List.of(
+          new TimeSlot(testDate.atStartOfDay(), testDate.atTime(9, 0)),
+          new TimeSlot(testDate.atTime(16, 0), testDate.plusDays(1).atStartOfDay())),
+          slots);
+      assertEquals(4, calendar.findFreeSlots(testDate, Duration.ofHours(2)).size());
+      assertTrue(calendar.findFreeSlots(testDate, Duration.ofHours(10)).isEmpty());
+
+      calendar.createEvent("Offsite", testDate.plusDays(1), testDate.plusDays(1));
+      assertTrue(calendar.findFreeSlots(testDate.plusDays(1), Duration.ofMinutes(1))
+          .isEmpty());
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.findFreeSlots(testDate, Duration.ZERO));
+    }
   }
 
   @Nested
@@ -463,6 +665,69 @@ class CalendarTest {
       assertEquals("Room 202", event.getLocation());
     }
 
+    @Test
+    @DisplayName("Should find events by their new subject and start after edits")
+    void testLookupFollowsRekeying() {
+      event.setSubject("Renamed Meeting");
+      event.setStartTime(testTime.plusHours(3));
+
+      assertNull(calendar.getEvent("Editable Meeting", testDate, testTime));
+      assertNull(calendar.getEvent("Renamed Meeting", testDate, testTime));
+      assertSame(event, calendar.getEvent("Renamed Meeting", testDate, testTime.plusHours(3)));
+      assertDoesNotThrow(() -> calendar.createEvent("Editable Meeting", testDate, testDate,
+          testTime, testTime.plusMinutes(30), null, null, null));
+
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        LocalDate date = testDate.plusDays(i);
+        events.add(calendar.createEvent("Event " + i % 7, date, date));
+      }
+      for (int i = 0; i < 500; i += 2) {
+        events.get(i).setSubject("Moved " + i);
+      }
+      for (int i = 0; i < 500; i++) {
+        String subject = i % 2 == 0 ? "Moved " + i : "Event " + i % 7;
+        assertSame(events.get(i), calendar.getEvent(subject, testDate.plusDays(i), null));
+      }
+    }
+
+    @Test
+    @DisplayName("Should keep only the strings events still use")
+    void testPooledStringsFollowEdits() {
+      int strings = calendar.getStore().distinctStrings();
+      for (int i = 0; i < 100; i++) {
+        event.setSubject("Meeting " + i);
+        event.setDescription("Draft " + i);
+      }
+      assertThrows(IllegalArgumentException.class, () -> calendar.createEvent("Meeting 99",
+          testDate, testDate, testTime, testTime.plusHours(1), null, "Rejected", null));
+
+      assertEquals(strings, calendar.getStore().distinctStrings());
+      assertEquals("Meeting 99", event.getSubject());
+      assertEquals("Draft 99", event.getDescription());
+    }
+
+    @Test
+    @DisplayName("Should keep any number of distinct visibilities")
+    void testManyVisibilities() {
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < 300; i++) {
+        LocalDate date = testDate.plusDays(i + 1);
+        events.add(calendar.createEvent("Visible " + i, date, date, testTime,
+            testTime.plusHours(1), "Level " + i, null, null));
+      }
+      for (int i = 0; i < 300; i++) {
+        assertEquals("Level " + i, events.get(i).getVisibility());
+      }
+      events.get(299).setVisibility("Level 0");
+      events.get(0).setVisibility("Level 299");
+      events.get(298).setVisibility("Level 300");
+      assertEquals("Level 0", events.get(299).getVisibility());
+      assertEquals("Level 299", events.get(0).getVisibility());
+      assertEquals("Level 300", events.get(298).getVisibility());
+      assertEquals("Level 1", events.get(1).getVisibility());
+    }
+
     @Test
     @DisplayName("Should modify event times")
     void testModifyTimes() {
@@ -516,6 +781,24 @@ class CalendarTest {
       assertThrows(IllegalArgumentException.class,
           () -> event2.setStartTime(LocalTime.of(10, 30)));
     }
+
+    @Test
+    @DisplayName("Should allow moving an event over its own time slot when conflicts not allowed")
+    void testMoveWithinOwnSlot() {
+      Calendar strictCal = new Calendar("Strict", "Public", false);
+      strictCal.createEvent("Meeting 1", testDate, testDate,
+          LocalTime.of(9, 0), LocalTime.of(10, 0), null, null, null);
+      Event moved = strictCal.createEvent("Meeting 2", testDate, testDate,
+          LocalTime.of(10, 0), LocalTime.of(11, 0), null, null, null);
+
+      moved.setStartTime(LocalTime.of(10, 30));
+
+      assertEquals(LocalTime.of(11, 30), moved.getEndTime());
+      assertFalse(strictCal.isBusyAt(testDate, LocalTime.of(10, 15)));
+      assertThrows(IllegalArgumentException.class,
+          () -> moved.setStartTime(LocalTime.of(9, 30)));
+      assertEquals(LocalTime.of(10, 30), moved.getStartTime());
+    }
   }
 
   @Nested
@@ -614,17 +897,104 @@ class CalendarTest {
 
       // Create another event that would conflict
       strictCal.createEvent("Important Call", startDate.plusDays(1),
-          startDate.plusDays(1), LocalTime.of(10, 30),
+          startDate.plusDays(1), LocalTime.of(11, 0),
           LocalTime.of(11, 30), null, null, null);
 
       // Try to move Tuesday meetings to conflict
       assertThrows(IllegalArgumentException.class,
           () -> strictCal.modifyAllRecurringEvents("Tuesday Meeting",
-              startDate, LocalTime.of(10, 0), event -> {
+              startDate.plusDays(1), LocalTime.of(10, 0), event -> {
                 event.setStartTime(LocalTime.of(10, 15));
               }));
     }
 
+    @Test
+    @DisplayName("Should check series edits only where occurrences newly reach")
+    void testSeriesEditChecksChangedTimes() {
+      Calendar strictCal = new Calendar("Strict", "Public", false);
+      List<Event> meetings = strictCal.createRecurringEvent("Tuesday Meeting",
+          startDate, LocalTime.of(10, 0), LocalTime.of(11, 0),
+          Set.of(DayOfWeek.TUESDAY), 4, null, null, null, null);
+      LocalDate second = meetings.get(1).getStartDate();
+      strictCal.createEvent("Prep", second, second, LocalTime.of(9, 30),
+          LocalTime.of(10, 0), null, null, null);
+      strictCal.createEvent("Follow-up", second, second, LocalTime.of(11, 0),
+          LocalTime.of(11, 30), null, null, null);
+      meetings.get(2).setDescription("Edited");
+
+      strictCal.modifyAllRecurringEvents("Tuesday Meeting", second, LocalTime.of(10, 0),
+          event -> {
+            event.setSubject("Review");
+            event.setEndTime(LocalTime.of(10, 45));
+          });
+      assertThrows(IllegalArgumentException.class,
+          () -> strictCal.modifyAllRecurringEvents("Review", second, LocalTime.of(10, 0),
+              event -> event.setStartTime(LocalTime.of(9, 45))));
+
+      for (Event meeting : meetings) {
+        assertEquals("Review", meeting.getSubject());
+        assertEquals(LocalTime.of(10, 0), meeting.getStartTime());
+        assertEquals(LocalTime.of(10, 45), meeting.getEndTime());
+      }
+      assertEquals("Edited", meetings.get(2).getDescription());
+      assertEquals(6, strictCal.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Should keep single-instance edits when editing the whole series")
+    void testSeriesEditKeepsInstanceEdits() {
+      recurringEvents.get(1).setDescription("Holiday");
+
+      calendar.modifyAllRecurringEvents("Weekly Standup", startDate,
+          LocalTime.of(9, 0), event -> event.setLocation("Room 5"));
+
+      assertEquals("Holiday", recurringEvents.get(1).getDescription());
+      assertEquals("Team sync", recurringEvents.get(2).getDescription());
+      for (Event event : recurringEvents) {
+        assertEquals("Room 5", event.getLocation());
+      }
+      assertEquals(6, calendar.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Should move only later occurrences when editing series from date")
+    void testMoveSeriesFromDate() {
+      LocalDate splitDate = recurringEvents.get(3).getStartDate();
+
+      calendar.modifyRecurringEventsFrom("Weekly Standup", splitDate,
+          LocalTime.of(9, 0), event -> event.setStartTime(LocalTime.of(10, 0)));
+
+      assertEquals(LocalTime.of(9, 0), recurringEvents.get(2).getStartTime());
+      assertEquals(LocalTime.of(10, 0), recurringEvents.get(3).getStartTime());
+      assertEquals(LocalTime.of(10, 30), recurringEvents.get(5).getEndTime());
+      assertNotNull(calendar.getEvent("Weekly Standup", splitDate, LocalTime.of(10, 0)));
+      assertNull(calendar.getEvent("Weekly Standup", splitDate, LocalTime.of(9, 0)));
+      assertEquals(6, calendar.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Should leave the series unchanged when a series edit fails")
+    void testFailedSeriesEditIsRolledBack() {
+      recurringEvents.get(4).setDescription("Edited");
+      LocalDate splitDate = recurringEvents.get(3).getStartDate();
+
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.modifyRecurringEventsFrom("Weekly Standup", splitDate,
+              LocalTime.of(9, 0), event -> {
+                event.setLocation("Moved");
+                if ("Edited".equals(event.getDescription())) {
+                  event.setEndTime(LocalTime.of(8, 0));
+                }
+              }));
+
+      for (Event event : recurringEvents) {
+        assertEquals("Conference Room", event.getLocation());
+      }
+      calendar.modifyAllRecurringEvents("Weekly Standup", startDate,
+          LocalTime.of(9, 0), event -> event.setLocation("Everywhere"));
+      assertEquals("Everywhere", recurringEvents.get(5).getLocation());
+    }
+
     @Test
     @DisplayName("Should identify events as part of recurring series")
     void testIdentifyRecurringSeries() {
@@ -792,6 +1162,122 @@ class CalendarTest {
       assertTrue(header.contains("Subject"));
       assertTrue(header.contains("Start Date"));
     }
+
+    @Test
+    @DisplayName("Should stream the same CSV to an output stream")
+    void testExportToStream() throws IOException {
+      calendar.createEvent("Meeting, with comma", testDate, testDate,
+          testTime, testTime.plusHours(5), "Private",
+          "Description \"with quotes\"", "Caf\u00e9 \uD83D\uDE00");
+      calendar.createRecurringEvent("Standup", testDate, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.FRIDAY, DayOfWeek.MONDAY), 2, null,
+          null, null, null);
+      File csvFile = tempDir.resolve("stream.csv").toFile();
+      calendar.exportToCSV(csvFile);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      calendar.exportToCSV(out);
+      String content = out.toString(StandardCharsets.UTF_8);
+
+      assertEquals(Files.readString(csvFile.toPath()), content);
+      String[] lines = content.split("\r\n");
+      assertEquals(4, lines.length);
+      assertEquals("Standup,11/07/2025,09:00 AM,11/07/2025,09:15 AM,False,,,False",
+          lines[1]);
+      assertEquals("\"Meeting, with comma\",11/07/2025,10:00 AM,11/07/2025,03:00 PM,"
+          + "False,\"Description \"\"with quotes\"\"\",Caf\u00e9 \uD83D\uDE00,True",
+          lines[2]);
+      assertTrue(lines[3].startsWith("Standup,11/10/2025,"));
+    }
+  }
+
+  @Nested
+  @DisplayName("CSV Import Tests")
+  class CSVImportTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should import events written by CSV export")
+    void testRoundTrip() throws IOException {
+      calendar.createEvent("Meeting, with comma", testDate, testDate, testTime,
+          testTime.plusHours(1), "Private", "Line one\nLine \"two\"", "Room 101");
+      calendar.createEvent("Conference", testDate, testDate.plusDays(2));
+      calendar.createRecurringEvent("Standup", testDate, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 3, null, null, null, null);
+      Path csv = tempDir.resolve("export.csv");
+      calendar.exportToCSV(csv.toFile());
+
+      Calendar imported = new Calendar("Imported");
+      CsvImportResult result = imported.importFromCSV(csv);
+
+      assertFalse(result.hasErrors());
+      assertEquals(5, result.getImportedCount());
+      assertEquals(5, imported.getEventCount());
+      Event meeting = imported.getEvent("Meeting, with comma", testDate, testTime);
+      assertEquals("Line one\nLine \"two\"", meeting.getDescription());
+      assertEquals("Private", meeting.getVisibility());
+      assertEquals(testTime.plusHours(1), meeting.getEndTime());
+      assertTrue(imported.getEvent("Conference", testDate, null).isMultiDay());
+    }
+
+    @Test
+    @DisplayName("Should report bad records and import the rest")
+    void testReportsBadRecords() throws IOException {
+      Path csv = tempDir.resolve("bad.csv");
+      Files.writeString(csv, "Subject,Start Date,Start Time,End Date,End Time\n"
+          + "Good,11/07/2025,10:00 AM,11/07/2025,11:00 AM\n"
+          + "Bad Date,13/45/2025,,,\n"
+          + "Backwards,11/07/2025,11:00 AM,11/07/2025,10:00 AM\n"
+          + "Good,11/07/2025,10:00 AM,11/07/2025,12:00 PM\n"
+          + ",11/07/2025,,,\n");
+
+      CsvImportResult result = calendar.importFromCSV(csv);
+
+      assertEquals(1, result.getImportedCount());
+      assertEquals(List.of(3L, 4L, 5L, 6L), result.getErrors().stream()
+          .map(CsvImportResult.RowError::getRecord).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject conflicting records when conflicts not allowed")
+    void testImportRespectsConflicts() throws IOException {
+      Calendar strict = new Calendar("Strict", "Public", false);
+      strict.createEvent("Existing", testDate, testDate, LocalTime.of(9, 0),
+          LocalTime.of(10, 0), null, null, null);
+      Path csv = tempDir.resolve("conflicts.csv");
+      Files.writeString(csv, "Subject,Start Date,Start Time,End Date,End Time\n"
+          + "Overlaps Existing,11/07/2025,9:30 AM,11/07/2025,10:30 AM\n"
+          + "First,11/07/2025,10:00 AM,11/07/2025,11:00 AM\n"
+          + "Overlaps First,11/07/2025,10:45,11/07/2025,11:30\n"
+          + "After,11/07/2025,11:00 AM,11/07/2025,12:00 PM\n");
+
+      CsvImportResult result = strict.importFromCSV(csv);
+
+      assertEquals(2, result.getImportedCount());
+      assertEquals(2, result.getErrors().size());
+      assertNotNull(strict.getEvent("After", testDate, LocalTime.of(11, 0)));
+    }
+
+    @Test
+    @DisplayName("Should keep quoted line breaks intact across parallel chunks")
+    void testChunkedImport() throws IOException {
+      StringBuilder content = new StringBuilder(CsvEventWriter.HEADER).append("\r\n");
+      for (int i = 0; i < 500; i++) {
+        content.append("Event ").append(i).append(",11/07/2025,,11/07/2025,,True,")
+            .append("\"Notes, part 1\nNotes \"\"part 2\"\"\r\nend\",,False\r\n");
+      }
+      Path csv = tempDir.resolve("chunked.csv");
+      Files.writeString(csv, content);
+
+      CsvImportResult result = calendar.importFromCSV(csv, 100);
+
+      assertFalse(result.hasErrors(), () -> result.getErrors().toString());
+      assertEquals(500, calendar.getEventCount());
+      assertEquals("Notes, part 1\nNotes \"part 2\"\r\nend",
+          calendar.getEvent("Event 499", testDate, null).getDescription());
+    }
   }
 
   @Nested
@@ -943,5 +1429,1184 @@ class CalendarTest {
       assertEquals("Second update", event.getDescription());
       assertEquals("Room 1", event.getLocation());
     }
+
+    @Test
+    @DisplayName("Should reject dates too far out to store")
+    void testRejectUnsupportedDates() {
+      LocalDate far = LocalDate.of(9_999_999, 1, 1);
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.createEvent("Far Future", far, far));
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.createEvent("Far Past", LocalDate.MIN, testDate));
+      Event event = calendar.createEvent("Movable", testDate, testDate, testTime,
+          testTime.plusHours(1), null, null, null);
+      assertThrows(IllegalArgumentException.class, () -> event.setStartDate(far));
+      assertEquals(testDate, event.getStartDate());
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.createRecurringEvent("Forever", testDate, testTime,
+              testTime.plusHours(1), Set.of(DayOfWeek.MONDAY), null, LocalDate.MAX, null,
+              null, null));
+      assertEquals(1, calendar.getEventCount());
+    }
+  }
+
+  @Nested
+  @DisplayName("Concurrency Tests")
+  class ConcurrencyTests {
+
+    private static final int THREADS = 8;
+
+    private void runTogether(List<Callable<Void>> tasks) throws Exception {
+      ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Void>> futures = new ArrayList<>();
+      for (Callable<Void> task : tasks) {
+        futures.add(pool.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+      start.countDown();
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+
+    @Test
+    @DisplayName("Should never accept conflicting events from concurrent writers")
+    void testConcurrentWritersRespectConflicts() throws Exception {
+      Calendar strict = new ConcurrentCalendar("Shared", "Public", false);
+      AtomicInteger created = new AtomicInteger();
+      CountDownLatch writing = new CountDownLatch(THREADS);
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        int seed = t;
+        tasks.add(() -> {
+          Random random = new Random(seed);
+          try {
+            for (int i = 0; i < 500; i++) {
+              LocalDate date = testDate.plusDays(random.nextInt(5));
+              LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextInt(60));
+              try {
+                strict.createEvent("Writer " + seed + " #" + i, date, date, start,
+                    start.plusMinutes(45), null, null, null);
+                created.incrementAndGet();
+              } catch (IllegalArgumentException e) {
+                // Another writer took the slot first.
+              }
+            }
+          } finally {
+            writing.countDown();
+          }
+          return null;
+        });
+      }
+      for (int t = 0; t < THREADS / 2; t++) {
+        Random random = new Random(100 + t);
+        tasks.add(() -> {
+          while (writing.getCount() > 0) {
+            LocalDate date = testDate.plusDays(random.nextInt(5));
+            assertNoOverlaps(strict.getEventsOnDate(date));
+            strict.isBusyAt(date, LocalTime.of(8 + random.nextInt(10), random.nextInt(60)));
+          }
+          return null;
+        });
+      }
+      runTogether(tasks);
+
+      assertEquals(created.get(), strict.getEventCount());
+      for (int day = 0; day < 5; day++) {
+        LocalDate date = testDate.plusDays(day);
+        List<Event> events = strict.getEventsOnDate(date);
+        assertNoOverlaps(events);
+        for (int minute = 0; minute < 24 * 60; minute += 7) {
+          LocalTime time = LocalTime.MIDNIGHT.plusMinutes(minute);
+          boolean covered = events.stream().anyMatch(event ->
+              !time.isBefore(event.getStartTime()) && time.isBefore(event.getEndTime()));
+          assertEquals(covered, strict.isBusyAt(date, time), date + " " + time);
+        }
+      }
+    }
+
+    private void assertNoOverlaps(List<Event> events) {
+      for (int i = 1; i < events.size(); i++) {
+        assertFalse(events.get(i).getStartTime().isBefore(events.get(i - 1).getEndTime()),
+            () -> "Overlapping events: " + events);
+      }
+    }
+
+    @Test
+    @DisplayName("Should keep series consistent under concurrent edits and reads")
+    void testConcurrentSeriesEdits() throws Exception {
+      Calendar shared = new ConcurrentCalendar("Shared");
+      LocalDate monday = LocalDate.of(2025, 11, 10);
+      shared.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 20, null, null, null, null);
+      CountDownLatch editing = new CountDownLatch(1);
+      List<Callable<Void>> tasks = new ArrayList<>();
+      tasks.add(() -> {
+        try {
+          for (int i = 0; i < 200; i++) {
+            LocalTime from = i % 2 == 0 ? LocalTime.of(9, 0) : LocalTime.of(10, 0);
+            LocalTime to = i % 2 == 0 ? LocalTime.of(10, 0) : LocalTime.of(9, 0);
+            shared.modifyAllRecurringEvents("Standup", monday, from,
+                occurrence -> occurrence.setStartTime(to));
+          }
+        } finally {
+          editing.countDown();
+        }
+        return null;
+      });
+      for (int t = 0; t < THREADS; t++) {
+        int week = t;
+        tasks.add(() -> {
+          while (editing.getCount() > 0) {
+            assertEquals(1, shared.getEventsOnDate(monday.plusWeeks(week)).size());
+            for (Event view : shared.getEventsOnDate(monday.plusWeeks(10))) {
+              view.setDescription("Edited by " + week);
+            }
+          }
+          return null;
+        });
+      }
+      runTogether(tasks);
+
+      assertEquals(20, shared.getEventCount());
+      assertEquals(1, shared.getEventsOnDate(monday.plusWeeks(10)).size());
+      assertTrue(shared.isBusyAt(monday.plusWeeks(19), LocalTime.of(9, 5)));
+    }
+  }
+
+  @Nested
+  @DisplayName("Journal Tests")
+  class JournalTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    private String csv(Calendar cal) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      cal.exportToCSV(out);
+      return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should recover every kind of change after reopening")
+    void testRecoversChanges() throws IOException {
+      CalendarJournal journal = CalendarJournal.create(tempDir, calendar,
+          JournalOptions.defaults());
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          "Private", "Notes", "Room 1");
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 6, null, null, null, null);
+      calendar.getEvent("Standup", monday.plusWeeks(1), LocalTime.of(9, 0))
+          .setLocation("Room 2");
+      calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(3), LocalTime.of(9, 0),
+          occurrence -> occurrence.setDescription("Later"));
+      calendar.getEvent("Review", testDate, testTime).setSubject("Design Review");
+      journal.close();
+
+      CalendarJournal reopened = CalendarJournal.open(tempDir, JournalOptions.defaults());
+      Calendar recovered = reopened.getCalendar();
+      assertEquals(csv(calendar), csv(recovered));
+      assertEquals("Work Calendar", recovered.getTitle());
+      assertEquals(5, reopened.getRecoveredChanges());
+
+      recovered.modifyAllRecurringEvents("Standup", monday, LocalTime.of(9, 0),
+          occurrence -> occurrence.setEndTime(LocalTime.of(9, 30)));
+      recovered.createRecurringEvent("Retro", monday, LocalTime.of(16, 0),
+          LocalTime.of(17, 0), Set.of(DayOfWeek.FRIDAY), 2, null, null, null, null);
+      reopened.close();
+
+      CalendarJournal again = CalendarJournal.open(tempDir, JournalOptions.defaults());
+      assertEquals(csv(recovered), csv(again.getCalendar()));
+      assertEquals(recovered.getEventCount(), again.getCalendar().getEventCount());
+      assertTrue(again.getCalendar().isBusyAt(monday, LocalTime.of(9, 20)));
+      assertFalse(again.getCalendar().isBusyAt(monday.plusWeeks(4), LocalTime.of(9, 20)));
+      again.close();
+    }
+
+    @Test
+    @DisplayName("Should keep the change that reports a failed background sync")
+    void testSyncFailure() throws Exception {
+      CalendarJournal journal = CalendarJournal.create(tempDir, calendar,
+          JournalOptions.defaults().withSyncInterval(Duration.ofHours(1)));
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          null, null, null);
+      Field failure = CalendarJournal.class.getDeclaredField("flushFailure");
+      failure.setAccessible(true);
+      failure.set(journal, new IOException("Disk full"));
+
+      assertThrows(UncheckedIOException.class,
+          () -> calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+              LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null));
+      calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(2), LocalTime.of(9, 0),
+          occurrence -> occurrence.setLocation("Room 2"));
+      journal.close();
+
+      CalendarJournal reopened = CalendarJournal.open(tempDir, JournalOptions.defaults());
+      assertEquals(csv(calendar), csv(reopened.getCalendar()));
+      assertEquals(5, reopened.getCalendar().getEventCount());
+      assertEquals(3, reopened.getRecoveredChanges());
+      reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should drop a torn frame at the end of the log")
+    void testTornTail() throws IOException {
+      CalendarJournal journal = CalendarJournal.create(tempDir, calendar,
+          JournalOptions.defaults().withSyncBatch(8));
+      for (int i = 0; i < 20; i++) {
+        calendar.createEvent("Event " + i, testDate, testDate, testTime.plusMinutes(i),
+            testTime.plusMinutes(i + 1), null, null, null);
+      }
+      journal.close();
+      long size = journal.getLogSize();
+      Path log = tempDir.resolve("calendar.log");
+      Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+      CalendarJournal reopened = CalendarJournal.open(tempDir, JournalOptions.defaults());
+      assertEquals(csv(calendar), csv(reopened.getCalendar()));
+      assertEquals(size, Files.size(log));
+      assertEquals(3, journal.getSyncCount());
+      reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should record nothing for a change that was rolled back")
+    void testAbortedChange() throws IOException {
+      Calendar strict = new ConcurrentCalendar("Strict", "Public", false);
+      strict.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      strict.createEvent("Blocker", monday.plusWeeks(2), monday.plusWeeks(2),
+          LocalTime.of(9, 30), LocalTime.of(10, 0), null, null, null);
+      CalendarJournal journal = CalendarJournal.create(tempDir, strict,
+          JournalOptions.defaults());
+
+      assertThrows(IllegalArgumentException.class,
+          () -> strict.modifyAllRecurringEvents("Standup", monday, LocalTime.of(9, 0),
+              occurrence -> occurrence.setEndTime(LocalTime.of(9, 45))));
+      assertEquals(0, journal.getCommitCount());
+      journal.close();
+
+      CalendarJournal reopened = CalendarJournal.open(tempDir, JournalOptions.defaults());
+      assertTrue(reopened.getCalendar() instanceof ConcurrentCalendar);
+      assertFalse(reopened.getCalendar().allowsConflicts());
+      assertEquals(csv(strict), csv(reopened.getCalendar()));
+      reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should compact the log into snapshots as it grows")
+    void testSnapshots() throws IOException {
+      JournalOptions options = JournalOptions.defaults().withSyncBatch(4)
+          .withSyncInterval(Duration.ofMillis(10)).withSnapshotThreshold(1024);
+      CalendarJournal journal = CalendarJournal.create(tempDir, calendar, options);
+      for (int i = 0; i < 50; i++) {
+        calendar.createEvent("Event " + i, testDate.plusDays(i), testDate.plusDays(i),
+            testTime, testTime.plusHours(1), null, "Details " + i, null);
+      }
+      assertTrue(journal.getSnapshotCount() > 0);
+      assertTrue(journal.getLogSize() < 1024);
+      assertThrows(FileAlreadyExistsException.class,
+          () -> CalendarJournal.create(tempDir, new Calendar("Other"), options));
+      journal.close();
+
+      CalendarJournal reopened = CalendarJournal.open(tempDir, options);
+      assertEquals(csv(calendar), csv(reopened.getCalendar()));
+      assertTrue(reopened.getRecoveredChanges() < 50);
+      reopened.close();
+    }
+  }
+
+  @Nested
+  @DisplayName("Calendar File Tests")
+  class CalendarFileTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    private List<String> describe(List<Event> events) {
+      List<String> described = new ArrayList<>();
+      for (Event event : events) {
+        described.add(event + " " + event.getVisibility() + " " + event.getDescription()
+            + " " + event.getLocation() + " " + event.getSeriesSubject());
+      }
+      return described;
+    }
+
+    private Path saveSample() throws IOException {
+      calendar.createEvent("Offsite", testDate, testDate.plusDays(2));
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          "Private", "Notes", "Room 1");
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), 8, null, null,
+          null, null);
+      calendar.getEvent("Standup", monday.plusWeeks(1), LocalTime.of(9, 0))
+          .setStartTime(LocalTime.of(8, 45));
+      calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(2), LocalTime.of(9, 0),
+          occurrence -> occurrence.setLocation("Room 2"));
+      Path path = tempDir.resolve("work.cal");
+      CalendarFile.write(calendar, path);
+      return path;
+    }
+
+    @Test
+    @DisplayName("Should answer range queries from the file as the calendar did")
+    void testQueriesMatchCalendar() throws IOException {
+      CalendarFile file = CalendarFile.open(saveSample());
+
+      assertEquals("Work Calendar", file.getTitle());
+      assertEquals("Public", file.getDefaultVisibility());
+      assertTrue(file.allowsConflicts());
+      assertEquals(calendar.getEventCount(), file.getEventCount());
+      for (int day = -3; day < 35; day++) {
+        LocalDate date = monday.plusDays(day);
+        assertEquals(describe(calendar.getEventsOnDate(date)),
+            describe(file.getEventsOnDate(date)), date.toString());
+      }
+      assertEquals(describe(calendar.getEventsInRange(monday, monday.plusWeeks(5))),
+          describe(file.getEventsInRange(monday, monday.plusWeeks(5))));
+    }
+
+    @Test
+    @DisplayName("Should load an editable calendar equal to the saved one")
+    void testLoad() throws IOException {
+      Calendar loaded = CalendarFile.open(saveSample()).load();
+
+      assertEquals(describe(calendar.getAllEvents()), describe(loaded.getAllEvents()));
+      assertEquals(calendar.getEventCount(), loaded.getEventCount());
+      loaded.modifyAllRecurringEvents("Standup", monday.plusWeeks(3), LocalTime.of(9, 0),
+          occurrence -> occurrence.setDescription("Moved"));
+      assertEquals("Moved", loaded.getEvent("Standup", monday.plusWeeks(3).plusDays(4),
+          LocalTime.of(9, 0)).getDescription());
+      assertThrows(IllegalArgumentException.class,
+          () -> loaded.createEvent("Review", testDate, testDate, testTime,
+              testTime.plusMinutes(30), null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a calendar file")
+    void testRejectsCorruptFile() throws IOException {
+      Path path = saveSample();
+      byte[] bytes = Files.readAllBytes(path);
+      bytes[9] ^= 1;
+      Files.write(path, bytes);
+      assertThrows(IOException.class, () -> CalendarFile.open(path));
+
+      Path other = tempDir.resolve("other.cal");
+      Files.writeString(other, "Subject,Start Date");
+      assertThrows(IOException.class, () -> CalendarFile.open(other));
+    }
+  }
+
+  @Nested
+  @DisplayName("Change Feed Tests")
+  class ChangeFeedTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    @Test
+    @DisplayName("Should report each change once with increasing versions")
+    void testReportsChanges() {
+      List<CalendarChange> changes = new ArrayList<>();
+      calendar.addListener(changes::add);
+
+      Event review = calendar.createEvent("Review", testDate, testDate, testTime,
+          testTime.plusHours(1), null, null, null);
+      review.setStartDate(testDate.plusDays(2));
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(2), LocalTime.of(9, 0),
+          occurrence -> occurrence.setLocation("Room 2"));
+
+      assertEquals(4, changes.size());
+      assertEquals(4, calendar.getVersion());
+      for (int i = 0; i < changes.size(); i++) {
+        assertEquals(i + 1, changes.get(i).getVersion());
+      }
+      assertEquals(List.of(review), changes.get(1).getEvents());
+      assertEquals(testDate, changes.get(1).getFirstDate());
+      assertEquals(testDate.plusDays(2), changes.get(1).getLastDate());
+      assertEquals(monday, changes.get(3).getFirstDate());
+      assertEquals(monday.plusWeeks(3), changes.get(3).getLastDate());
+    }
+
+    @Test
+    @DisplayName("Should report nothing for a change that was rolled back")
+    void testRolledBackChange() {
+      Calendar strict = new Calendar("Strict", "Public", false);
+      strict.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      strict.createEvent("Blocker", monday.plusWeeks(2), monday.plusWeeks(2),
+          LocalTime.of(9, 30), LocalTime.of(10, 0), null, null, null);
+      AtomicInteger reported = new AtomicInteger();
+      CalendarListener listener = change -> reported.incrementAndGet();
+      strict.addListener(listener);
+
+      assertThrows(IllegalArgumentException.class,
+          () -> strict.modifyAllRecurringEvents("Standup", monday, LocalTime.of(9, 0),
+              occurrence -> occurrence.setEndTime(LocalTime.of(9, 45))));
+      assertThrows(IllegalArgumentException.class,
+          () -> strict.createEvent("Clash", monday, monday, LocalTime.of(9, 0),
+              LocalTime.of(9, 10), null, null, null));
+      assertEquals(0, reported.get());
+      assertEquals(2, strict.getVersion());
+
+      strict.removeListener(listener);
+      strict.createEvent("Later", monday, monday, LocalTime.of(11, 0),
+          LocalTime.of(12, 0), null, null, null);
+      assertEquals(0, reported.get());
+      assertEquals(3, strict.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should report nothing for a rejected edit of an occurrence")
+    void testRejectedOccurrenceEdit() throws IOException {
+      Calendar strict = new Calendar("Strict", "Public", false);
+      strict.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      strict.createEvent("Blocker", monday.plusWeeks(1), monday.plusWeeks(1),
+          LocalTime.of(10, 0), LocalTime.of(11, 0), null, null, null);
+      AtomicInteger reported = new AtomicInteger();
+      strict.addListener(change -> reported.incrementAndGet());
+      Event occurrence = strict.getEvent("Standup", monday.plusWeeks(1), LocalTime.of(9, 0));
+
+      assertThrows(IllegalArgumentException.class,
+          () -> occurrence.setEndTime(LocalTime.of(10, 30)));
+      assertThrows(IllegalArgumentException.class,
+          () -> occurrence.setEndTime(LocalTime.of(8, 0)));
+      assertEquals(0, reported.get());
+      assertEquals(2, strict.getVersion());
+      assertEquals(1, occurrence.getVersion());
+      File file = tempDir.resolve("changes.csv").toFile();
+      strict.exportChangesSince(2, file);
+      assertEquals(1, Files.readAllLines(file.toPath()).size());
+      assertEquals(5, strict.getEventCount());
+      assertEquals(LocalTime.of(9, 15), occurrence.getEndTime());
+      assertFalse(strict.isBusyAt(monday.plusWeeks(1), LocalTime.of(9, 20)));
+
+      occurrence.setEndTime(LocalTime.of(9, 30));
+      assertEquals(1, reported.get());
+      assertEquals(3, strict.getVersion());
+      assertTrue(strict.isBusyAt(monday.plusWeeks(1), LocalTime.of(9, 20)));
+      assertEquals(5, strict.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Should keep reporting changes after a journal or a listener fails")
+    void testFailuresDoNotStopTheFeed() throws IOException {
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      CalendarJournal journal = CalendarJournal.create(tempDir, calendar,
+          JournalOptions.defaults().withSnapshotThreshold(1));
+      List<CalendarChange> changes = new ArrayList<>();
+      calendar.addListener(change -> {
+        throw new IllegalStateException("Listener failed");
+      });
+      calendar.addListener(changes::add);
+      List<Throwable> uncaught = new ArrayList<>();
+      Thread thread = Thread.currentThread();
+      Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+      thread.setUncaughtExceptionHandler((failed, e) -> uncaught.add(e));
+      try (Stream<Path> files = Files.list(tempDir)) {
+        for (Path file : files.collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(tempDir);
+
+      assertThrows(UncheckedIOException.class,
+          () -> calendar.modifyAllRecurringEvents("Standup", monday, LocalTime.of(9, 0),
+              occurrence -> occurrence.setLocation("Room 2")));
+      assertEquals(1, changes.size());
+      assertEquals(2, calendar.getVersion());
+      try {
+        journal.close();
+      } catch (IOException e) {
+        // The journal's directory is gone, so its last sync may fail.
+      }
+
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          null, null, null);
+      thread.setUncaughtExceptionHandler(handler);
+      assertEquals(2, changes.size());
+      assertEquals(3, calendar.getVersion());
+      assertEquals(2, uncaught.size());
+    }
+  }
+
+  @Nested
+  @DisplayName("Delta Export Tests")
+  class DeltaExportTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    private List<String> rows(long version) throws IOException {
+      File file = tempDir.resolve("changes.csv").toFile();
+      calendar.exportChangesSince(version, file);
+      List<String> lines = Files.readAllLines(file.toPath());
+      return lines.subList(1, lines.size());
+    }
+
+    @Test
+    @DisplayName("Should export only the events changed since a version")
+    void testExportsChanges() throws IOException {
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          null, null, null);
+      calendar.createEvent("Planning", testDate, testDate, testTime.plusHours(2),
+          testTime.plusHours(3), null, null, null);
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      long version = calendar.getVersion();
+      assertEquals(6, rows(0).size());
+      assertTrue(rows(version).isEmpty());
+
+      calendar.getEvent("Planning", testDate, testTime.plusHours(2)).setLocation("Room 2");
+      calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(2), LocalTime.of(9, 0),
+          occurrence -> occurrence.setDescription("Later"));
+      List<String> changed = rows(version);
+      assertEquals(3, changed.size());
+      assertTrue(changed.get(0).startsWith("Planning,"));
+      assertTrue(changed.get(1).startsWith("Standup,11/17/2025"));
+      assertTrue(changed.get(2).startsWith("Standup,11/24/2025"));
+
+      version = calendar.getVersion();
+      calendar.getEvent("Standup", monday, LocalTime.of(9, 0))
+          .setStartTime(LocalTime.of(8, 30));
+      assertEquals(1, rows(version).size());
+      assertTrue(rows(version).get(0).startsWith("Standup,11/03/2025,08:30"));
+    }
+
+    @Test
+    @DisplayName("Should export nothing for a change that was rolled back")
+    void testRolledBackChange() throws IOException {
+      calendar = new Calendar("Strict", "Public", false);
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      calendar.getEvent("Standup", monday.plusWeeks(1), LocalTime.of(9, 0))
+          .setLocation("Room 2");
+      calendar.createEvent("Blocker", monday.plusWeeks(2), monday.plusWeeks(2),
+          LocalTime.of(9, 30), LocalTime.of(10, 0), null, null, null);
+      long version = calendar.getVersion();
+
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(1),
+              LocalTime.of(9, 0), occurrence -> occurrence.setEndTime(LocalTime.of(9, 45))));
+      assertTrue(rows(version).isEmpty());
+      assertThrows(IllegalArgumentException.class, () -> rows(-1));
+    }
+
+    @Test
+    @DisplayName("Should keep the version of a series whose split was rejected")
+    void testRejectedSplitKeepsVersion() throws IOException {
+      calendar = new Calendar("Strict", "Public", false);
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      calendar.createEvent("Blocker", monday.plusWeeks(3), monday.plusWeeks(3),
+          LocalTime.of(9, 30), LocalTime.of(10, 0), null, null, null);
+      Series series = calendar.getEvent("Standup", monday, LocalTime.of(9, 0)).getSeries();
+      long seriesVersion = series.getVersion();
+      long version = calendar.getVersion();
+
+      assertThrows(IllegalArgumentException.class,
+          () -> calendar.modifyRecurringEventsFrom("Standup", monday.plusWeeks(2),
+              LocalTime.of(9, 0), occurrence -> occurrence.setEndTime(LocalTime.of(9, 45))));
+      assertEquals(seriesVersion, series.getVersion());
+      assertEquals(version, calendar.getVersion());
+      assertTrue(rows(version).isEmpty());
+      assertEquals(5, calendar.getEventCount());
+    }
+  }
+
+  @Nested
+  @DisplayName("Query Cache Tests")
+  class QueryCacheTests {
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    @Test
+    @DisplayName("Should answer repeated queries from the cache")
+    void testHitsAndEvictions() {
+      calendar.setQueryCacheCapacity(2);
+      calendar.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          null, null, null);
+
+      List<Event> first = calendar.getEventsOnDate(testDate);
+      first.clear();
+      assertEquals(1, calendar.getEventsOnDate(testDate).size());
+      calendar.getEventsInRange(monday, monday.plusDays(6));
+      calendar.getEventsOnDate(monday);
+      calendar.getEventsInRange(monday, monday.plusDays(30));
+
+      QueryCacheStats stats = calendar.getQueryCacheStats();
+      assertEquals(1, stats.getHits());
+      assertEquals(3, stats.getMisses());
+      assertEquals(1, stats.getEvictions());
+      assertEquals(2, stats.getSize());
+
+      calendar.setQueryCacheCapacity(0);
+      calendar.getEventsOnDate(monday);
+      assertEquals(0, calendar.getQueryCacheStats().getSize());
+      assertEquals(3, calendar.getQueryCacheStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Should drop only the results for the days a change touches")
+    void testPreciseInvalidation() {
+      calendar.setQueryCacheCapacity(16);
+      Event review = calendar.createEvent("Review", monday, monday, testTime,
+          testTime.plusHours(1), null, null, null);
+      calendar.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.WEDNESDAY), 2, null, null, null, null);
+      calendar.getEventsOnDate(monday);
+      calendar.getEventsOnDate(monday.plusDays(1));
+      calendar.getEventsOnDate(monday.plusWeeks(1));
+      calendar.getEventsInRange(monday, monday.plusDays(6));
+
+      review.setStartDate(monday.plusDays(1));
+      assertEquals(3, calendar.getQueryCacheStats().getInvalidations());
+      assertTrue(calendar.getEventsOnDate(monday).isEmpty());
+      assertEquals(List.of(review), calendar.getEventsOnDate(monday.plusDays(1)));
+
+      calendar.modifyAllRecurringEvents("Standup", monday.plusDays(2), LocalTime.of(9, 0),
+          occurrence -> occurrence.setStartTime(LocalTime.of(8, 0)));
+      calendar.getEventsOnDate(monday.plusWeeks(1));
+      calendar.getEventsOnDate(monday.plusDays(1));
+      assertEquals(2, calendar.getQueryCacheStats().getHits());
+      assertEquals(LocalTime.of(8, 0), calendar.getEventsInRange(monday, monday.plusDays(6))
+          .get(1).getStartTime());
+    }
+  }
+
+  @Nested
+  @DisplayName("Metrics Tests")
+  class MetricsTests {
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    @Test
+    @DisplayName("Should record latencies and counters only while enabled")
+    void testRecordsWhileEnabled() throws IOException {
+      Calendar strict = new Calendar("Strict", "Public", false);
+      strict.createEvent("Review", testDate, testDate, testTime, testTime.plusHours(1),
+          null, null, null);
+      strict.getEventsOnDate(testDate);
+      assertEquals(0, strict.getMetrics().getQueries());
+
+      strict.setMetricsEnabled(true);
+      strict.createRecurringEvent("Standup", monday, LocalTime.of(9, 0),
+          LocalTime.of(9, 15), Set.of(DayOfWeek.MONDAY), 4, null, null, null, null);
+      assertThrows(IllegalArgumentException.class,
+          () -> strict.createEvent("Clash", testDate, testDate, testTime,
+              testTime.plusMinutes(30), null, null, null));
+      strict.createEvent("Later", testDate, testDate, testTime.plusHours(2),
+          testTime.plusHours(3), null, null, null);
+      strict.getEventsInRange(monday, monday.plusDays(6));
+      strict.getEventsOnDate(monday.plusWeeks(1));
+      strict.isBusyAt(testDate, testTime);
+      strict.exportToCSV(OutputStream.nullOutputStream());
+
+      CalendarMetrics metrics = strict.getMetrics();
+      assertEquals(2, metrics.getLatency(CalendarMetrics.Operation.CREATE_EVENT).getCount());
+      assertEquals(1, metrics.getConflictsRejected());
+      assertEquals(2, metrics.getQueries());
+      assertEquals(4, metrics.getEventsScanned());
+      assertEquals(2.0, metrics.getEventsScannedPerQuery(), 0.0);
+      assertEquals(6, metrics.getEventCount());
+      assertEquals(1, metrics.getSeriesCount());
+      assertEquals(1, metrics.getLatency(CalendarMetrics.Operation.IS_BUSY_AT).getCount());
+      assertEquals(1, metrics.getLatency(CalendarMetrics.Operation.EXPORT_TO_CSV).getCount());
+      assertTrue(metrics.getLatency(CalendarMetrics.Operation.CONFLICT_CHECK).getCount() > 4);
+      OutputStream broken = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+          throw new IOException("Disk full");
+        }
+      };
+      assertThrows(IOException.class, () -> strict.exportToCSV(broken));
+      assertEquals(2, strict.getMetrics().getLatency(CalendarMetrics.Operation.EXPORT_TO_CSV)
+          .getCount());
+
+      strict.setMetricsEnabled(false);
+      strict.isBusyAt(testDate, testTime);
+      assertEquals(1, strict.getMetrics().getLatency(CalendarMetrics.Operation.IS_BUSY_AT)
+          .getCount());
+    }
+
+    @Test
+    @DisplayName("Should keep each latency to within a bucket of its value")
+    void testHistogramBuckets() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (long nanos = 1; nanos <= 1000; nanos++) {
+        histogram.record(nanos * 1000);
+      }
+      CalendarMetrics.Latency latency = histogram.snapshot();
+      assertEquals(1000, latency.getCount());
+      assertEquals(1_000_000, latency.getMax());
+      assertEquals(500_500.0, latency.getMean(), 0.0);
+      long median = latency.getValueAtPercentile(50);
+      assertTrue(median >= 500_000 && median <= 500_000 * 1.07, String.valueOf(median));
+      assertEquals(1_000_000, latency.getValueAtPercentile(100));
+      for (long value : new long[] {0, 15, 16, 17, 1000, Long.MAX_VALUE}) {
+        int bucket = LatencyHistogram.bucket(value);
+        assertTrue(LatencyHistogram.highestValue(bucket) >= value);
+        assertTrue(bucket == 0 || LatencyHistogram.highestValue(bucket - 1) < value);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Calendar Registry Tests")
+  class CalendarRegistryTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    private void fill(CalendarRegistry registry, int calendars) {
+      for (int i = 0; i < calendars; i++) {
+        int user = i;
+        registry.createCalendar("User " + user, "Public", false);
+        registry.withCalendar("User " + user, cal -> cal.createRecurringEvent("Standup",
+            monday, LocalTime.of(9 + user % 3, 0), LocalTime.of(9 + user % 3, 30),
+            Set.of(DayOfWeek.MONDAY), 10, null, null, null, null));
+        registry.withCalendar("User " + user, cal -> cal.createEvent("Review " + user,
+            monday, monday, LocalTime.of(14, 0), LocalTime.of(15, 0), null, null, null));
+      }
+    }
+
+    @Test
+    @DisplayName("Should save idle calendars to disk within the memory bound")
+    void testEvictsWithinBound() throws IOException {
+      RegistryOptions options = RegistryOptions.defaults().withShardCount(2)
+          .withMaxLoadedEvents(6);
+      CalendarRegistry registry = CalendarRegistry.open(tempDir, options);
+      fill(registry, 12);
+
+      assertTrue(registry.getLoadedCount() <= 6);
+      assertTrue(registry.getEvictionCount() >= 6);
+      assertEquals(List.of("User 0", "User 3", "User 6", "User 9"),
+          registry.findBusyAt(monday.plusWeeks(2), LocalTime.of(9, 15)));
+      assertEquals(12, registry.findBusyAt(monday, LocalTime.of(14, 30)).size());
+
+      Map<String, List<Event>> team = registry.getEventsOnDate(monday,
+          List.of("User 5", "User 0"));
+      assertEquals(List.of("User 5", "User 0"), new ArrayList<>(team.keySet()));
+      assertEquals("Review 5", team.get("User 5").get(1).getSubject());
+      assertThrows(IllegalArgumentException.class,
+          () -> registry.getEventsOnDate(monday, List.of("Nobody")));
+
+      assertEquals(2, (int) registry.withCalendar("User 0",
+          cal -> cal.getEventsOnDate(monday).size()));
+      assertThrows(IllegalArgumentException.class,
+          () -> registry.createCalendar("User 1", "Public", true));
+      assertTrue(registry.removeCalendar("User 11"));
+      assertFalse(registry.contains("User 11"));
+      registry.close();
+
+      CalendarRegistry reopened = CalendarRegistry.open(tempDir, options);
+      assertEquals(11, reopened.getTitles().size());
+      assertEquals(0, reopened.getLoadedCount());
+      assertEquals(11, reopened.findBusyAt(monday, LocalTime.of(14, 30)).size());
+      assertFalse(reopened.withCalendar("User 4", Calendar::allowsConflicts));
+      reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should save calendars that stay unused past the idle timeout")
+    void testIdleTimeout() throws Exception {
+      CalendarRegistry registry = CalendarRegistry.open(tempDir,
+          RegistryOptions.defaults().withShardCount(1).withIdleTimeout(Duration.ofMillis(20)));
+      fill(registry, 3);
+      for (int wait = 0; wait < 100 && registry.getLoadedCount() > 0; wait++) {
+        Thread.sleep(20);
+      }
+      assertEquals(0, registry.getLoadedCount());
+      assertEquals(List.of("User 1"), registry.findBusyAt(monday, LocalTime.of(10, 0)));
+      registry.close();
+    }
+  }
+
+  @Nested
+  @DisplayName("Group Availability Tests")
+  class GroupAvailabilityTests {
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    @Test
+    @DisplayName("Should find the working hours every calendar has free")
+    void testCommonFreeSlots() {
+      Calendar alice = new Calendar("Alice", "Public", false);
+      Calendar bob = new ConcurrentCalendar("Bob", "Public", true);
+      alice.createRecurringEvent("Standup", monday, LocalTime.of(9, 0), LocalTime.of(9, 30),
+          Set.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY), 4, null, null, null, null);
+      bob.createEvent("Review", monday, monday, LocalTime.of(11, 0), LocalTime.of(12, 15),
+          null, null, null);
+      bob.createEvent("Lunch", monday, monday, LocalTime.of(12, 0), LocalTime.of(13, 0),
+          null, null, null);
+      bob.createEvent("Offsite", monday.plusDays(1), monday.plusDays(1));
+
+      List<TimeSlot> slots = Calendar.findCommonFreeSlots(List.of(alice, bob), monday,
+          monday.plusDays(2), Duration.ofMinutes(90), LocalTime.of(9, 0), LocalTime.of(17, 0));
+      assertEquals(List.of(
+          new TimeSlot(monday.atTime(9, 30), monday.atTime(11, 0)),
+          new TimeSlot(monday.atTime(13, 0), monday.atTime(17, 0)),
+          new TimeSlot(monday.plusDays(2).atTime(9, 0), monday.plusDays(2).atTime(17, 0))),
+          slots);
+      assertEquals(List.of(new TimeSlot(monday.atTime(9, 30), monday.atTime(11, 0))),
+          Calendar.findCommonFreeSlots(List.of(alice, bob), monday, monday,
+              Duration.ofMinutes(89).plusSeconds(1), LocalTime.of(9, 0), LocalTime.of(12, 0)));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid searches")
+    void testInvalidSearches() {
+      Calendar alice = new Calendar("Alice", "Public", false);
+      assertThrows(IllegalArgumentException.class, () -> Calendar.findCommonFreeSlots(
+          List.of(alice), monday, monday.minusDays(1), Duration.ofHours(1),
+          LocalTime.of(9, 0), LocalTime.of(17, 0)));
+      assertThrows(IllegalArgumentException.class, () -> Calendar.findCommonFreeSlots(
+          List.of(alice), monday, monday, Duration.ofHours(1),
+          LocalTime.of(17, 0), LocalTime.of(9, 0)));
+      assertThrows(IllegalArgumentException.class, () -> Calendar.findCommonFreeSlots(
+          List.of(alice), monday, monday, Duration.ZERO, LocalTime.of(9, 0), LocalTime.of(17, 0)));
+      assertEquals(1, Calendar.findCommonFreeSlots(List.of(), monday, monday,
+          Duration.ofHours(8), LocalTime.of(9, 0), LocalTime.of(17, 0)).size());
+    }
+
+    @Test
+    @DisplayName("Should never search a bitmap torn by a concurrent write")
+    void testSearchDuringWrites() throws Exception {
+      Calendar shared = new ConcurrentCalendar("Shared", "Public", true);
+      Event blocker = shared.createEvent("Blocker", monday, monday, LocalTime.of(9, 0),
+          LocalTime.of(10, 0), null, null, null);
+      AtomicBoolean done = new AtomicBoolean();
+      ExecutorService writer = Executors.newSingleThreadExecutor();
+      Future<?> moves = writer.submit(() -> {
+        for (int i = 0; i < 2000; i++) {
+          blocker.setStartTime(LocalTime.of(i % 2 == 0 ? 14 : 9, 0));
+        }
+        done.set(true);
+      });
+      try {
+        while (!done.get()) {
+          long free = 0;
+          for (TimeSlot slot : Calendar.findCommonFreeSlots(List.of(shared), monday, monday,
+              Duration.ofMinutes(30), LocalTime.of(8, 0), LocalTime.of(18, 0))) {
+            free += slot.getDuration().toMinutes();
+          }
+          assertEquals(9 * 60, free);
+        }
+        moves.get(10, TimeUnit.SECONDS);
+      } finally {
+        writer.shutdownNow();
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Event Stream Tests")
+  class EventStreamTests {
+
+    private final LocalDate monday = LocalDate.of(2025, 11, 3);
+
+    private Calendar busyCalendar(Calendar cal) {
+      cal.createRecurringEvent("Standup", monday, LocalTime.of(9, 0), LocalTime.of(9, 30),
+          Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), 40, null, null, null, null);
+      cal.createEvent("Trip", monday.minusDays(2), monday.plusDays(1), LocalTime.of(8, 0),
+          LocalTime.of(18, 0), null, null, null);
+      for (int i = 0; i < 60; i++) {
+        cal.createEvent("Review " + i, monday.plusDays(i), monday.plusDays(i),
+            LocalTime.of(9, 0), LocalTime.of(10, 0), null, null, null);
+      }
+      cal.getEvent("Standup", monday.plusDays(7), LocalTime.of(9, 0))
+          .setSubject("Planning");
+      return cal;
+    }
+
+    private List<String> describe(List<Event> events) {
+      List<String> described = new ArrayList<>();
+      for (Event event : events) {
+        described.add(event.getSubject() + "@" + event.getStartDate() + "T"
+            + event.getStartTime());
+      }
+      return described;
+    }
+
+    @Test
+    @DisplayName("Should stream the same events as the lists, lazily and in parallel")
+    void testStreamsMatchLists() {
+      Calendar cal = busyCalendar(new ConcurrentCalendar("Work"));
+      LocalDate from = monday.plusDays(3);
+      LocalDate to = monday.plusDays(40);
+
+      assertEquals(describe(cal.getAllEvents()),
+          describe(cal.streamAllEvents().collect(Collectors.toList())));
+      assertEquals(describe(cal.getEventsInRange(from, to)),
+          describe(cal.streamEventsInRange(from, to).collect(Collectors.toList())));
+      assertEquals(describe(cal.getEventsInRange(from, to)),
+          describe(cal.streamEventsInRange(from, to).parallel()
+              .collect(Collectors.toList())));
+      assertEquals(describe(cal.getAllEvents()),
+          describe(cal.streamAllEvents().parallel().collect(Collectors.toList())));
+      assertEquals(describe(cal.getEventsOnDate(monday)),
+          describe(cal.streamEventsOnDate(monday).collect(Collectors.toList())));
+      assertEquals("Planning", cal.streamEventsInRange(monday.plusDays(5), to)
+          .filter(event -> event.getSubject().startsWith("P")).findFirst().get()
+          .getSubject());
+      assertEquals(3, cal.streamAllEvents().limit(3).count());
+      assertEquals(0, new Calendar("Empty").streamAllEvents().count());
+      assertThrows(IllegalArgumentException.class,
+          () -> cal.streamEventsInRange(to, from));
+    }
+
+    @Test
+    @DisplayName("Should fail fast when the calendar changes during a stream")
+    void testFailFast() {
+      for (Calendar cal : List.of(busyCalendar(new Calendar("Work")),
+          busyCalendar(new ConcurrentCalendar("Work")))) {
+        Iterator<Event> events = cal.streamAllEvents().iterator();
+        events.next();
+        cal.createEvent("Late", monday, monday, LocalTime.of(20, 0), LocalTime.of(21, 0),
+            null, null, null);
+        assertThrows(ConcurrentModificationException.class, events::next);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Bulk Export Tests")
+  class BulkExportTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should export every calendar within the open file bound")
+    void testExportsAll() throws Exception {
+      List<Calendar> calendars = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        Calendar cal = i % 2 == 0 ? new Calendar("Tenant " + i)
+            : new ConcurrentCalendar("Tenant " + i);
+        cal.createEvent("Meeting " + i, testDate, testDate, LocalTime.of(9, 0),
+            LocalTime.of(10, 0), null, null, null);
+        calendars.add(cal);
+      }
+      AtomicInteger open = new AtomicInteger();
+      AtomicInteger mostOpen = new AtomicInteger();
+      ExecutorService pool = Executors.newCachedThreadPool();
+      BulkExportReport report = Calendar.exportAllToCSV(calendars, cal -> {
+        mostOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        open.decrementAndGet();
+        return tempDir.resolve(cal.getTitle() + ".csv");
+      }, BulkExportOptions.defaults().withMaxOpenFiles(3).withExecutor(pool));
+      pool.shutdown();
+
+      assertFalse(report.hasFailures());
+      assertTrue(mostOpen.get() <= 3);
+      assertEquals(12, report.getExports().size());
+      assertEquals("Tenant 5", report.getExports().get(5).getTitle());
+      assertEquals(report.getBytesWritten(), report.getExports().stream()
+          .mapToLong(export -> export.getBytesWritten()).sum());
+      String csv = Files.readString(tempDir.resolve("Tenant 7.csv"));
+      assertTrue(csv.contains("Meeting 7"));
+      assertEquals(Files.size(tempDir.resolve("Tenant 7.csv")),
+          report.getExports().get(7).getBytesWritten());
+    }
+
+    @Test
+    @DisplayName("Should report failed exports without stopping the others")
+    void testReportsFailures() throws Exception {
+      Calendar work = new Calendar("Work");
+      Calendar home = new Calendar("Home");
+      BulkExportReport report = Calendar.exportAllToCSV(List.of(work, home),
+          cal -> cal == work ? tempDir.resolve("missing").resolve("work.csv")
+              : tempDir.resolve("home.csv"),
+          BulkExportOptions.defaults());
+
+      assertEquals(1, report.getFailures().size());
+      assertEquals("Work", report.getFailures().get(0).getTitle());
+      assertTrue(report.getFailures().get(0).getFailure() instanceof IOException);
+      assertTrue(report.getExports().get(1).isSuccessful());
+      assertTrue(Files.exists(tempDir.resolve("home.csv")));
+      assertThrows(IllegalArgumentException.class,
+          () -> BulkExportOptions.defaults().withMaxOpenFiles(0));
+    }
+  }
+
+  @Nested
+  @DisplayName("Hot Path Tests")
+  class HotPathTests {
+
+    @Test
+    @DisplayName("Should find the same conflicts as a scan of every interval")
+    void testOccupancyMatchesScan() {
+      OccupancyMap occupancy = new OccupancyMap();
+      List<long[]> occupied = new ArrayList<>();
+      Random random = new Random(24);
+      for (int step = 0; step < 5000; step++) {
+        long start = random.nextInt(20000);
+        long end = start + 1 + random.nextInt(40);
+        boolean free = true;
+        for (long[] interval : occupied) {
+          free &= interval[1] <= start || interval[0] >= end;
+        }
+        assertEquals(free, occupancy.isFree(start, end));
+        if (free && random.nextInt(3) > 0) {
+          occupancy.occupy(start, end);
+          occupied.add(new long[] {start, end});
+        } else if (!occupied.isEmpty() && random.nextBoolean()) {
+          long[] released = occupied.remove(random.nextInt(occupied.size()));
+          occupancy.release(released[0]);
+          assertTrue(occupancy.isFree(released[0], released[1]));
+        }
+      }
+      long[] moved = occupied.get(0);
+      assertTrue(occupancy.isFreeIgnoring(moved[0], moved[1], moved[0]));
+    }
+
+    @Test
+    @DisplayName("Should skip edited occurrences when checking series for conflicts")
+    void testEditedOccurrencesInConflictCheck() {
+      Calendar cal = new ConcurrentCalendar("Work", "Public", false);
+      LocalDate monday = LocalDate.of(2025, 11, 3);
+      cal.createRecurringEvent("Standup", monday, LocalTime.of(9, 0), LocalTime.of(9, 30),
+          Set.of(DayOfWeek.MONDAY), 6, null, null, null, null);
+      cal.getEvent("Standup", monday.plusWeeks(1), LocalTime.of(9, 0))
+          .setStartTime(LocalTime.of(11, 0));
+      cal.getEvent("Standup", monday.plusWeeks(4), LocalTime.of(9, 0))
+          .setStartTime(LocalTime.of(11, 0));
+      cal.modifyRecurringEventsFrom("Standup", monday.plusWeeks(3), LocalTime.of(9, 0),
+          event -> event.setLocation("Room 2"));
+
+      assertTrue(cal.isBusyAt(monday.plusWeeks(3), LocalTime.of(9, 15)));
+      assertFalse(cal.isBusyAt(monday.plusWeeks(4), LocalTime.of(9, 15)));
+      cal.createEvent("Review", monday.plusWeeks(1), monday.plusWeeks(1),
+          LocalTime.of(9, 0), LocalTime.of(10, 0), null, null, null);
+      cal.createEvent("Review", monday.plusWeeks(4), monday.plusWeeks(4),
+          LocalTime.of(9, 0), LocalTime.of(10, 0), null, null, null);
+      assertThrows(IllegalArgumentException.class, () -> cal.createEvent("Review",
+          monday.plusWeeks(3), monday.plusWeeks(3), LocalTime.of(9, 0),
+          LocalTime.of(10, 0), null, null, null));
+    }
+  }
+
+  @Nested
+  @DisplayName("Time Zone Tests")
+  class TimeZoneTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final ZoneId newYork = ZoneId.of("America/New_York");
+    private final ZoneId london = ZoneId.of("Europe/London");
+
+    private Instant utc(int month, int day, int hour, int minute) {
+      return LocalDateTime.of(2025, month, day, hour, minute).toInstant(ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Should keep a series at the same local time across a DST change")
+    void testSeriesAcrossDaylightSaving() {
+      Calendar cal = new Calendar("Work", "Public", false, newYork);
+      cal.createRecurringEvent("Standup", LocalDate.of(2025, 10, 27), LocalTime.of(9, 0),
+          LocalTime.of(10, 0), Set.of(DayOfWeek.MONDAY), 2, null, null, null, null);
+
+      List<Event> standups = cal.getEventsInRange(LocalDate.of(2025, 10, 27),
+          LocalDate.of(2025, 11, 3));
+      assertEquals(utc(10, 27, 13, 0), standups.get(0).getStartInstant());
+      assertEquals(utc(11, 3, 14, 0), standups.get(1).getStartInstant());
+      assertEquals(LocalTime.of(9, 0), standups.get(1).getStartTime());
+      assertEquals(newYork, standups.get(1).getZone());
+      assertTrue(cal.isBusyAt(utc(10, 27, 13, 30)));
+      assertFalse(cal.isBusyAt(utc(10, 27, 14, 30)));
+      assertTrue(cal.isBusyAt(utc(11, 3, 14, 30)));
+      assertFalse(cal.isBusyAt(utc(11, 3, 13, 30)));
+      assertEquals(List.of(standups.get(1)).toString(),
+          cal.getEventsBetween(utc(11, 3, 13, 30), utc(11, 3, 14, 30)).toString());
+      assertEquals(1, cal.getEventsBetween(utc(10, 27, 13, 30), utc(11, 3, 13, 59)).size());
+    }
+
+    @Test
+    @DisplayName("Should store an event created in another zone at the calendar's time")
+    void testEventInOwnZone() {
+      Calendar cal = new ConcurrentCalendar("Work", "Public", false, newYork);
+      Event flight = cal.createEvent("Flight",
+          ZonedDateTime.of(2025, 11, 2, 12, 0, 0, 0, london),
+          ZonedDateTime.of(2025, 11, 2, 14, 0, 0, 0, london), null, null, null);
+
+      assertEquals(LocalTime.of(7, 0), flight.getStartTime());
+      assertEquals(london, flight.getZone());
+      assertEquals(utc(11, 2, 12, 0), flight.getStartInstant());
+      assertTrue(cal.isBusyAt(utc(11, 2, 13, 0)));
+      assertFalse(cal.isBusyAt(utc(11, 2, 14, 0)));
+      assertThrows(IllegalArgumentException.class, () -> cal.createEvent("Call",
+          ZonedDateTime.of(2025, 11, 2, 8, 30, 0, 0, newYork),
+          ZonedDateTime.of(2025, 11, 2, 9, 30, 0, 0, newYork), null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should find free time common to calendars in different zones")
+    void testCommonFreeSlotsAcrossZones() {
+      Calendar inLondon = new Calendar("London", "Public", false, london);
+      Calendar inNewYork = new Calendar("New York", "Public", false, newYork);
+      LocalDate day = LocalDate.of(2025, 6, 2);
+      inLondon.createEvent("Review", day, day, LocalTime.of(14, 0), LocalTime.of(15, 0),
+          null, null, null);
+      inNewYork.createEvent("Review", day, day, LocalTime.of(10, 0), LocalTime.of(11, 0),
+          null, null, null);
+
+      List<TimeSlot> slots = Calendar.findCommonFreeSlots(List.of(inLondon, inNewYork), day,
+          day, Duration.ofMinutes(30), LocalTime.of(12, 0), LocalTime.of(16, 0),
+          ZoneOffset.UTC);
+      assertEquals(List.of(
+          new TimeSlot(day.atTime(12, 0), day.atTime(13, 0)),
+          new TimeSlot(day.atTime(15, 0), day.atTime(16, 0))), slots);
+    }
+
+    @Test
+    @DisplayName("Should keep zones when saving and reopening a calendar")
+    void testZonesPersist() throws IOException {
+      Calendar cal = new Calendar("Work", "Public", true, newYork);
+      CalendarJournal journal = CalendarJournal.create(tempDir.resolve("journal"), cal,
+          JournalOptions.defaults());
+      cal.createEvent("Flight", ZonedDateTime.of(2025, 11, 2, 12, 0, 0, 0, london),
+          ZonedDateTime.of(2025, 11, 2, 14, 0, 0, 0, london), null, null, null);
+      journal.close();
+      Path path = tempDir.resolve("work.cal");
+      CalendarFile.write(cal, path);
+
+      Calendar recovered = CalendarJournal.open(tempDir.resolve("journal"),
+          JournalOptions.defaults()).getCalendar();
+      Calendar loaded = CalendarFile.open(path).load();
+      Event copy = CalendarFile.open(path).getEventsOnDate(LocalDate.of(2025, 11, 2)).get(0);
+      for (Calendar reopened : List.of(recovered, loaded)) {
+        assertEquals(newYork, reopened.getZone());
+        Event flight = reopened.getAllEvents().get(0);
+        assertEquals(london, flight.getZone());
+        assertEquals(utc(11, 2, 12, 0), flight.getStartInstant());
+      }
+      assertEquals(london, copy.getZone());
+      assertEquals(utc(11, 2, 14, 0), copy.getEndInstant());
+    }
   }
 }
\ No newline at end of file
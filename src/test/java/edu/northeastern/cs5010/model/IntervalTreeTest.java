@@ -0,0 +1,104 @@
+package edu.northeastern.cs5010.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the interval tree that indexes calendar events, checked against a
+ * linear scan over the same intervals.
+ */
+class IntervalTreeTest {
+
+  private IntervalTree<long[]> tree;
+  private List<long[]> intervals;
+  private Random random;
+
+  @BeforeEach
+  void setUp() {
+    tree = new IntervalTree<>();
+    intervals = new ArrayList<>();
+    random = new Random(42);
+    for (int id = 0; id < 2000; id++) {
+      long start = random.nextInt(100_000);
+      long[] interval = {start, start + 1 + random.nextInt(500), id};
+      intervals.add(interval);
+      tree.insert(interval[0], interval[1], interval[2], interval);
+    }
+  }
+
+  @Test
+  @DisplayName("Should find the same overlapping intervals as a linear scan")
+  void testOverlapMatchesLinearScan() {
+    for (int i = 0; i < 500; i++) {
+      long from = random.nextInt(100_000);
+      long to = from + 1 + random.nextInt(2000);
+
+      assertEquals(scan(from, to), query(from, to));
+    }
+  }
+
+  @Test
+  @DisplayName("Should visit overlapping intervals in start order")
+  void testResultsOrderedByStart() {
+    List<long[]> found = new ArrayList<>();
+    tree.forEachOverlapping(0, Long.MAX_VALUE, found::add);
+
+    assertEquals(intervals.size(), found.size());
+    for (int i = 1; i < found.size(); i++) {
+      assertTrue(found.get(i - 1)[0] <= found.get(i)[0]);
+    }
+  }
+
+  @Test
+  @DisplayName("Should stay consistent after removing intervals")
+  void testRemove() {
+    for (int i = 0; i < intervals.size(); i += 2) {
+      long[] interval = intervals.get(i);
+      assertTrue(tree.remove(interval[0], interval[2]));
+    }
+    intervals.removeIf(interval -> interval[2] % 2 == 0);
+
+    assertEquals(intervals.size(), tree.size());
+    assertFalse(tree.remove(-1, -1));
+    for (int i = 0; i < 200; i++) {
+      long from = random.nextInt(100_000);
+      long to = from + 1 + random.nextInt(2000);
+
+      assertEquals(scan(from, to), query(from, to));
+    }
+  }
+
+  @Test
+  @DisplayName("Should treat intervals as half-open")
+  void testHalfOpenBounds() {
+    IntervalTree<String> small = new IntervalTree<>();
+    small.insert(10, 20, 0, "a");
+
+    assertFalse(small.anyOverlapping(20, 30, value -> true));
+    assertFalse(small.anyOverlapping(0, 10, value -> true));
+    assertTrue(small.anyOverlapping(19, 20, value -> true));
+  }
+
+  private List<long[]> query(long from, long to) {
+    List<long[]> found = new ArrayList<>();
+    tree.forEachOverlapping(from, to, found::add);
+    found.sort((a, b) -> Long.compare(a[2], b[2]));
+    return found;
+  }
+
+  private List<long[]> scan(long from, long to) {
+    List<long[]> found = new ArrayList<>();
+    for (long[] interval : intervals) {
+      if (interval[0] < to && interval[1] > from) {
+        found.add(interval);
+      }
+    }
+    return found;
+  }
+}